@@ -0,0 +1,180 @@
+package engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prüft, dass alle Engines genau die gleichen Generationen berechnen wie die ScalarEngine, welche die Regeln
+ * Zelle für Zelle anwendet: lebende Zellen, Farben, gezählte Zellen und Hash.
+ */
+class EngineEquivalenceTest {
+    // Engines mit Rand, sie müssen bei jedem Rand gleich rechnen
+    private static final EngineType[] BOUNDED = {
+            EngineType.BIT, EngineType.PARALLEL, EngineType.TILE, EngineType.VECTOR
+    };
+    private static final String[] RULES = {"B3/S23", "B36/S23", "B3678/S34678", "B2/S", "B1357/S1357"};
+    // Breiten mit und ohne ganze Wörter, Höhen ungerade und kleiner bzw. grösser als eine Kachel
+    private static final int[][] SIZES = {{1, 7}, {5, 3}, {63, 17}, {64, 33}, {65, 16}, {130, 41}, {200, 77}};
+    private static final int GENERATIONS = 30;
+
+    @Test
+    void boundedEnginesMatchScalar() {
+        for (EngineType type : BOUNDED) {
+            for (Boundary boundary : Boundary.values()) {
+                for (String rule : RULES) {
+                    for (int[] size : SIZES) {
+                        Board start = new Board(size[0], size[1]);
+                        start.randomize(new Random(size[0] * 31L + size[1]), 35);
+                        compare(type, Rule.parse(rule), boundary, start, GENERATIONS,
+                                type + " " + boundary + " " + rule + " " + size[0] + "x" + size[1]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void boundedEnginesMatchScalarOnResizedBoards() {
+        for (EngineType type : BOUNDED) {
+            for (Boundary boundary : Boundary.values()) {
+                // Die Arrays des Spielfeldes sind grösser als nötig (siehe Board.resize())
+                Board start = new Board(300, 200);
+                start.resize(131, 77);
+                start.randomize(new Random(7), 35);
+                compare(type, Rule.LIFE, boundary, start, GENERATIONS, type + " " + boundary + " verkleinert");
+            }
+        }
+    }
+
+    @Test
+    void boundedEnginesFollowResizeDuringRun() {
+        for (EngineType type : BOUNDED) {
+            for (Boundary boundary : Boundary.values()) {
+                Board scalarCurrent = new Board(100, 60);
+                scalarCurrent.randomize(new Random(11), 35);
+                Board current = scalarCurrent.copy();
+                Board scalarNext = new Board(100, 60);
+                Board next = new Board(100, 60);
+                String name = type + " " + boundary + " Grösse geändert";
+
+                try (Engine scalar = new ScalarEngine(Rule.LIFE, boundary);
+                     Engine engine = type.create(Rule.LIFE, boundary)) {
+                    for (int generation = 0; generation < GENERATIONS; generation++) {
+                        if (generation == 10 || generation == 20) {
+                            // Erst grösser, dann kleiner als am Anfang, beide Spielfelder gleich verändert
+                            int width = generation == 10 ? 170 : 70;
+                            int height = generation == 10 ? 90 : 45;
+                            scalarCurrent.resize(width, height);
+                            scalarNext.resize(width, height);
+                            current.resize(width, height);
+                            next.resize(width, height);
+                        }
+                        boolean fade = generation % 2 == 0;
+                        scalar.step(scalarCurrent, scalarNext, fade);
+                        engine.step(current, next, fade);
+                        assertSameBoard(scalarNext, next, name + " Generation " + generation);
+
+                        Board swap = scalarCurrent;
+                        scalarCurrent = scalarNext;
+                        scalarNext = swap;
+                        swap = current;
+                        current = next;
+                        next = swap;
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void unboundedEnginesMatchScalarInsideBoard() {
+        // Die Zellen erreichen den Rand in dieser Zeit nicht, der Rand spielt also keine Rolle
+        for (EngineType type : new EngineType[]{EngineType.HASHLIFE, EngineType.SPARSE}) {
+            for (String rule : RULES) {
+                compare(type, Rule.parse(rule), Boundary.DEAD, centeredSoup(256, 192, 40), GENERATIONS,
+                        type + " " + rule);
+            }
+        }
+    }
+
+    @Test
+    void hashLifeJumpMatchesSteps() {
+        for (long generations : new long[]{1, 2, 7, 32, 37}) {
+            Board start = centeredSoup(256, 256, 48);
+            Board expected = start.copy();
+            Board scratch = new Board(256, 256);
+            try (Engine scalar = new ScalarEngine()) {
+                for (long i = 0; i < generations; i++) {
+                    scalar.step(expected, scratch, false);
+                    Board swap = expected;
+                    expected = scratch;
+                    scratch = swap;
+                }
+            }
+
+            Board result = new Board(256, 256);
+            new HashLife().advance(start, result, generations, false);
+            for (int i = 0; i < expected.getWordCount(); i++) {
+                assertEquals(expected.getWord(i), result.getWord(i), "HashLife Sprung um " + generations + ", Wort " + i);
+            }
+            assertEquals(expected.getPopulation(), result.getPopulation(), "HashLife Sprung um " + generations);
+        }
+    }
+
+    /**
+     * Berechnet die Generationen mit der ScalarEngine und der geprüften Engine und vergleicht sie nach jedem Schritt.
+     */
+    private static void compare(EngineType type, Rule rule, Boundary boundary, Board start, int generations, String name) {
+        Board scalarCurrent = start.copy();
+        Board scalarNext = new Board(start.getWidth(), start.getHeight());
+        Board current = start.copy();
+        Board next = new Board(start.getWidth(), start.getHeight());
+
+        try (Engine scalar = new ScalarEngine(rule, boundary); Engine engine = type.create(rule, boundary)) {
+            for (int generation = 0; generation < generations; generation++) {
+                boolean fade = generation % 2 == 0;
+                scalar.step(scalarCurrent, scalarNext, fade);
+                engine.step(current, next, fade);
+                assertSameBoard(scalarNext, next, name + " Generation " + generation);
+
+                Board swap = scalarCurrent;
+                scalarCurrent = scalarNext;
+                scalarNext = swap;
+                swap = current;
+                current = next;
+                next = swap;
+            }
+        }
+    }
+
+    private static void assertSameBoard(Board expected, Board actual, String name) {
+        for (int i = 0; i < expected.getWordCount(); i++) {
+            assertEquals(expected.getWord(i), actual.getWord(i), name + ", Wort " + i);
+        }
+        assertTrue(expected.hasSameColors(actual), name + ", Farben");
+        assertEquals(expected.getPopulation(), actual.getPopulation(), name + ", lebende Zellen");
+        assertEquals(expected.getBirths(), actual.getBirths(), name + ", geborene Zellen");
+        assertEquals(expected.getDeaths(), actual.getDeaths(), name + ", gestorbene Zellen");
+        assertEquals(expected.getHash(), actual.getHash(), name + ", Hash");
+    }
+
+    /**
+     * @return Spielfeld mit zufälligen Zellen in einem Quadrat in der Mitte
+     */
+    private static Board centeredSoup(int width, int height, int size) {
+        Board board = new Board(width, height);
+        Random random = new Random(size);
+        for (int y = (height - size) / 2; y < (height + size) / 2; y++) {
+            for (int x = (width - size) / 2; x < (width + size) / 2; x++) {
+                if (random.nextInt(100) < 35) {
+                    board.revive(x, y);
+                }
+            }
+        }
+        return board;
+    }
+}
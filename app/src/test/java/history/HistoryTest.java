@@ -0,0 +1,160 @@
+package history;
+
+import engine.BitEngine;
+import engine.Board;
+import engine.Engine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prüft, dass die Verläufe jede gespeicherte Generation genau so wiederherstellen, wie sie gespeichert wurde
+ * (lebende Zellen und Farben), auch mit bearbeiteten Generationen, Budget und nach einem Neustart.
+ */
+class HistoryTest {
+    private static final int WIDTH = 150;
+    private static final int HEIGHT = 70;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void deltaHistoryRestoresEveryGeneration() {
+        DeltaHistory history = new DeltaHistory(Long.MAX_VALUE, 8);
+        List<Board> generations = run(history, 200);
+        assertEquals(200, history.size());
+        assertReadable(history, generations);
+    }
+
+    @Test
+    void deltaHistoryStaysWithinBudget() {
+        long budget = 40_000;
+        DeltaHistory history = new DeltaHistory(budget, 8);
+        List<Board> generations = run(history, 300);
+        assertTrue(history.getMemoryUsage() <= budget, "Speicherbedarf " + history.getMemoryUsage());
+        assertTrue(history.size() < 300);
+        // Die neueste Generation bleibt immer erhalten
+        assertEquals(299, history.getLastGeneration());
+        assertReadable(history, generations);
+    }
+
+    @Test
+    void restoreRemovesNewerGenerations() {
+        DeltaHistory history = new DeltaHistory(Long.MAX_VALUE, 8);
+        List<Board> generations = run(history, 100);
+
+        Board target = new Board(1, 1);
+        assertTrue(history.restore(42, target));
+        assertSame(generations.get(42), target, "Generation 42");
+        assertEquals(42, history.size());
+        assertEquals(41, history.getLastGeneration());
+        assertReadable(history, generations);
+    }
+
+    @Test
+    void mappedHistoryRestoresEveryGenerationAfterReopen() throws IOException {
+        Path path = directory.resolve("verlauf");
+        List<Board> generations;
+        try (MappedHistory history = new MappedHistory(path, 8)) {
+            generations = run(history, 150);
+            assertReadable(history, generations);
+        }
+        try (MappedHistory history = new MappedHistory(path, 8)) {
+            assertEquals(150, history.size());
+            assertReadable(history, generations);
+        }
+    }
+
+    @Test
+    void mappedHistoryKeepsGenerationsOfAnotherSize() throws IOException {
+        try (MappedHistory history = new MappedHistory(directory.resolve("verlauf"), 8)) {
+            List<Board> generations = run(history, 20);
+
+            // Ein Spielfeld einer anderen Grösse wird nicht gespeichert, der Verlauf bleibt erhalten
+            Board other = new Board(WIDTH + 10, HEIGHT);
+            other.setGeneration(20);
+            history.push(other, -1);
+            assertEquals(20, history.size());
+            assertReadable(history, generations);
+        }
+    }
+
+    @Test
+    void emptyHistoryReadsNothing() {
+        DeltaHistory history = new DeltaHistory();
+        Board target = new Board(WIDTH, HEIGHT);
+        assertFalse(history.read(0, target));
+        assertFalse(history.restore(0, target));
+    }
+
+    /**
+     * Berechnet Generationen wie die Simulation und speichert jede im Verlauf. Ab und zu werden Zellen bearbeitet,
+     * dann ist fadeSteps -1 und der Verlauf muss einen Keyframe speichern.
+     *
+     * @return Kopien aller gespeicherten Generationen (Index = Nummer der Generation)
+     */
+    private static List<Board> run(History history, int count) {
+        List<Board> generations = new ArrayList<>();
+        Random random = new Random(count);
+        Board current = new Board(WIDTH, HEIGHT);
+        current.randomize(random, 30);
+        Board next = new Board(WIDTH, HEIGHT);
+        int fadeSteps = -1;
+
+        try (Engine engine = new BitEngine()) {
+            for (int generation = 0; generation < count; generation++) {
+                if (generation % 37 == 20) {
+                    current.revive(random.nextInt(WIDTH), random.nextInt(HEIGHT));
+                    current.kill(random.nextInt(WIDTH), random.nextInt(HEIGHT));
+                    fadeSteps = -1;
+                }
+                history.push(current, fadeSteps);
+                generations.add(current.copy());
+
+                boolean fade = generation % 2 == 0;
+                engine.step(current, next, fade);
+                next.setGeneration(current.getGeneration() + 1);
+                fadeSteps = fade ? 1 : 0;
+                Board swap = current;
+                current = next;
+                next = swap;
+            }
+        }
+        return generations;
+    }
+
+    /**
+     * Prüft, dass jede Generation, die noch im Verlauf ist, genau gleich gelesen wird. Fehlt eine Generation
+     * (ausgedünnter Verlauf), wird die letzte gespeicherte davor gelesen, vor der ältesten die älteste.
+     */
+    private static void assertReadable(History history, List<Board> generations) {
+        Board target = new Board(1, 1);
+        assertTrue(history.read(Long.MIN_VALUE, target));
+        long oldest = target.getGeneration();
+        for (long generation = 0; generation <= history.getLastGeneration(); generation++) {
+            assertTrue(history.read(generation, target));
+            assertTrue(target.getGeneration() <= Math.max(generation, oldest),
+                    "Generation " + generation + " gelesen als " + target.getGeneration());
+            assertSame(generations.get((int) target.getGeneration()), target, "Generation " + target.getGeneration());
+        }
+    }
+
+    private static void assertSame(Board expected, Board actual, String name) {
+        assertEquals(expected.getWidth(), actual.getWidth(), name + ", Breite");
+        assertEquals(expected.getHeight(), actual.getHeight(), name + ", Höhe");
+        assertEquals(expected.getGeneration(), actual.getGeneration(), name + ", Nummer");
+        for (int i = 0; i < expected.getWordCount(); i++) {
+            assertEquals(expected.getWord(i), actual.getWord(i), name + ", Wort " + i);
+        }
+        assertTrue(expected.hasSameColors(actual), name + ", Farben");
+    }
+}
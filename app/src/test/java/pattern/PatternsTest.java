@@ -0,0 +1,109 @@
+package pattern;
+
+import engine.Board;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prüft, dass gespeicherte Patterns (RLE und Plaintext) mit den gleichen lebenden Zellen wieder geladen werden.
+ */
+class PatternsTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void rleRoundTrip() throws IOException {
+        Board saved = pattern();
+        Path path = directory.resolve("muster.rle");
+        Patterns.save(saved, path, "B36/S23");
+
+        Board loaded = new Board(saved.getWidth(), saved.getHeight());
+        assertEquals("B36/S23", Patterns.load(path, loaded));
+        assertSameCells(saved, loaded);
+    }
+
+    @Test
+    void cellsRoundTrip() throws IOException {
+        Board saved = pattern();
+        Path path = directory.resolve("muster.cells");
+        Patterns.save(saved, path, "B3/S23");
+
+        Board loaded = new Board(saved.getWidth(), saved.getHeight());
+        assertNull(Patterns.load(path, loaded));
+        assertSameCells(saved, loaded);
+    }
+
+    @Test
+    void loadingClearsBoard() throws IOException {
+        Board saved = pattern();
+        Path path = directory.resolve("muster.rle");
+        Patterns.save(saved, path, "B3/S23");
+
+        Board loaded = new Board(saved.getWidth(), saved.getHeight());
+        loaded.randomize(new Random(1), 50);
+        loaded.setGeneration(99);
+        Patterns.load(path, loaded);
+        assertEquals(0, loaded.getGeneration());
+        assertSameCells(saved, loaded);
+    }
+
+    /**
+     * @return Spielfeld mit zufälligen Zellen in einem Rechteck in der Mitte, auch mit leeren Zeilen und Spalten
+     */
+    private static Board pattern() {
+        Board board = new Board(200, 120);
+        Random random = new Random(3);
+        for (int y = 40; y < 81; y++) {
+            for (int x = 50; x < 147; x++) {
+                if (y % 9 != 0 && x % 13 != 0 && random.nextInt(100) < 40) {
+                    board.revive(x, y);
+                }
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Vergleicht die lebenden Zellen relativ zur obersten und linkesten lebenden Zelle, da das Pattern beim Laden
+     * neu in die Mitte gelegt wird.
+     */
+    private static void assertSameCells(Board expected, Board actual) {
+        assertEquals(expected.getPopulation(), actual.getPopulation(), "lebende Zellen");
+        int[] expectedOrigin = origin(expected);
+        int[] actualOrigin = origin(actual);
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                if (expected.isAlive(x, y)) {
+                    int ax = x - expectedOrigin[0] + actualOrigin[0];
+                    int ay = y - expectedOrigin[1] + actualOrigin[1];
+                    assertTrue(actual.isAlive(ax, ay), "Zelle " + x + ", " + y);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Kleinste x und y Koordinate aller lebenden Zellen
+     */
+    private static int[] origin(Board board) {
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        for (int y = 0; y < board.getHeight(); y++) {
+            for (int x = 0; x < board.getWidth(); x++) {
+                if (board.isAlive(x, y)) {
+                    minX = Math.min(minX, x);
+                    minY = Math.min(minY, y);
+                }
+            }
+        }
+        return new int[]{minX, minY};
+    }
+}
@@ -0,0 +1,92 @@
+package snapshot;
+
+import engine.BitEngine;
+import engine.Board;
+import engine.Engine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prüft, dass ein gespeicherter Snapshot genau die gleiche Generation und den gleichen Zustand der Simulation lädt.
+ */
+class SnapshotFileTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void uncompressedSnapshotRoundTrip() throws IOException {
+        roundTrip(false);
+    }
+
+    @Test
+    void compressedSnapshotRoundTrip() throws IOException {
+        roundTrip(true);
+    }
+
+    @Test
+    void damagedSnapshotLeavesBoardUnchanged() throws IOException {
+        Path path = directory.resolve("snapshot.gols");
+        SnapshotFile.save(path, generation(97, 45), new SnapshotInfo("B3/S23", 1, 2), false);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(path, bytes);
+
+        Board board = generation(20, 10);
+        Board before = board.copy();
+        assertThrows(IOException.class, () -> SnapshotFile.load(path, board));
+        assertSame(before, board);
+    }
+
+    private void roundTrip(boolean compress) throws IOException {
+        Path path = directory.resolve("snapshot.gols");
+        Board saved = generation(131, 77);
+        SnapshotFile.save(path, saved, new SnapshotInfo("B36/S23", 123456789L, 4242), compress);
+
+        // Das Spielfeld hat eine andere Grösse, es bekommt die Grösse des Snapshots
+        Board loaded = new Board(20, 10);
+        SnapshotInfo info = SnapshotFile.load(path, loaded);
+        assertEquals("B36/S23", info.getRule());
+        assertEquals(123456789L, info.getSeed());
+        assertEquals(4242, info.getCounter());
+        assertSame(saved, loaded);
+    }
+
+    /**
+     * @return Spielfeld nach einigen Generationen, damit die Zellen verschiedene Farben haben
+     */
+    private static Board generation(int width, int height) {
+        Board current = new Board(width, height);
+        current.randomize(new Random(width), 35);
+        Board next = new Board(width, height);
+        try (Engine engine = new BitEngine()) {
+            for (int generation = 0; generation < 12; generation++) {
+                engine.step(current, next, generation % 3 != 0);
+                next.setGeneration(current.getGeneration() + 1);
+                Board swap = current;
+                current = next;
+                next = swap;
+            }
+        }
+        return current;
+    }
+
+    private static void assertSame(Board expected, Board actual) {
+        assertEquals(expected.getWidth(), actual.getWidth(), "Breite");
+        assertEquals(expected.getHeight(), actual.getHeight(), "Höhe");
+        assertEquals(expected.getGeneration(), actual.getGeneration(), "Nummer der Generation");
+        for (int i = 0; i < expected.getWordCount(); i++) {
+            assertEquals(expected.getWord(i), actual.getWord(i), "Wort " + i);
+        }
+        assertTrue(expected.hasSameColors(actual), "Farben");
+        assertEquals(expected.getPopulation(), actual.getPopulation(), "lebende Zellen");
+    }
+}
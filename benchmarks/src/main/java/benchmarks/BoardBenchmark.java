@@ -0,0 +1,99 @@
+package benchmarks;
+
+import engine.Board;
+import engine.EngineType;
+import history.DeltaHistory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operationen auf dem ganzen Spielfeld: Kopieren, lebende Zellen zählen und eine Generation im Verlauf speichern.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    @Param({"450x250", "1024x1024", "4096x4096"})
+    public String size;
+
+    @Param({"10", "30", "50"})
+    public int density;
+
+    private Board board;
+    private Board target;
+    // Zwei aufeinanderfolgende Generationen, die abwechselnd im Verlauf gespeichert werden
+    private Board[] generations;
+    private DeltaHistory history;
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void createBoards() {
+        board = Boards.random(size, density);
+        target = new Board(board.getWidth(), board.getHeight());
+
+        generations = new Board[]{board.copy(), new Board(board.getWidth(), board.getHeight())};
+        EngineType.BIT.create().step(generations[0], generations[1], true);
+    }
+
+    @Setup(Level.Iteration)
+    public void createHistory() {
+        history = new DeltaHistory();
+        counter = 0;
+    }
+
+    /**
+     * Kopie in ein bestehendes Spielfeld (wie für den Verlauf und den Snapshot zum Zeichnen).
+     */
+    @Benchmark
+    public Board copyFrom() {
+        target.copyFrom(board);
+        return target;
+    }
+
+    /**
+     * Kopie in ein neues Spielfeld.
+     */
+    @Benchmark
+    public Board copy() {
+        return board.copy();
+    }
+
+    @Benchmark
+    public int countAlive() {
+        return board.countAlive();
+    }
+
+    /**
+     * Anzahl lebender Zellen aus den beim Berechnen mitgezählten Werten der Zeilen.
+     */
+    @Benchmark
+    public int population() {
+        return board.getPopulation();
+    }
+
+    /**
+     * Speichert abwechselnd zwei Generationen (als Keyframe oder Delta) mit fortlaufender Nummer.
+     */
+    @Benchmark
+    public long historyPush() {
+        Board generation = generations[(int) (counter & 1)];
+        generation.setGeneration(counter++);
+        history.push(generation, 1);
+        return history.getMemoryUsage();
+    }
+}
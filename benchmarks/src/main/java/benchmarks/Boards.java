@@ -0,0 +1,28 @@
+package benchmarks;
+
+import engine.Board;
+
+import java.util.Random;
+
+/**
+ * Erstellt die Spielfelder für die Benchmarks. Alle Spielfelder werden mit dem gleichen Seed erstellt,
+ * damit die Resultate verschiedener Commits vergleichbar sind.
+ */
+final class Boards {
+    static final long SEED = 42;
+
+    private Boards() {
+    }
+
+    /**
+     * @param size        Grösse als "BreitexHöhe" (z.B. "450x250")
+     * @param probability Wahrscheinlichkeit in Prozent, dass eine Zelle lebt
+     * @return Zufälliges Spielfeld
+     */
+    static Board random(String size, int probability) {
+        int separator = size.indexOf('x');
+        Board board = new Board(Integer.parseInt(size.substring(0, separator)), Integer.parseInt(size.substring(separator + 1)));
+        board.randomize(new Random(SEED), probability);
+        return board;
+    }
+}
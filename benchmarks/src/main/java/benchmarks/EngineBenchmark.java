@@ -0,0 +1,89 @@
+package benchmarks;
+
+import engine.Board;
+import engine.Engine;
+import engine.EngineType;
+import engine.Rule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Zeit für eine Generation mit jeder Engine (ohne Werte bei engine werden alle Typen aus EngineType
+ * gemessen, neue Engines sind also automatisch dabei).
+ *
+ * Die Generationen werden wie im Spiel fortlaufend berechnet. Zu Beginn jeder Iteration wird wieder
+ * das gleiche zufällige Spielfeld geladen, damit jede Iteration die gleichen Generationen misst.
+ * Mit rule wird verglichen, was eine andere Regel als GoL kostet (B3/S23 hat in den bitweisen Engines
+ * eine eigene, kürzere Formel).
+ *
+ * Die VectorEngine braucht im geforkten JVM das Modul jdk.incubator.vector, sonst misst VECTOR die BitEngine:
+ * java -jar benchmarks/target/benchmarks.jar EngineBenchmark -jvmArgsAppend --add-modules=jdk.incubator.vector
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+    @Param({"450x250", "1024x1024", "4096x4096"})
+    public String size;
+
+    @Param({"10", "30", "50"})
+    public int density;
+
+    @Param
+    public EngineType engine;
+
+    @Param({"B3/S23", "B36/S23"})
+    public String rule;
+
+    private Board initial;
+    private Board currentGen;
+    private Board nextGen;
+    private Engine instance;
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void createBoards() {
+        initial = Boards.random(size, density);
+        currentGen = new Board(initial.getWidth(), initial.getHeight());
+        nextGen = new Board(initial.getWidth(), initial.getHeight());
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        // Neue Engine, damit keine Caches (z.B. von HashLife) aus der letzten Iteration übrig sind
+        instance = engine.create(Rule.parse(rule));
+        currentGen.copyFrom(initial);
+        counter = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeEngine() {
+        instance.close();
+    }
+
+    @Benchmark
+    public Board step() {
+        instance.step(currentGen, nextGen, counter++ % 2 == 0);
+        nextGen.setGeneration(currentGen.getGeneration() + 1);
+        Board swap = currentGen;
+        currentGen = nextGen;
+        nextGen = swap;
+        return currentGen;
+    }
+}
@@ -0,0 +1,108 @@
+package benchmarks;
+
+import components.BoardView;
+import engine.Board;
+import engine.EngineType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import processing.awt.PGraphicsJava2D;
+import processing.core.PApplet;
+import processing.core.PGraphics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Zeichnen des Spielfeldes mit BoardView in ein Bild im Speicher (ohne Fenster, java.awt.headless).
+ * Mit zoom wird die Ansicht um so viele Stufen verkleinert (negativ) oder vergrössert, herausgezoomt
+ * zeichnet die BoardView die Dichte Pyramide.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+    @Param({"450x250", "1024x1024"})
+    public String size;
+
+    @Param({"10", "30", "50"})
+    public int density;
+
+    @Param({"2"})
+    public int cellSize;
+
+    @Param({"0", "-3"})
+    public int zoom;
+
+    private PApplet applet;
+    private PGraphics graphics;
+    private BoardView view;
+
+    private Board board;
+    private Board[] generations;
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void createView() {
+        board = Boards.random(size, density);
+        generations = new Board[]{board.copy(), new Board(board.getWidth(), board.getHeight())};
+        EngineType.BIT.create().step(generations[0], generations[1], true);
+
+        applet = new PApplet();
+        graphics = new PGraphicsJava2D();
+        graphics.setParent(applet);
+        graphics.setPrimary(false);
+        graphics.setSize(board.getWidth() * cellSize, board.getHeight() * cellSize);
+        applet.g = graphics;
+
+        view = new BoardView(0, 0, board.getWidth() * cellSize, board.getHeight() * cellSize, cellSize);
+        view.zoom(zoom);
+        view.setBoard(board);
+    }
+
+    @Setup(Level.Iteration)
+    public void beginDraw() {
+        graphics.beginDraw();
+    }
+
+    @TearDown(Level.Iteration)
+    public void endDraw() {
+        graphics.endDraw();
+    }
+
+    /**
+     * Alle Zellen neu zeichnen (z.B. nach dem Laden einer Generation).
+     */
+    @Benchmark
+    public int drawAll() {
+        board.copyFrom(generations[(int) (counter++ & 1)]);
+        view.draw(applet);
+        return view.getUpdatedCells();
+    }
+
+    /**
+     * Nur die Zellen neu zeichnen, die sich von einer Generation zur nächsten verändert haben.
+     * Die Generationen wechseln sich ab, das Bitfeld wird dazu wortweise übernommen (nur die Farben bleiben gleich).
+     */
+    @Benchmark
+    public int drawChanged() {
+        Board generation = generations[(int) (counter++ & 1)];
+        for (int i = 0; i < board.getWordCount(); i++) {
+            board.setWord(i, generation.getWord(i));
+        }
+        view.draw(applet);
+        return view.getUpdatedCells();
+    }
+}
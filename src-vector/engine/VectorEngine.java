@@ -0,0 +1,257 @@
+package engine;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorSpecies;
+
+import static jdk.incubator.vector.VectorOperators.LSHL;
+import static jdk.incubator.vector.VectorOperators.LSHR;
+import static jdk.incubator.vector.VectorOperators.NOT;
+import static jdk.incubator.vector.VectorOperators.XOR;
+
+/**
+ * Berechnet die nächste Generation wie die BitEngine, aber mit der Vector API (SIMD): statt einem Wort mit
+ * 64 Zellen werden so viele Wörter gleichzeitig berechnet, wie in ein Register der CPU passen (mit AVX-512
+ * 8 Wörter, also 512 Zellen pro Operation). Die Nachbaren werden mit den gleichen bitweisen Addierern
+ * gezählt, nur eben auf allen Lanes gleichzeitig.
+ *
+ * Mit Vektoren werden nur die Wörter berechnet, die links und rechts ein Nachbarwort in der Zeile haben.
+ * Das erste und das letzte Wort jeder Zeile (mit den Halo Bits des Randes) und die Wörter, die keinen ganzen
+ * Vektor mehr füllen, rechnet die BitEngine.
+ *
+ * Diese Klasse braucht Java 17 oder neuer und das Modul jdk.incubator.vector (--add-modules jdk.incubator.vector).
+ * Sie liegt deshalb nicht in src/, sondern in src-vector/ und wird nur mit dem Maven Profil "vector" kompiliert.
+ * EngineType lädt sie über Reflection und rechnet ohne sie mit der BitEngine weiter.
+ */
+public class VectorEngine implements Engine {
+    // Grösste Vektorlänge, welche die CPU unterstützt
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    private final Rule rule;
+    private final Boundary boundary;
+
+    // Masken der Regel für jede Anzahl Nachbaren auf alle Lanes verteilt (siehe Rule.apply()), einzelne Felder
+    // statt Arrays, damit die Vektoren in Registern bleiben können
+    private final LongVector birth0, birth1, birth2, birth3, birth4, birth5, birth6, birth7, birth8;
+    private final LongVector change0, change1, change2, change3, change4, change5, change6, change7, change8;
+
+    /**
+     * Bits 1, 2, 4 und 8 der Anzahl Nachbaren für eine Zeile.
+     */
+    private static final class Counts {
+        long[] ones = new long[0];
+        long[] twos = new long[0];
+        long[] fours = new long[0];
+        long[] eights = new long[0];
+    }
+
+    // Pro Thread, weil die ParallelEngine verschiedene Zeilen gleichzeitig aus mehreren Threads berechnen lässt
+    private final ThreadLocal<Counts> counts = ThreadLocal.withInitial(Counts::new);
+
+    /**
+     * @param rule     Regel, nach der die nächste Generation berechnet wird
+     * @param boundary Verhalten am Rand des Spielfeldes
+     */
+    public VectorEngine(Rule rule, Boundary boundary) {
+        this.rule = rule;
+        this.boundary = boundary;
+        birth0 = birthMask(0);
+        birth1 = birthMask(1);
+        birth2 = birthMask(2);
+        birth3 = birthMask(3);
+        birth4 = birthMask(4);
+        birth5 = birthMask(5);
+        birth6 = birthMask(6);
+        birth7 = birthMask(7);
+        birth8 = birthMask(8);
+        change0 = changeMask(0);
+        change1 = changeMask(1);
+        change2 = changeMask(2);
+        change3 = changeMask(3);
+        change4 = changeMask(4);
+        change5 = changeMask(5);
+        change6 = changeMask(6);
+        change7 = changeMask(7);
+        change8 = changeMask(8);
+    }
+
+    private LongVector birthMask(int neighbors) {
+        return LongVector.broadcast(SPECIES, rule.getBirthMask(neighbors));
+    }
+
+    private LongVector changeMask(int neighbors) {
+        return LongVector.broadcast(SPECIES, rule.getChangeMask(neighbors));
+    }
+
+    @Override
+    public void stepRows(Board current, Board next, int fromRow, int toRow, boolean fade) {
+        int height = current.getHeight();
+        int wordsPerRow = current.getWordsPerRow();
+        long[] emptyRow = current.getEmptyRow();
+        int lanes = SPECIES.length();
+        // Wörter 1 bis vectorEnd (exklusive) werden mit ganzen Vektoren berechnet, das letzte Wort nie
+        int vectorEnd = 1 + Math.max(0, (wordsPerRow - 2) / lanes * lanes);
+        // Die Arrays werden nur neu angelegt, wenn das Spielfeld breiter geworden ist
+        Counts counts = this.counts.get();
+        if (counts.ones.length < wordsPerRow) {
+            counts.ones = new long[wordsPerRow];
+            counts.twos = new long[wordsPerRow];
+            counts.fours = new long[wordsPerRow];
+            counts.eights = new long[wordsPerRow];
+        }
+        long[] ones = counts.ones;
+        long[] twos = counts.twos;
+        long[] fours = counts.fours;
+        long[] eights = counts.eights;
+
+        for (int y = fromRow; y < toRow; y++) {
+            int aboveRow = boundary.row(y - 1, height);
+            int belowRow = boundary.row(y + 1, height);
+            long[] above = aboveRow >= 0 ? current.alive : emptyRow;
+            int aboveOffset = aboveRow >= 0 ? aboveRow * wordsPerRow : 0;
+            long[] below = belowRow >= 0 ? current.alive : emptyRow;
+            int belowOffset = belowRow >= 0 ? belowRow * wordsPerRow : 0;
+            int offset = y * wordsPerRow;
+
+            countNeighbors(above, aboveOffset, current.alive, offset, below, belowOffset, vectorEnd,
+                    ones, twos, fours, eights);
+            if (rule.isLife()) {
+                applyLife(current.alive, offset, next.alive, vectorEnd, ones, twos, fours, eights);
+            } else {
+                applyRule(current.alive, offset, next.alive, vectorEnd, ones, twos, fours, eights);
+            }
+            // Erstes Wort, letzte Wörter und der Rand ohne Vektoren
+            BitEngine.stepWords(rule, boundary, current, next, y, y + 1, 0, 1);
+            if (vectorEnd < wordsPerRow) {
+                BitEngine.stepWords(rule, boundary, current, next, y, y + 1, vectorEnd, wordsPerRow);
+            }
+        }
+
+        next.updateColors(current, fromRow, toRow, fade);
+    }
+
+    /*
+     * Zählen und Anwenden der Regel sind getrennte Schleifen mit den Zwischenresultaten in Arrays, und die
+     * Operationen stehen direkt in den Schleifen statt in Hilfsmethoden: der JIT Compiler muss alle Aufrufe der
+     * Vector API inlinen, sonst legt er die Vektoren als Objekte auf dem Heap an und die Engine wird um ein
+     * Vielfaches langsamer als die BitEngine. In einer einzigen Schleife wären es dafür zu viele Operationen.
+     */
+
+    /**
+     * Zählt die Nachbaren der Wörter 1 bis vectorEnd (exklusive) einer Zeile.
+     *
+     * @param above       Array mit der Zeile oberhalb
+     * @param aboveOffset Index des ersten Wortes der Zeile oberhalb
+     * @param row         Array mit der Zeile selbst
+     * @param offset      Index des ersten Wortes der Zeile
+     * @param below       Array mit der Zeile unterhalb
+     * @param belowOffset Index des ersten Wortes der Zeile unterhalb
+     * @param vectorEnd   Wort nach dem letzten Vektor
+     * @param ones        Bit 1 der Anzahl Nachbaren (Ausgabe, Index wie in der Zeile)
+     * @param twos        Bit 2 der Anzahl Nachbaren (Ausgabe)
+     * @param fours       Bit 4 der Anzahl Nachbaren (Ausgabe)
+     * @param eights      Bit 8 der Anzahl Nachbaren (Ausgabe)
+     */
+    private static void countNeighbors(long[] above, int aboveOffset, long[] row, int offset, long[] below,
+                                       int belowOffset, int vectorEnd,
+                                       long[] ones, long[] twos, long[] fours, long[] eights) {
+        for (int w = 1; w < vectorEnd; w += SPECIES.length()) {
+            LongVector aboveCur = LongVector.fromArray(SPECIES, above, aboveOffset + w);
+            LongVector rowCur = LongVector.fromArray(SPECIES, row, offset + w);
+            LongVector belowCur = LongVector.fromArray(SPECIES, below, belowOffset + w);
+
+            // Nachbar links (x - 1) auf Position x schieben, bzw. Nachbar rechts (x + 1), über die Grenzen der
+            // Wörter hinweg aus den um ein Wort verschobenen Vektoren
+            LongVector abovePrev = LongVector.fromArray(SPECIES, above, aboveOffset + w - 1);
+            LongVector aboveNext = LongVector.fromArray(SPECIES, above, aboveOffset + w + 1);
+            LongVector rowPrev = LongVector.fromArray(SPECIES, row, offset + w - 1);
+            LongVector rowNext = LongVector.fromArray(SPECIES, row, offset + w + 1);
+            LongVector belowPrev = LongVector.fromArray(SPECIES, below, belowOffset + w - 1);
+            LongVector belowNext = LongVector.fromArray(SPECIES, below, belowOffset + w + 1);
+            LongVector aboveLeft = aboveCur.lanewise(LSHL, 1).or(abovePrev.lanewise(LSHR, 63));
+            LongVector aboveRight = aboveCur.lanewise(LSHR, 1).or(aboveNext.lanewise(LSHL, 63));
+            LongVector rowLeft = rowCur.lanewise(LSHL, 1).or(rowPrev.lanewise(LSHR, 63));
+            LongVector rowRight = rowCur.lanewise(LSHR, 1).or(rowNext.lanewise(LSHL, 63));
+            LongVector belowLeft = belowCur.lanewise(LSHL, 1).or(belowPrev.lanewise(LSHR, 63));
+            LongVector belowRight = belowCur.lanewise(LSHR, 1).or(belowNext.lanewise(LSHL, 63));
+
+            // Volladdierer für die drei Nachbaren oberhalb und unterhalb, Halbaddierer für die eigene Zeile
+            LongVector aboveHalf = aboveLeft.lanewise(XOR, aboveCur);
+            LongVector aboveOnes = aboveHalf.lanewise(XOR, aboveRight);
+            LongVector aboveTwos = aboveLeft.and(aboveCur).or(aboveRight.and(aboveHalf));
+            LongVector belowHalf = belowLeft.lanewise(XOR, belowCur);
+            LongVector belowOnes = belowHalf.lanewise(XOR, belowRight);
+            LongVector belowTwos = belowLeft.and(belowCur).or(belowRight.and(belowHalf));
+            LongVector rowOnes = rowLeft.lanewise(XOR, rowRight);
+            LongVector rowTwos = rowLeft.and(rowRight);
+
+            // Die drei Teilsummen zusammenzählen (ergibt die Bits 1, 2, 4 und 8 der Nachbaranzahl)
+            LongVector onesHalf = aboveOnes.lanewise(XOR, belowOnes);
+            LongVector onesCarry = aboveOnes.and(belowOnes).or(rowOnes.and(onesHalf));
+            LongVector twosHalf = aboveTwos.lanewise(XOR, belowTwos);
+            LongVector twosSum = twosHalf.lanewise(XOR, rowTwos);
+            LongVector twosCarry = aboveTwos.and(belowTwos).or(rowTwos.and(twosHalf));
+            LongVector foursCarry = twosSum.and(onesCarry);
+
+            onesHalf.lanewise(XOR, rowOnes).intoArray(ones, w);
+            twosSum.lanewise(XOR, onesCarry).intoArray(twos, w);
+            twosCarry.lanewise(XOR, foursCarry).intoArray(fours, w);
+            twosCarry.and(foursCarry).intoArray(eights, w);
+        }
+    }
+
+    /**
+     * Wendet B3/S23 auf die Wörter 1 bis vectorEnd (exklusive) einer Zeile an (gleiche Formel wie Rule.apply()).
+     */
+    private static void applyLife(long[] row, int offset, long[] target, int vectorEnd,
+                                  long[] ones, long[] twos, long[] fours, long[] eights) {
+        for (int w = 1; w < vectorEnd; w += SPECIES.length()) {
+            LongVector alive = LongVector.fromArray(SPECIES, row, offset + w);
+            LongVector fewer = LongVector.fromArray(SPECIES, fours, w)
+                    .or(LongVector.fromArray(SPECIES, eights, w));
+            // Genau 2 oder 3 Nachbaren: die Zelle lebt, wenn sie 3 Nachbaren hat oder schon lebt
+            LongVector.fromArray(SPECIES, twos, w)
+                    .and(fewer.lanewise(NOT))
+                    .and(LongVector.fromArray(SPECIES, ones, w).or(alive))
+                    .intoArray(target, offset + w);
+        }
+    }
+
+    /**
+     * Wendet eine beliebige Regel auf die Wörter 1 bis vectorEnd (exklusive) einer Zeile an, gleich wie
+     * Rule.apply() für ein Wort.
+     */
+    private void applyRule(long[] row, int offset, long[] target, int vectorEnd,
+                           long[] ones, long[] twos, long[] fours, long[] eights) {
+        for (int w = 1; w < vectorEnd; w += SPECIES.length()) {
+            LongVector alive = LongVector.fromArray(SPECIES, row, offset + w);
+            LongVector one = LongVector.fromArray(SPECIES, ones, w);
+            LongVector two = LongVector.fromArray(SPECIES, twos, w);
+
+            // Pro Anzahl n ist das Resultat birth[n] für tote und survival[n] für lebende Zellen
+            LongVector n0 = birth0.lanewise(XOR, alive.and(change0));
+            LongVector n1 = birth1.lanewise(XOR, alive.and(change1));
+            LongVector n2 = birth2.lanewise(XOR, alive.and(change2));
+            LongVector n3 = birth3.lanewise(XOR, alive.and(change3));
+            LongVector n4 = birth4.lanewise(XOR, alive.and(change4));
+            LongVector n5 = birth5.lanewise(XOR, alive.and(change5));
+            LongVector n6 = birth6.lanewise(XOR, alive.and(change6));
+            LongVector n7 = birth7.lanewise(XOR, alive.and(change7));
+            LongVector n8 = birth8.lanewise(XOR, alive.and(change8));
+
+            // Auswahl nach den Bits der Anzahl (bitwiseBlend nimmt das Argument, wo das Bit gesetzt ist)
+            LongVector n03 = n0.bitwiseBlend(n1, one).bitwiseBlend(n2.bitwiseBlend(n3, one), two);
+            LongVector n47 = n4.bitwiseBlend(n5, one).bitwiseBlend(n6.bitwiseBlend(n7, one), two);
+            n03.bitwiseBlend(n47, LongVector.fromArray(SPECIES, fours, w))
+                    .bitwiseBlend(n8, LongVector.fromArray(SPECIES, eights, w))
+                    .intoArray(target, offset + w);
+        }
+    }
+
+    /**
+     * @return Gewählte Vektorlänge (z.B. "512 bit" mit AVX-512)
+     */
+    @Override
+    public String getStatus() {
+        return SPECIES.vectorBitSize() + " bit";
+    }
+}
@@ -20,6 +20,15 @@ public abstract class BaseComponent {
         this.y = y;
     }
 
+    /**
+     * Verschiebt die Komponente nach oben oder unten (z.B. wenn sich die Höhe des Fensters ändert).
+     *
+     * @param y Y Koordinate der Komponente
+     */
+    public void setY(int y) {
+        this.y = y;
+    }
+
     /**
      * Methode zum Zeichnen der Komponente
      *
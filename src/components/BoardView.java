@@ -0,0 +1,508 @@
+package components;
+
+import engine.Board;
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PImage;
+
+import java.util.Arrays;
+
+/**
+ * Zeichnet einen Ausschnitt des Spielfeldes (Viewport), der verschoben und gezoomt werden kann. Statt für jede
+ * Zelle ein Quadrat zu zeichnen, wird die Farbe jedes Pixels direkt in ein Bild von der Grösse des Ausschnitts
+ * geschrieben. Das Bild wird danach mit einem einzigen Aufruf ins Fenster kopiert.
+ *
+ * Gezoomt wird in Zweierpotenzen: hineingezoomt ist eine Zelle 2^zoom x 2^zoom Pixel gross, herausgezoomt
+ * (zoom < 0) zeigt ein Pixel die Dichte eines Blocks von 2^-zoom x 2^-zoom Zellen aus der DensityPyramid.
+ * So kostet das Zeichnen höchstens so viel, wie der Ausschnitt Pixel hat, egal wie gross das Spielfeld ist.
+ *
+ * Das Bild bleibt zwischen den Frames erhalten. Neu geschrieben werden nur die sichtbaren Zellen (bzw. Blöcke),
+ * welche das Spielfeld als verändert markiert hat (siehe Board.getDirtyWord()). Hat sich nichts verändert,
+ * wird auch das Bild nicht neu gezeichnet, das Fenster zeigt dann noch das Bild des letzten Frames.
+ */
+public class BoardView extends BaseComponent {
+    // Farbe einer lebenden Zelle (ARGB)
+    private static final int ALIVE_COLOR = 0xFFFFFFFF;
+    // Farbe der Pixel ausserhalb des Spielfeldes (ARGB)
+    private static final int OUTSIDE_COLOR = 0xFF404040;
+    // Grösste Vergrösserung, eine Zelle ist dann 2^MAX_ZOOM Pixel breit
+    private static final int MAX_ZOOM = 5;
+
+    // Grösse des Ausschnitts in Pixel (ändert sich mit der Grösse des Fensters)
+    private int width;
+    private int height;
+    // Zoom beim Start und nach fit(), falls das Spielfeld damit ganz sichtbar ist
+    private int defaultZoom;
+    private Board board;
+    // Grösse des Spielfeldes, für welches der Ausschnitt gilt
+    private int boardWidth;
+    private int boardHeight;
+
+    // log2 der Pixel pro Zelle (negativ: log2 der Zellen pro Pixel)
+    private int zoom;
+    // Pixel des Spielfeldes bei diesem Zoom, das links oben im Ausschnitt liegt (negativ, wenn das Spielfeld
+    // kleiner als der Ausschnitt ist und in der Mitte liegt)
+    private int originX;
+    private int originY;
+    // Boolean, ob der Ausschnitt seit dem letzten draw() verschoben oder gezoomt wurde
+    private boolean viewChanged;
+
+    // Dichte der Blöcke für die herausgezoomte Ansicht
+    private final DensityPyramid pyramid = new DensityPyramid();
+
+    // Bild in der Grösse des Ausschnitts, wird nach einer Änderung der Grösse beim nächsten draw() neu angelegt
+    private PImage image;
+    // Pixel einer Zeile des Ausschnitts, wird für alle Pixelzeilen einer Zeile von Zellen kopiert (kann länger sein)
+    private int[] rowPixels = new int[0];
+
+    // Anzahl Zellen (bzw. Blöcke), die im letzten Frame neu geschrieben wurden
+    private int updatedCells;
+    // Boolean, ob das Bild auch ohne veränderte Zellen wieder ins Fenster kopiert wird
+    private boolean repaint;
+
+    /**
+     * Konstruktor der Ansicht.
+     *
+     * @param x        X Koordinate der linken oberen Ecke
+     * @param y        Y Koordinate der linken oberen Ecke
+     * @param width    Breite des Ausschnitts in Pixel
+     * @param height   Höhe des Ausschnitts in Pixel
+     * @param cellSize Breite und Höhe einer Zelle in Pixel beim Start (Zweierpotenz)
+     */
+    public BoardView(int x, int y, int width, int height, int cellSize) {
+        super(x, y);
+        this.width = width;
+        this.height = height;
+        this.defaultZoom = Integer.numberOfTrailingZeros(cellSize);
+        this.zoom = defaultZoom;
+    }
+
+    /**
+     * @param board Spielfeld, welches gezeichnet wird
+     */
+    public void setBoard(Board board) {
+        this.board = board;
+    }
+
+    /**
+     * Schreibt die veränderten Zellen in das Bild und zeichnet es, falls sich etwas verändert hat.
+     *
+     * @param pApplet Processing Objekt, welches Funktionen zum Zeichnen anbietet
+     */
+    @Override
+    public void draw(PApplet pApplet) {
+        // Ein neues Spielfeld (oder eines mit anderer Grösse) wird wieder ganz angezeigt
+        if (board.getWidth() != boardWidth || board.getHeight() != boardHeight) {
+            boardWidth = board.getWidth();
+            boardHeight = board.getHeight();
+            fit();
+        }
+        if (image == null) {
+            image = pApplet.createImage(width, height, PConstants.RGB);
+            if (rowPixels.length < width) {
+                rowPixels = new int[width];
+            }
+            viewChanged = true;
+        }
+
+        image.loadPixels();
+        if (zoom >= 0) {
+            // Die Pyramide wird nur herausgezoomt nachgeführt, sie vergleicht selbst mit ihrem letzten Stand
+            if (viewChanged || board.isAllDirty()) {
+                drawAll();
+            } else {
+                drawChanged();
+            }
+        } else {
+            boolean rebuilt = pyramid.update(board, -zoom);
+            if (viewChanged || rebuilt) {
+                drawAllBlocks();
+            } else {
+                drawChangedBlocks();
+            }
+        }
+        board.clearDirty();
+        viewChanged = false;
+
+        if (updatedCells > 0) {
+            image.updatePixels();
+        }
+        if (updatedCells > 0 || repaint) {
+            pApplet.image(image, x, y);
+            repaint = false;
+        }
+    }
+
+    /**
+     * Kopiert das Bild beim nächsten draw() ins Fenster, auch wenn sich keine Zelle verändert hat
+     * (z.B. weil etwas über das Spielfeld gezeichnet wurde). Die Zellen werden dafür nicht neu geschrieben.
+     */
+    public void repaint() {
+        repaint = true;
+    }
+
+    /**
+     * Verändert die Grösse des Ausschnitts (z.B. wenn das Fenster vergrössert wurde). Die Zelle links oben bleibt
+     * an ihrem Platz, das Bild wird beim nächsten draw() in der neuen Grösse angelegt und ganz neu geschrieben.
+     *
+     * @param width  Breite des Ausschnitts in Pixel
+     * @param height Höhe des Ausschnitts in Pixel
+     */
+    public void setSize(int width, int height) {
+        if (width == this.width && height == this.height) {
+            return;
+        }
+        this.width = width;
+        this.height = height;
+        image = null;
+        clampOrigin();
+        viewChanged = true;
+    }
+
+    /**
+     * Setzt den Zoom für fit() und zeigt damit das ganze Spielfeld (falls es bei diesem Zoom ins Fenster passt).
+     *
+     * @param cellSize Breite und Höhe einer Zelle in Pixel (Zweierpotenz, höchstens 2^MAX_ZOOM)
+     */
+    public void setCellSize(int cellSize) {
+        if (Integer.bitCount(cellSize) != 1 || cellSize > 1 << MAX_ZOOM) {
+            throw new IllegalArgumentException("Zellgrösse muss eine Zweierpotenz bis " + (1 << MAX_ZOOM) + " sein: "
+                    + cellSize);
+        }
+        defaultZoom = Integer.numberOfTrailingZeros(cellSize);
+        fit();
+    }
+
+    /**
+     * Verschiebt den Ausschnitt. Er bleibt dabei immer über dem Spielfeld (ist das Spielfeld kleiner, bleibt es
+     * in der Mitte).
+     *
+     * @param dx Anzahl Pixel nach rechts (negativ nach links)
+     * @param dy Anzahl Pixel nach unten (negativ nach oben)
+     */
+    public void pan(int dx, int dy) {
+        originX += dx;
+        originY += dy;
+        clampOrigin();
+        viewChanged = true;
+    }
+
+    /**
+     * Zoomt um die Mitte des Ausschnitts.
+     *
+     * @param steps Anzahl Verdoppelungen (positiv hinein, negativ heraus)
+     */
+    public void zoom(int steps) {
+        zoomAt(steps, x + width / 2, y + height / 2);
+    }
+
+    /**
+     * Zoomt so, dass die Zelle unter dem Punkt (z.B. der Maus) an der gleichen Stelle bleibt. Herausgezoomt wird
+     * nur, bis das ganze Spielfeld sichtbar ist, hineingezoomt bis MAX_ZOOM.
+     *
+     * @param steps   Anzahl Verdoppelungen (positiv hinein, negativ heraus)
+     * @param windowX X Koordinate im Fenster
+     * @param windowY Y Koordinate im Fenster
+     */
+    public void zoomAt(int steps, int windowX, int windowY) {
+        int newZoom = Math.max(minZoom(), Math.min(MAX_ZOOM, zoom + steps));
+        if (newZoom == zoom) {
+            return;
+        }
+        int anchorX = windowX - x;
+        int anchorY = windowY - y;
+        // Position in Zellen unter dem Punkt, umgerechnet in Pixel beim neuen Zoom
+        originX = (int) Math.floor(Math.scalb(Math.scalb((double) originX + anchorX, -zoom), newZoom)) - anchorX;
+        originY = (int) Math.floor(Math.scalb(Math.scalb((double) originY + anchorY, -zoom), newZoom)) - anchorY;
+        zoom = newZoom;
+        clampOrigin();
+        viewChanged = true;
+    }
+
+    /**
+     * Zeigt das ganze Spielfeld mit dem grössten Zoom bis zum Zoom beim Start.
+     */
+    public void fit() {
+        zoom = defaultZoom;
+        while (zoom > minZoom() && !fits(zoom)) {
+            zoom--;
+        }
+        originX = 0;
+        originY = 0;
+        clampOrigin();
+        viewChanged = true;
+    }
+
+    /**
+     * @param windowX X Koordinate im Fenster (z.B. der Maus)
+     * @return Spalte der Zelle unter dem Punkt, oder -1, wenn dort keine Zelle ist oder herausgezoomt ist
+     * (dann ist ein Pixel keine einzelne Zelle)
+     */
+    public int getColumn(int windowX) {
+        return cellAt(windowX - x, width, originX, boardWidth);
+    }
+
+    /**
+     * @param windowY Y Koordinate im Fenster (z.B. der Maus)
+     * @return Zeile der Zelle unter dem Punkt, oder -1, wenn dort keine Zelle ist oder herausgezoomt ist
+     */
+    public int getRow(int windowY) {
+        return cellAt(windowY - y, height, originY, boardHeight);
+    }
+
+    private int cellAt(int pixel, int size, int origin, int cells) {
+        if (zoom < 0 || pixel < 0 || pixel >= size || origin + pixel < 0) {
+            return -1;
+        }
+        int cell = (origin + pixel) >> zoom;
+        return cell < cells ? cell : -1;
+    }
+
+    /**
+     * @return Zoom für die Anzeige, z.B. "4x" (eine Zelle ist 4 Pixel breit) oder "1/8x" (8 Zellen pro Pixel)
+     */
+    public String getZoomLabel() {
+        return zoom >= 0 ? (1 << zoom) + "x" : "1/" + (1 << -zoom) + "x";
+    }
+
+    /**
+     * @return Bild des Ausschnitts (die Pixel sind nach draw() aktuell), null vor dem ersten draw()
+     */
+    public PImage getImage() {
+        return image;
+    }
+
+    /**
+     * @return Anzahl Zellen (herausgezoomt Blöcke), die im letzten Frame neu geschrieben wurden
+     */
+    public int getUpdatedCells() {
+        return updatedCells;
+    }
+
+    /**
+     * @return Kleinster Zoom, bei dem das ganze Spielfeld sichtbar ist (höchstens 0)
+     */
+    private int minZoom() {
+        int min = 0;
+        while (!fits(min)) {
+            min--;
+        }
+        return min;
+    }
+
+    private boolean fits(int zoom) {
+        return size(boardWidth, zoom) <= width && size(boardHeight, zoom) <= height;
+    }
+
+    /**
+     * @return Anzahl Pixel für so viele Zellen beim Zoom (herausgezoomt aufgerundet)
+     */
+    private static int size(int cells, int zoom) {
+        return zoom >= 0 ? cells << zoom : (cells + (1 << -zoom) - 1) >> -zoom;
+    }
+
+    private void clampOrigin() {
+        originX = clamp(originX, size(boardWidth, zoom), width);
+        originY = clamp(originY, size(boardHeight, zoom), height);
+    }
+
+    private static int clamp(int origin, int size, int viewSize) {
+        if (size <= viewSize) {
+            return -(viewSize - size) / 2;
+        }
+        return Math.max(0, Math.min(size - viewSize, origin));
+    }
+
+    /**
+     * Schreibt alle sichtbaren Zellen (hineingezoomt) in das Bild.
+     */
+    private void drawAll() {
+        int[] pixels = image.pixels;
+        int lastRow = Integer.MIN_VALUE;
+        for (int py = 0; py < height; py++) {
+            int row = originY + py < 0 ? -1 : (originY + py) >> zoom;
+            if (row >= boardHeight) {
+                row = -1;
+            }
+            if (row != lastRow) {
+                fillRow(row);
+                lastRow = row;
+            }
+            System.arraycopy(rowPixels, 0, pixels, py * width, width);
+        }
+        updatedCells = visibleCells(width, originX, boardWidth) * visibleCells(height, originY, boardHeight);
+    }
+
+    /**
+     * Schreibt nur die sichtbaren Zellen (hineingezoomt) in das Bild, die seit dem letzten Frame verändert wurden.
+     */
+    private void drawChanged() {
+        int wordsPerRow = board.getWordsPerRow();
+        int cellSize = 1 << zoom;
+        updatedCells = 0;
+        int firstRow = Math.max(0, Math.floorDiv(originY, cellSize));
+        int lastRow = Math.min(boardHeight - 1, Math.floorDiv(originY + height - 1, cellSize));
+        int firstColumn = Math.max(0, Math.floorDiv(originX, cellSize));
+        int lastColumn = Math.min(boardWidth - 1, Math.floorDiv(originX + width - 1, cellSize));
+        if (firstRow > lastRow || firstColumn > lastColumn) {
+            return;
+        }
+        int firstWord = firstColumn >>> 6;
+        int lastWord = lastColumn >>> 6;
+        long firstMask = -1L << firstColumn;
+        long lastMask = -1L >>> (63 - (lastColumn & 63));
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int w = firstWord; w <= lastWord; w++) {
+                long changed = board.getDirtyWord(row * wordsPerRow + w);
+                if (w == firstWord) {
+                    changed &= firstMask;
+                }
+                if (w == lastWord) {
+                    changed &= lastMask;
+                }
+                if (changed == 0) {
+                    continue;
+                }
+                long word = board.getWord(row * wordsPerRow + w);
+                while (changed != 0) {
+                    int bit = Long.numberOfTrailingZeros(changed);
+                    int column = (w << 6) + bit;
+                    fillCell(column, row, cellSize, color(word, bit, column, row));
+                    updatedCells++;
+                    changed &= changed - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Schreibt die Farbe einer Zelle in die Pixel, die davon im Ausschnitt liegen.
+     */
+    private void fillCell(int column, int row, int cellSize, int color) {
+        int[] pixels = image.pixels;
+        int left = column * cellSize - originX;
+        int top = row * cellSize - originY;
+        int fromX = Math.max(0, left);
+        int toX = Math.min(width, left + cellSize);
+        int toY = Math.min(height, top + cellSize);
+        for (int py = Math.max(0, top); py < toY; py++) {
+            Arrays.fill(pixels, py * width + fromX, py * width + toX, color);
+        }
+    }
+
+    /**
+     * Schreibt die Farben einer Zeile von Zellen in rowPixels. Eine lebende Zelle ist weiss,
+     * eine tote hat die (verblassende) Farbe ihres Alters.
+     *
+     * @param row Zeile im Spielfeld, -1 für eine Zeile ausserhalb des Spielfeldes
+     */
+    private void fillRow(int row) {
+        if (row < 0) {
+            Arrays.fill(rowPixels, OUTSIDE_COLOR);
+            return;
+        }
+        int wordIndex = row * board.getWordsPerRow();
+        int lastColumn = -1;
+        int color = OUTSIDE_COLOR;
+        for (int px = 0; px < width; px++) {
+            int column = originX + px < 0 ? -1 : (originX + px) >> zoom;
+            if (column != lastColumn) {
+                lastColumn = column;
+                if (column < 0 || column >= boardWidth) {
+                    color = OUTSIDE_COLOR;
+                } else {
+                    color = color(board.getWord(wordIndex + (column >>> 6)), column & 63, column, row);
+                }
+            }
+            rowPixels[px] = color;
+        }
+    }
+
+    /**
+     * Schreibt alle sichtbaren Blöcke (herausgezoomt) in das Bild.
+     */
+    private void drawAllBlocks() {
+        int[] pixels = image.pixels;
+        int level = -zoom;
+        int levelWidth = pyramid.getWidth(level);
+        int levelHeight = pyramid.getHeight(level);
+        for (int py = 0; py < height; py++) {
+            int row = originY + py;
+            if (row < 0 || row >= levelHeight) {
+                Arrays.fill(pixels, py * width, (py + 1) * width, OUTSIDE_COLOR);
+                continue;
+            }
+            for (int px = 0; px < width; px++) {
+                int column = originX + px;
+                pixels[py * width + px] = column >= 0 && column < levelWidth
+                        ? Palette.density(pyramid.getDensity(level, column, row)) : OUTSIDE_COLOR;
+            }
+        }
+        updatedCells = visibleCells(width, originX, levelWidth) * visibleCells(height, originY, levelHeight);
+    }
+
+    /**
+     * Schreibt nur die sichtbaren Blöcke (herausgezoomt) in das Bild, deren Dichte sich verändert hat.
+     */
+    private void drawChangedBlocks() {
+        int[] pixels = image.pixels;
+        int level = -zoom;
+        int wordsPerRow = pyramid.getWordsPerRow(level);
+        updatedCells = 0;
+        int firstRow = Math.max(0, originY);
+        int lastRow = Math.min(pyramid.getHeight(level) - 1, originY + height - 1);
+        int firstColumn = Math.max(0, originX);
+        int lastColumn = Math.min(pyramid.getWidth(level) - 1, originX + width - 1);
+        if (firstRow > lastRow || firstColumn > lastColumn) {
+            return;
+        }
+        int firstWord = firstColumn >>> 6;
+        int lastWord = lastColumn >>> 6;
+        long firstMask = -1L << firstColumn;
+        long lastMask = -1L >>> (63 - (lastColumn & 63));
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int w = firstWord; w <= lastWord; w++) {
+                long changed = pyramid.getDirtyWord(level, row * wordsPerRow + w);
+                if (w == firstWord) {
+                    changed &= firstMask;
+                }
+                if (w == lastWord) {
+                    changed &= lastMask;
+                }
+                while (changed != 0) {
+                    int column = (w << 6) + Long.numberOfTrailingZeros(changed);
+                    pixels[(row - originY) * width + column - originX] =
+                            Palette.density(pyramid.getDensity(level, column, row));
+                    updatedCells++;
+                    changed &= changed - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Anzahl Zellen (bzw. Blöcke) einer Richtung, die im Ausschnitt mindestens teilweise sichtbar sind
+     */
+    private int visibleCells(int viewSize, int origin, int cells) {
+        int cellSize = zoom >= 0 ? 1 << zoom : 1;
+        int first = Math.max(0, Math.floorDiv(origin, cellSize));
+        int last = Math.min(cells - 1, Math.floorDiv(origin + viewSize - 1, cellSize));
+        return Math.max(0, last - first + 1);
+    }
+
+    /**
+     * @param word   Wort des Bitfeldes mit der Zelle
+     * @param bit    Bit der Zelle im Wort
+     * @param column Spalte der Zelle
+     * @param row    Zeile der Zelle
+     * @return Farbe der Zelle (ARGB); weiss, wenn sie lebt, sonst die Farbe ihres Alters aus der Palette
+     */
+    private int color(long word, int bit, int column, int row) {
+        if ((word & (1L << bit)) != 0) {
+            return ALIVE_COLOR;
+        }
+        return Palette.color(board.getAge(column, row));
+    }
+}
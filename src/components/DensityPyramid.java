@@ -0,0 +1,281 @@
+package components;
+
+import engine.Board;
+
+import java.util.Arrays;
+
+/**
+ * Mip Pyramide über dem Spielfeld für die herausgezoomte Ansicht: auf Stufe k steht für jeden Block von
+ * 2^k x 2^k Zellen, wie dicht er belebt ist (0 = leer bis 255 = alle Zellen leben). Ein Pixel der Ansicht
+ * ist dann ein Eintrag der passenden Stufe, das Zeichnen kostet also nur so viel, wie die Ansicht Pixel hat.
+ *
+ * Stufe 1 wird aus dem Bitfeld berechnet, jede weitere aus den vier Einträgen der Stufe darunter. Bei jedem
+ * update() werden nur die Blöcke neu berechnet, in denen Zellen geboren wurden oder gestorben sind. Dafür behält
+ * die Pyramide eine Kopie des Bitfeldes vom letzten update(): die Dirty Bits des Spielfeldes reichen nicht, sie
+ * markieren auch jede tote Zelle, die nur verblasst. Welche Einträge sich geändert haben, steht danach in den
+ * Dirty Bits der Stufe (gleiche Anordnung wie im Bitfeld).
+ *
+ * Die Dichte wird aufgerundet, ein Block mit einer einzigen lebenden Zelle ist also nie 0 und ein einzelner
+ * Glider verschwindet auch weit herausgezoomt nicht.
+ */
+public class DensityPyramid {
+    // Dichte eines Blocks von 2x2 Zellen für 0 bis 4 lebende Zellen (aufgerundet)
+    private static final byte[] FIRST_DENSITY = {0, (byte) 64, (byte) 128, (byte) 192, (byte) 255};
+
+    // Dichte und veränderte Einträge pro Stufe (Index 0 ist das Spielfeld selbst und bleibt leer)
+    private byte[][] density = new byte[1][];
+    private long[][] dirty = new long[1][];
+    private int[] widths = new int[1];
+    private int[] heights = new int[1];
+    private int[] wordsPerRow = new int[1];
+
+    // Bitfeld beim letzten update(), Stufe 1 passt immer dazu
+    private long[] seen = new long[0];
+    // Anzahl Stufen, die aktuell sind (die Stufen darüber werden erst bei Bedarf ganz berechnet)
+    private int builtLevels;
+    private int boardWidth;
+    private int boardHeight;
+
+    /**
+     * Bringt die Stufen 1 bis level auf den Stand des Spielfeldes.
+     *
+     * @param board Spielfeld
+     * @param level Höchste Stufe, die gebraucht wird (mindestens 1)
+     * @return Boolean, ob die Stufe level ganz neu berechnet wurde (dann sind ihre Dirty Bits nicht gesetzt)
+     */
+    public boolean update(Board board, int level) {
+        if (board.getWidth() != boardWidth || board.getHeight() != boardHeight) {
+            allocate(board);
+        }
+        ensureLevels(level);
+        for (int k = 1; k <= Math.min(builtLevels, level); k++) {
+            Arrays.fill(dirty[k], 0, wordsPerRow[k] * heights[k], 0);
+        }
+
+        int current = Math.max(1, Math.min(builtLevels, level));
+        updateFirst(board);
+        for (int k = 2; k <= current; k++) {
+            propagate(k);
+        }
+        // Stufen, die bisher nicht gebraucht wurden, ganz berechnen; höhere als level sind danach veraltet
+        for (int k = current + 1; k <= level; k++) {
+            build(k);
+        }
+        boolean rebuilt = builtLevels < level;
+        builtLevels = level;
+        return rebuilt;
+    }
+
+    /**
+     * @param level Stufe (1 bis zur höchsten mit update() berechneten)
+     * @return Anzahl Einträge pro Zeile
+     */
+    public int getWidth(int level) {
+        return widths[level];
+    }
+
+    /**
+     * @param level Stufe (1 bis zur höchsten mit update() berechneten)
+     * @return Anzahl Zeilen
+     */
+    public int getHeight(int level) {
+        return heights[level];
+    }
+
+    /**
+     * @param level Stufe (1 bis zur höchsten mit update() berechneten)
+     * @param x     Spalte auf dieser Stufe
+     * @param y     Zeile auf dieser Stufe
+     * @return Dichte des Blocks (0 - 255)
+     */
+    public int getDensity(int level, int x, int y) {
+        return density[level][y * widths[level] + x] & 0xFF;
+    }
+
+    /**
+     * @param level Stufe (1 bis zur höchsten mit update() berechneten)
+     * @return Anzahl long Werte pro Zeile in den Dirty Bits
+     */
+    public int getWordsPerRow(int level) {
+        return wordsPerRow[level];
+    }
+
+    /**
+     * @param level Stufe (1 bis zur höchsten mit update() berechneten)
+     * @param index Index in den Dirty Bits (y * Wörter pro Zeile + x / 64)
+     * @return Einträge der 64 Spalten, die beim letzten update() neu berechnet wurden
+     */
+    public long getDirtyWord(int level, int index) {
+        return dirty[level][index];
+    }
+
+    /**
+     * Passt die Pyramide an eine neue Grösse des Spielfeldes an. Alle Stufen werden danach neu berechnet, die Arrays
+     * werden aber weiter verwendet, wenn sie gross genug sind (z.B. beim Verkleinern des Fensters).
+     */
+    private void allocate(Board board) {
+        boardWidth = board.getWidth();
+        boardHeight = board.getHeight();
+        if (seen.length < board.getWordCount()) {
+            seen = new long[board.getWordCount()];
+        }
+        for (int k = 1; k < density.length; k++) {
+            layout(k);
+        }
+        // Ein leeres Bitfeld passt zu einer leeren Stufe 1
+        Arrays.fill(seen, 0, board.getWordCount(), 0);
+        if (density.length > 1) {
+            Arrays.fill(density[1], 0, widths[1] * heights[1], (byte) 0);
+        }
+        builtLevels = 0;
+    }
+
+    /**
+     * Legt die Arrays bis zur Stufe level an (die bestehenden bleiben erhalten).
+     */
+    private void ensureLevels(int level) {
+        if (level < density.length) {
+            return;
+        }
+        int oldLength = density.length;
+        density = Arrays.copyOf(density, level + 1);
+        dirty = Arrays.copyOf(dirty, level + 1);
+        widths = Arrays.copyOf(widths, level + 1);
+        heights = Arrays.copyOf(heights, level + 1);
+        wordsPerRow = Arrays.copyOf(wordsPerRow, level + 1);
+        for (int k = oldLength; k <= level; k++) {
+            layout(k);
+        }
+    }
+
+    /**
+     * Berechnet die Grösse der Stufe level und legt ihre Arrays an, falls die bisherigen zu klein sind.
+     */
+    private void layout(int level) {
+        // Aufrunden, ein angeschnittener Block am Rand ist auch ein Eintrag
+        widths[level] = (boardWidth + (1 << level) - 1) >>> level;
+        heights[level] = (boardHeight + (1 << level) - 1) >>> level;
+        wordsPerRow[level] = (widths[level] + 63) >>> 6;
+        if (density[level] == null || density[level].length < widths[level] * heights[level]) {
+            density[level] = new byte[widths[level] * heights[level]];
+        }
+        if (dirty[level] == null || dirty[level].length < wordsPerRow[level] * heights[level]) {
+            dirty[level] = new long[wordsPerRow[level] * heights[level]];
+        }
+    }
+
+    /**
+     * Berechnet die Blöcke der Stufe 1 neu, in denen sich seit dem letzten update() Zellen verändert haben, und
+     * markiert sie (auch wenn die Dichte gleich bleibt, so braucht es pro Wort keine Vergleiche).
+     */
+    private void updateFirst(Board board) {
+        int boardWords = board.getWordsPerRow();
+        long[] marks = dirty[1];
+        int marksPerRow = wordsPerRow[1];
+        for (int y = 0; y < heights[1]; y++) {
+            int top = (y << 1) * boardWords;
+            boolean hasBottom = (y << 1) + 1 < boardHeight;
+            for (int w = 0; w < boardWords; w++) {
+                long upper = board.getWord(top + w);
+                long lower = hasBottom ? board.getWord(top + boardWords + w) : 0;
+                long changed = upper ^ seen[top + w];
+                if (hasBottom) {
+                    changed |= lower ^ seen[top + boardWords + w];
+                }
+                if (changed == 0) {
+                    continue;
+                }
+                seen[top + w] = upper;
+                if (hasBottom) {
+                    seen[top + boardWords + w] = lower;
+                }
+
+                // Ein Bit pro Paar von Spalten, an der Stelle der linken Spalte
+                long pairs = (changed | changed >>> 1) & 0x5555555555555555L;
+                marks[y * marksPerRow + (w >>> 1)] |= compress(pairs) << ((w & 1) << 5);
+                while (pairs != 0) {
+                    int bit = Long.numberOfTrailingZeros(pairs);
+                    int count = Long.bitCount(upper >>> bit & 3) + Long.bitCount(lower >>> bit & 3);
+                    density[1][y * widths[1] + (w << 5) + (bit >>> 1)] = FIRST_DENSITY[count];
+                    pairs &= pairs - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Berechnet die Einträge der Stufe level neu, unter denen ein Eintrag der Stufe darunter markiert ist, und
+     * markiert sie ebenfalls.
+     */
+    private void propagate(int level) {
+        long[] below = dirty[level - 1];
+        int belowPerRow = wordsPerRow[level - 1];
+        long[] marks = dirty[level];
+        int marksPerRow = wordsPerRow[level];
+        // Zwei Zeilen der Stufe darunter gehören zu einer Zeile dieser Stufe
+        for (int y = 0; y < heights[level]; y++) {
+            int top = (y << 1) * belowPerRow;
+            boolean hasBottom = (y << 1) + 1 < heights[level - 1];
+            for (int w = 0; w < belowPerRow; w++) {
+                long changed = below[top + w] | (hasBottom ? below[top + belowPerRow + w] : 0);
+                if (changed == 0) {
+                    continue;
+                }
+                long pairs = (changed | changed >>> 1) & 0x5555555555555555L;
+                marks[y * marksPerRow + (w >>> 1)] |= compress(pairs) << ((w & 1) << 5);
+                while (pairs != 0) {
+                    int x = (w << 5) + (Long.numberOfTrailingZeros(pairs) >>> 1);
+                    density[level][y * widths[level] + x] = average(level, x, y);
+                    pairs &= pairs - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Schiebt die Bits an geraden Stellen zusammen (Bit 2i wird Bit i), aus den Paaren einer Stufe werden so die
+     * Einträge der nächsten: 32 nebeneinander liegende Bits, die halbe Zeile eines Wortes der Dirty Bits.
+     */
+    private static long compress(long pairs) {
+        long bits = (pairs | pairs >>> 1) & 0x3333333333333333L;
+        bits = (bits | bits >>> 2) & 0x0F0F0F0F0F0F0F0FL;
+        bits = (bits | bits >>> 4) & 0x00FF00FF00FF00FFL;
+        bits = (bits | bits >>> 8) & 0x0000FFFF0000FFFFL;
+        return (bits | bits >>> 16) & 0x00000000FFFFFFFFL;
+    }
+
+    /**
+     * Berechnet die ganze Stufe level aus der Stufe darunter.
+     */
+    private void build(int level) {
+        for (int y = 0; y < heights[level]; y++) {
+            for (int x = 0; x < widths[level]; x++) {
+                density[level][y * widths[level] + x] = average(level, x, y);
+            }
+        }
+    }
+
+    /**
+     * @return Durchschnitt der vier Einträge unter (x, y) auf der Stufe level - 1, aufgerundet (Einträge
+     * ausserhalb des Spielfeldes zählen als leer)
+     */
+    private byte average(int level, int x, int y) {
+        byte[] below = density[level - 1];
+        int width = widths[level - 1];
+        int height = heights[level - 1];
+        int left = x << 1;
+        int top = y << 1;
+        boolean hasRight = left + 1 < width;
+        int sum = below[top * width + left] & 0xFF;
+        if (hasRight) {
+            sum += below[top * width + left + 1] & 0xFF;
+        }
+        if (top + 1 < height) {
+            sum += below[(top + 1) * width + left] & 0xFF;
+            if (hasRight) {
+                sum += below[(top + 1) * width + left + 1] & 0xFF;
+            }
+        }
+        return (byte) ((sum + 3) >>> 2);
+    }
+}
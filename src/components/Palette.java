@@ -0,0 +1,66 @@
+package components;
+
+import engine.Board;
+
+/**
+ * Tabelle mit der Farbe (ARGB) für jedes Alter einer toten Zelle. Eine gerade gestorbene Zelle ist violett
+ * (Rot und Blau voll), danach verblasst zuerst das Rot bis 0 und dann das Blau bis Board.MIN_BLUE.
+ * Die Tabelle wird einmal berechnet, beim Zeichnen ist die Farbe einer Zelle also nur ein Arrayzugriff.
+ *
+ * Für die herausgezoomte Ansicht gibt es eine zweite Tabelle für die Dichte eines Blocks (siehe DensityPyramid):
+ * von der Farbe einer ganz verblassten Zelle bis weiss. Ein Block mit wenigen lebenden Zellen ist schon deutlich
+ * heller als ein leerer, damit einzelne Objekte auch in einem grossen Spielfeld sichtbar bleiben.
+ */
+public final class Palette {
+    // Farbe für jedes Alter von Board.DEAD_AGE bis Board.MAX_FADE
+    private static final int[] COLORS = new int[Board.MAX_FADE + 1];
+    // Farbe für jede Dichte von 0 (leer) bis 255 (alle Zellen leben)
+    private static final int[] DENSITY_COLORS = new int[256];
+    // Anteil weiss eines Blocks mit der kleinsten Dichte über 0
+    private static final float MIN_VISIBLE = 0.35f;
+
+    static {
+        for (int age = 0; age <= Board.MAX_FADE; age++) {
+            int red = Math.max(0, Board.DEAD_RED - age);
+            int blue = Math.max(Board.MIN_BLUE, Board.DEAD_BLUE - (age - (Board.DEAD_RED - red)));
+            COLORS[age] = 0xFF000000 | red << 16 | blue;
+        }
+
+        int empty = COLORS[Board.MAX_FADE];
+        DENSITY_COLORS[0] = empty;
+        for (int density = 1; density < DENSITY_COLORS.length; density++) {
+            // Wurzel, damit die Helligkeit bei kleinen Dichten schneller zunimmt
+            float white = MIN_VISIBLE + (1 - MIN_VISIBLE) * (float) Math.sqrt(density / 255.0);
+            int red = blend(empty >> 16 & 0xFF, white);
+            int green = blend(empty >> 8 & 0xFF, white);
+            int blue = blend(empty & 0xFF, white);
+            DENSITY_COLORS[density] = 0xFF000000 | red << 16 | green << 8 | blue;
+        }
+    }
+
+    private Palette() {
+    }
+
+    /**
+     * @param age Alter der Zelle (Board.DEAD_AGE - Board.MAX_FADE)
+     * @return Farbe der toten Zelle (ARGB)
+     */
+    public static int color(int age) {
+        return COLORS[age];
+    }
+
+    /**
+     * @param density Dichte eines Blocks (0 - 255)
+     * @return Farbe des Blocks (ARGB)
+     */
+    public static int density(int density) {
+        return DENSITY_COLORS[density];
+    }
+
+    /**
+     * @return Farbkanal, der zum Anteil white in Richtung weiss verschoben ist
+     */
+    private static int blend(int channel, float white) {
+        return Math.round(channel + (255 - channel) * white);
+    }
+}
@@ -0,0 +1,62 @@
+package components;
+
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PFont;
+import profiler.Phase;
+import profiler.PhaseStatistics;
+import profiler.Profiler;
+
+import java.util.Locale;
+
+/**
+ * Zeigt die Laufzeiten des Profilers (Minimum, Durchschnitt und 99. Perzentil pro Abschnitt)
+ * in einem halbtransparenten Kasten über dem Spielfeld an.
+ */
+public class ProfilerOverlay extends BaseComponent {
+    private static final int LINE_HEIGHT = 16;
+    private static final int WIDTH = 300;
+    private static final int PADDING = 6;
+
+    // Schrift mit fester Breite, damit die Spalten untereinander stehen (wird beim ersten Zeichnen erstellt)
+    private PFont font;
+
+    /**
+     * Konstruktor des Overlays.
+     *
+     * @param x X Koordinate der linken oberen Ecke
+     * @param y Y Koordinate der linken oberen Ecke
+     */
+    public ProfilerOverlay(int x, int y) {
+        super(x, y);
+    }
+
+    /**
+     * Zeichnet eine Zeile pro Abschnitt mit den Laufzeiten in Millisekunden.
+     *
+     * @param pApplet Processing Objekt, welches Funktionen zum Zeichnen anbietet
+     */
+    @Override
+    public void draw(PApplet pApplet) {
+        Phase[] phases = Phase.values();
+        pApplet.pushStyle();
+        pApplet.noStroke();
+        pApplet.fill(0, 180);
+        pApplet.rect(x, y, WIDTH, (phases.length + 1) * LINE_HEIGHT + 2 * PADDING);
+
+        if (font == null) {
+            font = pApplet.createFont("Monospaced", 12);
+        }
+        pApplet.textFont(font);
+        pApplet.fill(255);
+        pApplet.textAlign(PConstants.LEFT, PConstants.TOP);
+        pApplet.text(String.format(Locale.ROOT, "%-8s %8s %8s %8s", "ms", "min", "avg", "p99"), x + PADDING, y + PADDING);
+        for (int i = 0; i < phases.length; i++) {
+            PhaseStatistics statistics = Profiler.getStatistics(phases[i]);
+            String line = String.format(Locale.ROOT, "%-8s %8.3f %8.3f %8.3f", statistics.getPhase(),
+                    statistics.getMin() / 1e3, statistics.getAverage() / 1e3, statistics.getP99() / 1e3);
+            pApplet.text(line, x + PADDING, y + PADDING + (i + 1) * LINE_HEIGHT);
+        }
+        pApplet.popStyle();
+    }
+}
@@ -0,0 +1,178 @@
+package engine;
+
+/**
+ * Berechnet die nächste Generation direkt auf dem Bitfeld des Spielfeldes (64 Zellen pro long).
+ * Die acht Nachbaren werden als um ein Bit verschobene Zeilen mit bitweisen Volladdierern
+ * aufaddiert, so wird die Regel (z.B. B3/S23) für 64 Zellen gleichzeitig angewendet (SWAR).
+ * Die Nachbaren ausserhalb des Spielfeldes bestimmt der Rand (tot, Torus oder gespiegelt): für die Zeilen
+ * oberhalb der ersten und unterhalb der letzten wird eine Zeile des Spielfeldes (oder eine leere Zeile) gelesen,
+ * die Spalten links und rechts werden pro Zeile einmal als Halo Bits vor bzw. nach die Zeile gesetzt.
+ */
+public class BitEngine implements Engine {
+    private final Rule rule;
+    private final Boundary boundary;
+
+    /**
+     * Konstruktor der Engine für Game of Life (B3/S23).
+     */
+    public BitEngine() {
+        this(Rule.LIFE);
+    }
+
+    /**
+     * @param rule Regel, nach der die nächste Generation berechnet wird
+     */
+    public BitEngine(Rule rule) {
+        this(rule, Boundary.DEAD);
+    }
+
+    /**
+     * @param rule     Regel, nach der die nächste Generation berechnet wird
+     * @param boundary Verhalten am Rand des Spielfeldes
+     */
+    public BitEngine(Rule rule, Boundary boundary) {
+        this.rule = rule;
+        this.boundary = boundary;
+    }
+
+    @Override
+    public void stepRows(Board current, Board next, int fromRow, int toRow, boolean fade) {
+        stepWords(rule, boundary, current, next, fromRow, toRow, 0, current.getWordsPerRow());
+        next.updateColors(current, fromRow, toRow, fade);
+    }
+
+    /**
+     * Berechnet den Status (ohne Farben) eines Rechtecks der nächsten Generation.
+     * Die Spalten werden in Wörtern des Bitfeldes angegeben.
+     *
+     * @param rule     Regel, nach der die nächste Generation berechnet wird
+     * @param boundary Verhalten am Rand des Spielfeldes
+     * @param current  Spielfeld der aktuellen Generation
+     * @param next     Spielfeld, in welches die nächste Generation geschrieben wird
+     * @param fromRow  erste Zeile
+     * @param toRow    Zeile nach der letzten Zeile
+     * @param fromWord erstes Wort
+     * @param toWord   Wort nach dem letzten Wort
+     */
+    static void stepWords(Rule rule, Boundary boundary, Board current, Board next,
+                          int fromRow, int toRow, int fromWord, int toWord) {
+        int height = current.getHeight();
+        int wordsPerRow = current.getWordsPerRow();
+        long[] emptyRow = current.getEmptyRow();
+
+        for (int y = fromRow; y < toRow; y++) {
+            // Zeile oberhalb und unterhalb, am oberen und unteren Rand je nach Boundary eine Zeile des Spielfeldes oder leer
+            int aboveRow = boundary.row(y - 1, height);
+            int belowRow = boundary.row(y + 1, height);
+            long[] above = aboveRow >= 0 ? current.alive : emptyRow;
+            int aboveOffset = aboveRow >= 0 ? aboveRow * wordsPerRow : 0;
+            long[] below = belowRow >= 0 ? current.alive : emptyRow;
+            int belowOffset = belowRow >= 0 ? belowRow * wordsPerRow : 0;
+
+            stepRow(rule, boundary, above, aboveOffset, current.alive, y * wordsPerRow, below, belowOffset,
+                    next.alive, current.getWidth(), wordsPerRow, current.getLastWordMask(), fromWord, toWord);
+        }
+    }
+
+    /**
+     * Berechnet eine Zeile der nächsten Generation.
+     *
+     * @param rule         Regel, nach der die nächste Generation berechnet wird
+     * @param boundary     Verhalten am Rand des Spielfeldes
+     * @param above        Array mit der Zeile oberhalb
+     * @param aboveOffset  Startindex der Zeile oberhalb
+     * @param row          Array mit der Zeile selbst
+     * @param offset       Startindex der Zeile (in row und im Zielarray)
+     * @param below        Array mit der Zeile unterhalb
+     * @param belowOffset  Startindex der Zeile unterhalb
+     * @param target       Zielarray der nächsten Generation
+     * @param width        Anzahl Spalten des Spielfeldes
+     * @param wordsPerRow  Anzahl long Werte pro Zeile
+     * @param lastWordMask Maske für das letzte Wort der Zeile
+     * @param fromWord     erstes Wort, das berechnet wird
+     * @param toWord       Wort nach dem letzten Wort, das berechnet wird
+     */
+    private static void stepRow(Rule rule, Boundary boundary, long[] above, int aboveOffset, long[] row, int offset,
+                                long[] below, int belowOffset, long[] target, int width, int wordsPerRow,
+                                long lastWordMask, int fromWord, int toWord) {
+        // Halo rechts: die Zelle rechts des Spielfeldes liegt im letzten Wort direkt nach der letzten Spalte
+        // (die Bits dort sind sonst immer 0) oder, wenn die Zeile das letzte Wort ganz füllt, im Wort danach
+        int last = wordsPerRow - 1;
+        int shift = width & 63;
+        long aboveRight = boundary.rightHalo(above, aboveOffset, width);
+        long rowRight = boundary.rightHalo(row, offset, width);
+        long belowRight = boundary.rightHalo(below, belowOffset, width);
+        long aboveAfter = shift == 0 ? aboveRight : 0, abovePad = shift == 0 ? 0 : aboveRight << shift;
+        long rowAfter = shift == 0 ? rowRight : 0, rowPad = shift == 0 ? 0 : rowRight << shift;
+        long belowAfter = shift == 0 ? belowRight : 0, belowPad = shift == 0 ? 0 : belowRight << shift;
+
+        // Halo links: das höchste Bit des Wortes vor dem ersten Wort ist die Zelle links des Spielfeldes
+        boolean hasPrev = fromWord > 0;
+        long abovePrev = hasPrev ? above[aboveOffset + fromWord - 1] : boundary.leftHalo(above, aboveOffset, width);
+        long rowPrev = hasPrev ? row[offset + fromWord - 1] : boundary.leftHalo(row, offset, width);
+        long belowPrev = hasPrev ? below[belowOffset + fromWord - 1] : boundary.leftHalo(below, belowOffset, width);
+        long aboveCur = above[aboveOffset + fromWord] | (fromWord == last ? abovePad : 0);
+        long rowCur = row[offset + fromWord] | (fromWord == last ? rowPad : 0);
+        long belowCur = below[belowOffset + fromWord] | (fromWord == last ? belowPad : 0);
+
+        for (int w = fromWord; w < toWord; w++) {
+            boolean hasNext = w < last;
+            boolean nextIsLast = w + 1 == last;
+            long aboveNext = hasNext ? above[aboveOffset + w + 1] | (nextIsLast ? abovePad : 0) : aboveAfter;
+            long rowNext = hasNext ? row[offset + w + 1] | (nextIsLast ? rowPad : 0) : rowAfter;
+            long belowNext = hasNext ? below[belowOffset + w + 1] | (nextIsLast ? belowPad : 0) : belowAfter;
+
+            long nextWord = nextWord(rule, abovePrev, aboveCur, aboveNext, rowPrev, rowCur, rowNext, belowPrev, belowCur, belowNext);
+            if (!hasNext) {
+                nextWord &= lastWordMask;
+            }
+            target[offset + w] = nextWord;
+
+            abovePrev = aboveCur;
+            aboveCur = aboveNext;
+            rowPrev = rowCur;
+            rowCur = rowNext;
+            belowPrev = belowCur;
+            belowCur = belowNext;
+        }
+    }
+
+    /**
+     * Berechnet ein Wort (64 Zellen) der nächsten Generation aus den Wörtern der Nachbarschaft.
+     * Von den Wörtern links (prev) wird nur das höchste Bit verwendet, von den Wörtern rechts (next) nur das tiefste.
+     *
+     * @param rule Regel, nach der die nächste Generation berechnet wird
+     * @return Wort der nächsten Generation für die Zellen in rowCur
+     */
+    static long nextWord(Rule rule, long abovePrev, long aboveCur, long aboveNext,
+                         long rowPrev, long rowCur, long rowNext,
+                         long belowPrev, long belowCur, long belowNext) {
+        // Nachbar links (x - 1) auf Position x schieben, bzw. Nachbar rechts (x + 1)
+        long aboveLeft = (aboveCur << 1) | (abovePrev >>> 63);
+        long aboveRight = (aboveCur >>> 1) | (aboveNext << 63);
+        long rowLeft = (rowCur << 1) | (rowPrev >>> 63);
+        long rowRight = (rowCur >>> 1) | (rowNext << 63);
+        long belowLeft = (belowCur << 1) | (belowPrev >>> 63);
+        long belowRight = (belowCur >>> 1) | (belowNext << 63);
+
+        // Volladdierer für die drei Nachbaren oberhalb und unterhalb, Halbaddierer für die eigene Zeile
+        long aboveOnes = aboveLeft ^ aboveCur ^ aboveRight;
+        long aboveTwos = (aboveLeft & aboveCur) | (aboveRight & (aboveLeft ^ aboveCur));
+        long belowOnes = belowLeft ^ belowCur ^ belowRight;
+        long belowTwos = (belowLeft & belowCur) | (belowRight & (belowLeft ^ belowCur));
+        long rowOnes = rowLeft ^ rowRight;
+        long rowTwos = rowLeft & rowRight;
+
+        // Die drei Teilsummen zusammenzählen (ergibt die Bits 1, 2, 4 und 8 der Nachbaranzahl)
+        long ones = aboveOnes ^ belowOnes ^ rowOnes;
+        long onesCarry = (aboveOnes & belowOnes) | (rowOnes & (aboveOnes ^ belowOnes));
+        long twosSum = aboveTwos ^ belowTwos ^ rowTwos;
+        long twosCarry = (aboveTwos & belowTwos) | (rowTwos & (aboveTwos ^ belowTwos));
+        long twos = twosSum ^ onesCarry;
+        long foursCarry = twosSum & onesCarry;
+        long fours = twosCarry ^ foursCarry;
+        long eights = twosCarry & foursCarry;
+
+        return rule.apply(rowCur, ones, twos, fours, eights);
+    }
+}
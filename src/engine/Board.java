@@ -0,0 +1,798 @@
+package engine;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Speicher für den Zustand aller Zellen einer Generation (Structure of Arrays).
+ * Statt einem Objekt pro Zelle gibt es ein Array pro Eigenschaft:
+ * der Status (alive) ist als Bitfeld gespeichert (64 Zellen pro long, Zeile für Zeile),
+ * die Farbe als Alter in Farbstufen (ein short pro Zelle). Erst beim Zeichnen wird das Alter über eine
+ * Tabelle in eine Farbe übersetzt (siehe components.Palette).
+ * Die Koordinaten einer Zelle ergeben sich aus ihrem Index (index = y * width + x).
+ *
+ * Die Grösse kann mit resize() verändert werden. Die Arrays werden dabei nur ersetzt, wenn sie zu klein sind
+ * (dann mit etwas Reserve), sonst werden die Zeilen im gleichen Array neu angeordnet. Die Arrays können also
+ * grösser sein als das Spielfeld, alle Schleifen gehen deshalb nur bis getWordCount() bzw. width * height.
+ */
+public class Board {
+    // Farbe einer Zelle, die gerade gestorben ist (Rot und Blau voll)
+    public static final int DEAD_RED = 255;
+    public static final int DEAD_BLUE = 255;
+    // Bis zu diesem Wert verblasst das Blau
+    public static final int MIN_BLUE = 65;
+    // Anzahl Stufen, bis eine Zelle ganz verblasst ist (zuerst Rot bis 0, danach Blau bis MIN_BLUE)
+    public static final int MAX_FADE = DEAD_RED + DEAD_BLUE - MIN_BLUE;
+    // Alter einer Zelle, die gerade gestorben ist (volle Farbe)
+    public static final int DEAD_AGE = 0;
+
+    // Ein zu kleines Array wächst beim Vergrössern mindestens um length >> GROWTH_SHIFT (wie bei ArrayList)
+    private static final int GROWTH_SHIFT = 1;
+    // Grösste Länge eines Arrays, die jede JVM anlegen kann
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private int width;
+    private int height;
+    private int wordsPerRow;
+
+    // Maske für das letzte Wort einer Zeile, Bits ausserhalb des Spielfeldes müssen immer 0 sein
+    private long lastWordMask;
+
+    // Status aller Zellen, Zeile y beginnt bei Index y * wordsPerRow, Bit x % 64 im Wort x / 64
+    long[] alive;
+
+    // Leere Zeile für die Nachbaren oberhalb der ersten und unterhalb der letzten Zeile (wird nie beschrieben)
+    private long[] emptyRow;
+
+    // Anzahl Farbstufen, um welche jede Zelle seit ihrem Tod verblasst ist (DEAD_AGE - MAX_FADE), Index y * width + x
+    short[] age;
+
+    // Zellen, deren Status oder Farbe sich geändert hat, seit sie zuletzt gezeichnet wurden (gleiche Anordnung wie alive)
+    private long[] dirty;
+    // Boolean, ob das ganze Spielfeld neu gezeichnet werden muss
+    private boolean allDirty;
+
+    // Anzahl lebender, geborener und gestorbener Zellen pro Zeile. Geburten und Tode beziehen sich auf den letzten
+    // Schritt, sie werden von den Engines beim Berechnen der Farben gezählt (siehe updateColors())
+    private int[] rowPopulation;
+    private int[] rowBirths;
+    private int[] rowDeaths;
+    // Hash der lebenden Zellen pro Zeile (XOR von wordHash() aller Wörter der Zeile). Wird wie die Anzahl Zellen
+    // nur aus den veränderten Wörtern nachgeführt, siehe getHash()
+    private long[] rowHash;
+
+    // Nummer der Generation, die in diesem Spielfeld gespeichert ist
+    private long generation;
+
+    // Wird bei jeder Änderung von aussen (Bearbeiten, Leeren, Kopieren) erhöht, nicht aber von den Engines
+    private int modCount;
+
+    /**
+     * Konstruktor des Spielfeldes. Alle Zellen sind zu Beginn tot.
+     *
+     * @param width  Anzahl Spalten
+     * @param height Anzahl Zeilen
+     */
+    public Board(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.lastWordMask = (width & 63) == 0 ? -1L : (1L << (width & 63)) - 1;
+        this.alive = new long[wordsPerRow * height];
+        this.dirty = new long[wordsPerRow * height];
+        this.emptyRow = new long[wordsPerRow];
+        this.age = new short[width * height];
+        this.rowPopulation = new int[height];
+        this.rowBirths = new int[height];
+        this.rowDeaths = new int[height];
+        this.rowHash = new long[height];
+        clear();
+    }
+
+    /**
+     * Tötet alle Zellen und setzt ihre Farbe zurück.
+     */
+    public void clear() {
+        modCount++;
+        allDirty = true;
+        Arrays.fill(alive, 0, getWordCount(), 0);
+        Arrays.fill(age, 0, width * height, (short) DEAD_AGE);
+        Arrays.fill(rowPopulation, 0, height, 0);
+        Arrays.fill(rowBirths, 0, height, 0);
+        Arrays.fill(rowDeaths, 0, height, 0);
+        Arrays.fill(rowHash, 0, height, 0);
+    }
+
+    /**
+     * Verändert die Grösse des Spielfeldes. Die Zellen, die in beiden Grössen im Spielfeld liegen, behalten Status
+     * und Farbe (die Ecke links oben bleibt stehen), neue Zellen sind tot. Das ganze Spielfeld wird neu gezeichnet.
+     *
+     * Reichen die Arrays für die neue Grösse, werden die Zeilen darin verschoben und es wird nichts angelegt.
+     * Sonst wachsen sie mindestens um die Hälfte, damit mehrere kleine Vergrösserungen nacheinander (z.B. beim
+     * Ziehen am Fenster) nicht jedes Mal neue Arrays brauchen.
+     *
+     * @param width  Anzahl Spalten (mindestens 1)
+     * @param height Anzahl Zeilen (mindestens 1)
+     */
+    public void resize(int width, int height) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Spielfeld muss mindestens 1 x 1 Zellen haben: "
+                    + width + " x " + height);
+        }
+        if (width == this.width && height == this.height) {
+            return;
+        }
+        int newWordsPerRow = (width + 63) >>> 6;
+        int rows = Math.min(this.height, height);
+
+        long[] oldAlive = alive;
+        alive = capacity(alive, (long) newWordsPerRow * height);
+        moveRows(oldAlive, alive, wordsPerRow, newWordsPerRow, rows);
+        short[] oldAge = age;
+        age = capacity(age, (long) width * height);
+        moveRows(oldAge, age, this.width, width, rows);
+
+        // Neue Spalten und Zeilen sind leer
+        if (newWordsPerRow > wordsPerRow) {
+            for (int y = 0; y < rows; y++) {
+                Arrays.fill(alive, y * newWordsPerRow + wordsPerRow, (y + 1) * newWordsPerRow, 0);
+            }
+        }
+        if (width > this.width) {
+            for (int y = 0; y < rows; y++) {
+                Arrays.fill(age, y * width + this.width, (y + 1) * width, (short) DEAD_AGE);
+            }
+        }
+        Arrays.fill(alive, rows * newWordsPerRow, newWordsPerRow * height, 0);
+        Arrays.fill(age, rows * width, width * height, (short) DEAD_AGE);
+
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = newWordsPerRow;
+        this.lastWordMask = (width & 63) == 0 ? -1L : (1L << (width & 63)) - 1;
+        dirty = capacity(dirty, getWordCount());
+        emptyRow = capacity(emptyRow, newWordsPerRow);
+        rowPopulation = capacity(rowPopulation, height);
+        rowBirths = capacity(rowBirths, height);
+        rowDeaths = capacity(rowDeaths, height);
+        rowHash = capacity(rowHash, height);
+
+        // Abgeschnittene Spalten im letzten Wort löschen und neu zählen (der Hash hängt vom Index der Wörter ab)
+        for (int y = 0; y < height; y++) {
+            int last = y * wordsPerRow + wordsPerRow - 1;
+            alive[last] &= lastWordMask;
+            int population = 0;
+            for (int i = y * wordsPerRow; i <= last; i++) {
+                population += Long.bitCount(alive[i]);
+            }
+            rowPopulation[y] = population;
+            rowHash[y] = hashRow(y);
+        }
+        Arrays.fill(rowBirths, 0, height, 0);
+        Arrays.fill(rowDeaths, 0, height, 0);
+        Arrays.fill(dirty, 0, getWordCount(), 0);
+        allDirty = true;
+        modCount++;
+    }
+
+    /**
+     * @return Das Array, wenn es mindestens size Werte hat, sonst ein neues mit Reserve (der Inhalt wird nicht kopiert)
+     */
+    private static long[] capacity(long[] array, long size) {
+        return array != null && array.length >= size ? array : new long[grow(array == null ? 0 : array.length, size)];
+    }
+
+    private static short[] capacity(short[] array, long size) {
+        return array != null && array.length >= size ? array : new short[grow(array == null ? 0 : array.length, size)];
+    }
+
+    private static int[] capacity(int[] array, long size) {
+        return array != null && array.length >= size ? array : new int[grow(array == null ? 0 : array.length, size)];
+    }
+
+    private static int grow(int length, long size) {
+        if (size > MAX_ARRAY_SIZE) {
+            throw new IllegalArgumentException("Spielfeld ist zu gross: " + size + " Werte pro Array");
+        }
+        return (int) Math.min(MAX_ARRAY_SIZE, Math.max(size, length + ((long) length >> GROWTH_SHIFT)));
+    }
+
+    /**
+     * Kopiert die ersten rows Zeilen von Zeilenlänge oldStride auf Zeilenlänge newStride (es werden so viele Werte
+     * pro Zeile kopiert, wie in beide passen). Ist target das gleiche Array wie source, wird in der Richtung
+     * kopiert, in der noch keine Zeile überschrieben wurde, die erst danach kopiert wird.
+     */
+    private static void moveRows(Object source, Object target, int oldStride, int newStride, int rows) {
+        if (source == null || (source == target && oldStride == newStride)) {
+            return;
+        }
+        int length = Math.min(oldStride, newStride);
+        if (newStride > oldStride) {
+            for (int y = rows - 1; y >= 0; y--) {
+                System.arraycopy(source, y * oldStride, target, y * newStride, length);
+            }
+        } else {
+            for (int y = 0; y < rows; y++) {
+                System.arraycopy(source, y * oldStride, target, y * newStride, length);
+            }
+        }
+    }
+
+    /**
+     * Tötet alle Zellen und belebt danach jede Zelle mit der angegebenen Wahrscheinlichkeit.
+     *
+     * @param random      Zufallsgenerator
+     * @param probability Wahrscheinlichkeit in Prozent (0 - 100), dass eine Zelle lebt
+     */
+    public void randomize(Random random, int probability) {
+        clear();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                // Zufalls Zahl zwischen 0 und 99 (inklusive 0 und 99)
+                if (random.nextInt(100) < probability) {
+                    alive[y * wordsPerRow + (x >>> 6)] |= 1L << x;
+                    rowPopulation[y]++;
+                }
+            }
+            rowHash[y] = hashRow(y);
+        }
+    }
+
+    /**
+     * Übernimmt den kompletten Zustand eines anderen Spielfeldes. Hat es eine andere Grösse, wird dieses
+     * Spielfeld zuerst angepasst (siehe resize()).
+     *
+     * @param other Spielfeld, das kopiert wird
+     */
+    public void copyFrom(Board other) {
+        resize(other.width, other.height);
+        modCount++;
+        allDirty = true;
+        generation = other.generation;
+        System.arraycopy(other.alive, 0, alive, 0, getWordCount());
+        System.arraycopy(other.age, 0, age, 0, width * height);
+        copyStatistics(other);
+    }
+
+    /**
+     * Übernimmt den Zustand eines anderen Spielfeldes gleicher Grösse wie copyFrom(). Statt das ganze Spielfeld
+     * als verändert zu markieren, werden die Markierungen des anderen Spielfeldes übernommen (zu den noch nicht
+     * gezeichneten hinzugefügt) und dort gelöscht. So können die Generationen in eine Kopie zum Zeichnen
+     * übernommen werden, ohne dass jedes Mal das ganze Spielfeld neu gezeichnet werden muss.
+     * Nach einer Änderung der Grösse wird das ganze Spielfeld neu gezeichnet.
+     *
+     * @param other Spielfeld, das kopiert wird
+     */
+    public void copyChangesFrom(Board other) {
+        resize(other.width, other.height);
+        modCount++;
+        generation = other.generation;
+        System.arraycopy(other.alive, 0, alive, 0, getWordCount());
+        System.arraycopy(other.age, 0, age, 0, width * height);
+        copyStatistics(other);
+        for (int i = 0; i < getWordCount(); i++) {
+            dirty[i] |= other.dirty[i];
+        }
+        allDirty |= other.allDirty;
+        other.clearDirty();
+    }
+
+    private void copyStatistics(Board other) {
+        System.arraycopy(other.rowPopulation, 0, rowPopulation, 0, height);
+        System.arraycopy(other.rowBirths, 0, rowBirths, 0, height);
+        System.arraycopy(other.rowDeaths, 0, rowDeaths, 0, height);
+        System.arraycopy(other.rowHash, 0, rowHash, 0, height);
+    }
+
+    /**
+     * @return Eine unabhängige Kopie dieses Spielfeldes
+     */
+    public Board copy() {
+        Board copy = new Board(width, height);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /**
+     * Berechnet die Farben der Zeilen fromRow bis toRow (exklusive) der nächsten Generation.
+     * Der Status (alive) der nächsten Generation muss für diese Zeilen bereits in diesem Spielfeld stehen.
+     * Eine Zelle, die gestorben ist, bekommt wieder die volle Farbe, alle anderen
+     * verblassen (wenn fade true ist) zuerst im Rot und danach im Blau.
+     *
+     * @param current Spielfeld der aktuellen Generation
+     * @param fromRow erste Zeile
+     * @param toRow   Zeile nach der letzten Zeile
+     * @param fade    Boolean, ob die Farben in diesem Schritt verblassen
+     */
+    public void updateColors(Board current, int fromRow, int toRow, boolean fade) {
+        updateColors(current, fromRow, toRow, fade ? 1 : 0);
+    }
+
+    /**
+     * Berechnet die Farben der Zeilen fromRow bis toRow (exklusive), wenn mehrere Generationen auf einmal
+     * übersprungen wurden. Die Farben verblassen um fadeSteps Stufen, Zellen die zwischendurch gestorben
+     * und wieder belebt wurden, werden dabei nicht erkannt (die Farbe ist also nur eine Annäherung).
+     *
+     * @param current   Spielfeld der Generation vor dem Sprung
+     * @param fromRow   erste Zeile
+     * @param toRow     Zeile nach der letzten Zeile
+     * @param fadeSteps Anzahl Stufen, um welche die Farben verblassen
+     */
+    public void updateColors(Board current, int fromRow, int toRow, int fadeSteps) {
+        updateColors(current, fromRow, toRow, 0, wordsPerRow, fadeSteps);
+    }
+
+    /**
+     * Berechnet die Farben eines Rechtecks des Spielfeldes. Die Spalten werden in Wörtern des
+     * Bitfeldes angegeben (Wort w umfasst die Spalten w * 64 bis w * 64 + 63).
+     * Nebenbei werden die lebenden, geborenen und gestorbenen Zellen der Zeilen gezählt. Wird eine Zeile
+     * in mehreren Teilen berechnet, muss der erste Teil bei Wort 0 beginnen und die weiteren danach folgen.
+     *
+     * @param current   Spielfeld der vorherigen Generation
+     * @param fromRow   erste Zeile
+     * @param toRow     Zeile nach der letzten Zeile
+     * @param fromWord  erstes Wort
+     * @param toWord    Wort nach dem letzten Wort
+     * @param fadeSteps Anzahl Stufen, um welche die Farben verblassen
+     */
+    void updateColors(Board current, int fromRow, int toRow, int fromWord, int toWord, int fadeSteps) {
+        // Musste die aktuelle Generation ganz neu gezeichnet werden, gilt das auch für die nächste
+        allDirty = current.allDirty;
+
+        for (int y = fromRow; y < toRow; y++) {
+            int population = 0;
+            int births = 0;
+            int deaths = 0;
+            long hash = 0;
+            for (int w = fromWord; w < toWord; w++) {
+                int index = y * wordsPerRow + w;
+                int from = y * width + (w << 6);
+                int to = y * width + Math.min(width, (w + 1) << 6);
+
+                population += Long.bitCount(alive[index]);
+                births += Long.bitCount(alive[index] & ~current.alive[index]);
+                deaths += Long.bitCount(current.alive[index] & ~alive[index]);
+                hash ^= hashChange(index, current.alive[index], alive[index]);
+
+                // Veränderte Zellen: neuer Status, andere Farbe oder in der aktuellen Generation noch nicht gezeichnet
+                // (die Farbe lebender Zellen wird nicht angezeigt, sie zählt deshalb nicht)
+                long changed = (current.alive[index] ^ alive[index]) | current.dirty[index];
+                long faded = 0;
+
+                if (fadeSteps > 0) {
+                    // Alle Zellen werden um fadeSteps Stufen älter, bis sie ganz verblasst sind
+                    int steps = Math.min(fadeSteps, MAX_FADE);
+                    for (int i = from; i < to; i++) {
+                        int a = current.age[i];
+                        if (a < MAX_FADE) {
+                            age[i] = (short) Math.min(MAX_FADE, a + steps);
+                            faded |= 1L << (i - from);
+                        } else {
+                            age[i] = (short) MAX_FADE;
+                        }
+                    }
+                } else if (current != this) {
+                    System.arraycopy(current.age, from, age, from, to - from);
+                }
+
+                // Gestorbene Zellen (lebten in current, in der nächsten Generation nicht mehr) bekommen die volle Farbe
+                long died = current.alive[index] & ~alive[index];
+                while (died != 0) {
+                    age[from + Long.numberOfTrailingZeros(died)] = DEAD_AGE;
+                    died &= died - 1;
+                }
+
+                dirty[index] = changed | (faded & ~alive[index]);
+            }
+            countRow(current, y, fromWord, population, births, deaths, hash);
+        }
+    }
+
+    /**
+     * Markiert die Zellen eines Rechtecks, die sich gegenüber der aktuellen Generation unterscheiden,
+     * ohne die Farben zu berechnen (für Bereiche, welche eine Engine unverändert übernimmt und deren tote Zellen
+     * ganz verblasst sind). Die Farbe einer toten Zelle unterscheidet sich dann nur, wenn sie gerade gestorben ist,
+     * deshalb genügt es, die Wörter zu vergleichen. Die Zellen werden wie in updateColors() gezählt.
+     *
+     * @param current  Spielfeld der vorherigen Generation
+     * @param fromRow  erste Zeile
+     * @param toRow    Zeile nach der letzten Zeile
+     * @param fromWord erstes Wort
+     * @param toWord   Wort nach dem letzten Wort
+     */
+    void markChanged(Board current, int fromRow, int toRow, int fromWord, int toWord) {
+        allDirty = current.allDirty;
+
+        for (int y = fromRow; y < toRow; y++) {
+            int population = 0;
+            int births = 0;
+            int deaths = 0;
+            long hash = 0;
+            for (int w = fromWord; w < toWord; w++) {
+                int index = y * wordsPerRow + w;
+
+                population += Long.bitCount(alive[index]);
+                births += Long.bitCount(alive[index] & ~current.alive[index]);
+                deaths += Long.bitCount(current.alive[index] & ~alive[index]);
+                hash ^= hashChange(index, current.alive[index], alive[index]);
+
+                dirty[index] = (current.alive[index] ^ alive[index]) | current.dirty[index];
+            }
+            countRow(current, y, fromWord, population, births, deaths, hash);
+        }
+    }
+
+    /**
+     * Speichert die gezählten Zellen eines Teils einer Zeile. Der Teil ab Wort 0 ersetzt die Werte
+     * des letzten Schrittes, die weiteren Teile werden dazugezählt. Der Hash der Zeile entsteht aus dem
+     * Hash der vorherigen Generation und den Änderungen der veränderten Wörter.
+     */
+    private void countRow(Board current, int y, int fromWord, int population, int births, int deaths, long hash) {
+        if (fromWord == 0) {
+            rowPopulation[y] = population;
+            rowBirths[y] = births;
+            rowDeaths[y] = deaths;
+            rowHash[y] = current.rowHash[y] ^ hash;
+        } else {
+            rowPopulation[y] += population;
+            rowBirths[y] += births;
+            rowDeaths[y] += deaths;
+            rowHash[y] ^= hash;
+        }
+    }
+
+    /**
+     * Hash eines Wortes des Bitfeldes (ähnlich Zobrist Hashing, aber pro Wort statt pro Zelle und ohne Tabelle).
+     * Ein leeres Wort hat den Hash 0, der Hash des Spielfeldes hängt also nur von den lebenden Zellen ab.
+     *
+     * @param index Index im Bitfeld
+     * @param word  Status der 64 Zellen
+     * @return Hash des Wortes an dieser Stelle
+     */
+    static long wordHash(int index, long word) {
+        if (word == 0) {
+            return 0;
+        }
+        // Finalizer von MurmurHash3, verteilt jedes Bit von Wort und Index auf alle Bits
+        long h = word + (index + 1) * 0x9E3779B97F4A7C15L;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * @return Änderung des Hashes, wenn das Wort am Index von before zu after wechselt (0 für unveränderte Wörter)
+     */
+    private static long hashChange(int index, long before, long after) {
+        return before == after ? 0 : wordHash(index, before) ^ wordHash(index, after);
+    }
+
+    private long hashRow(int y) {
+        long hash = 0;
+        for (int i = y * wordsPerRow; i < (y + 1) * wordsPerRow; i++) {
+            hash ^= wordHash(i, alive[i]);
+        }
+        return hash;
+    }
+
+    /**
+     * @param x Spalte der Zelle
+     * @param y Zeile der Zelle
+     * @return Boolean, ob die Zelle lebt
+     */
+    public boolean isAlive(int x, int y) {
+        return (alive[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    /**
+     * Belebt eine Zelle. Die Farbe bleibt dabei erhalten.
+     *
+     * @param x Spalte der Zelle
+     * @param y Zeile der Zelle
+     */
+    public void revive(int x, int y) {
+        modCount++;
+        int index = y * wordsPerRow + (x >>> 6);
+        if (!isAlive(x, y)) {
+            rowPopulation[y]++;
+            rowHash[y] ^= hashChange(index, alive[index], alive[index] | 1L << x);
+        }
+        alive[index] |= 1L << x;
+        dirty[index] |= 1L << x;
+    }
+
+    /**
+     * Belebt mehrere Zellen einer Zeile auf einmal (wortweise im Bitfeld). Die Farben bleiben dabei erhalten.
+     * Zellen ausserhalb des Spielfeldes werden ignoriert.
+     *
+     * @param x      Spalte der ersten Zelle (darf ausserhalb des Spielfeldes liegen)
+     * @param y      Zeile der Zellen (darf ausserhalb des Spielfeldes liegen)
+     * @param length Anzahl Zellen
+     */
+    public void reviveRun(int x, int y, int length) {
+        int from = Math.max(0, x);
+        int to = (int) Math.min(width, (long) x + length);
+        if (y < 0 || y >= height || from >= to) {
+            return;
+        }
+        modCount++;
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        for (int w = firstWord; w <= lastWord; w++) {
+            long mask = -1L;
+            if (w == firstWord) {
+                mask &= -1L << from;
+            }
+            if (w == lastWord) {
+                mask &= -1L >>> (63 - ((to - 1) & 63));
+            }
+            int index = y * wordsPerRow + w;
+            long added = mask & ~alive[index];
+            rowHash[y] ^= hashChange(index, alive[index], alive[index] | mask);
+            alive[index] |= mask;
+            dirty[index] |= added;
+            rowPopulation[y] += Long.bitCount(added);
+        }
+    }
+
+    /**
+     * Tötet eine Zelle und setzt ihre Farbe zurück.
+     *
+     * @param x Spalte der Zelle
+     * @param y Zeile der Zelle
+     */
+    public void kill(int x, int y) {
+        modCount++;
+        int index = y * wordsPerRow + (x >>> 6);
+        if (isAlive(x, y)) {
+            rowPopulation[y]--;
+            rowHash[y] ^= hashChange(index, alive[index], alive[index] & ~(1L << x));
+        }
+        alive[index] &= ~(1L << x);
+        dirty[index] |= 1L << x;
+        age[y * width + x] = DEAD_AGE;
+    }
+
+    /**
+     * @param x Spalte der Zelle
+     * @param y Zeile der Zelle
+     * @return Anzahl Farbstufen, um welche die Zelle verblasst ist (DEAD_AGE - MAX_FADE)
+     */
+    public int getAge(int x, int y) {
+        return age[y * width + x];
+    }
+
+    /**
+     * Zählt die lebenden Zellen im ganzen Bitfeld. Meistens reicht getPopulation(), welches die beim
+     * Berechnen der Generation gezählten Zellen zusammenzählt.
+     *
+     * @return Die Anzahl lebender Zellen
+     */
+    public int countAlive() {
+        int count = 0;
+        for (int i = 0; i < getWordCount(); i++) {
+            count += Long.bitCount(alive[i]);
+        }
+        return count;
+    }
+
+    /**
+     * @return Anzahl long Werte im ganzen Bitfeld
+     */
+    public int getWordCount() {
+        return wordsPerRow * height;
+    }
+
+    /**
+     * @param index Index im Bitfeld (y * Wörter pro Zeile + x / 64)
+     * @return Status von 64 Zellen einer Zeile, Bit x % 64 für die Spalte x
+     */
+    public long getWord(int index) {
+        return alive[index];
+    }
+
+    /**
+     * Setzt den Status von 64 Zellen einer Zeile auf einmal. Die Farben bleiben dabei erhalten.
+     * Bits ausserhalb des Spielfeldes (im letzten Wort einer Zeile) müssen 0 sein.
+     *
+     * @param index Index im Bitfeld (y * Wörter pro Zeile + x / 64)
+     * @param word  Status der 64 Zellen
+     */
+    public void setWord(int index, long word) {
+        modCount++;
+        dirty[index] |= alive[index] ^ word;
+        rowPopulation[index / wordsPerRow] += Long.bitCount(word) - Long.bitCount(alive[index]);
+        rowHash[index / wordsPerRow] ^= hashChange(index, alive[index], word);
+        alive[index] = word;
+    }
+
+    /**
+     * Schreibt das ganze Bitfeld (getWordCount() Werte, Zeile für Zeile) in einen Buffer.
+     *
+     * @param target Buffer mit mindestens getWordCount() freien Plätzen
+     */
+    public void getWords(LongBuffer target) {
+        target.put(alive, 0, getWordCount());
+    }
+
+    /**
+     * Übernimmt das ganze Bitfeld aus einem Buffer (z.B. beim Laden eines Snapshots). Die Farben bleiben
+     * erhalten, die lebenden Zellen werden neu gezählt und das ganze Spielfeld wird neu gezeichnet.
+     * Bits ausserhalb des Spielfeldes werden ignoriert.
+     *
+     * @param source Buffer mit mindestens getWordCount() Werten
+     */
+    public void setWords(LongBuffer source) {
+        modCount++;
+        allDirty = true;
+        source.get(alive, 0, getWordCount());
+        for (int y = 0; y < height; y++) {
+            int last = y * wordsPerRow + wordsPerRow - 1;
+            alive[last] &= lastWordMask;
+            int population = 0;
+            for (int i = y * wordsPerRow; i <= last; i++) {
+                population += Long.bitCount(alive[i]);
+            }
+            rowPopulation[y] = population;
+            rowHash[y] = hashRow(y);
+        }
+        Arrays.fill(rowBirths, 0);
+        Arrays.fill(rowDeaths, 0);
+    }
+
+    /**
+     * Kopiert das Alter aller Zellen in das übergebene Array (Index y * width + x).
+     *
+     * @param ages Array für das Alter, mindestens width * height gross
+     */
+    public void getAges(short[] ages) {
+        System.arraycopy(age, 0, ages, 0, width * height);
+    }
+
+    /**
+     * Übernimmt das Alter aller Zellen aus dem übergebenen Array (Index y * width + x).
+     * Werte ausserhalb von DEAD_AGE - MAX_FADE werden begrenzt.
+     *
+     * @param ages Alter aller Zellen
+     */
+    public void setAges(short[] ages) {
+        modCount++;
+        allDirty = true;
+        for (int i = 0; i < width * height; i++) {
+            age[i] = (short) Math.max(DEAD_AGE, Math.min(MAX_FADE, ages[i]));
+        }
+    }
+
+    /**
+     * @param other Spielfeld gleicher Grösse
+     * @return Boolean, ob alle Zellen die gleiche Farbe wie im anderen Spielfeld haben
+     */
+    public boolean hasSameColors(Board other) {
+        int cells = width * height;
+        return other.width == width && other.height == height && Arrays.equals(age, 0, cells, other.age, 0, cells);
+    }
+
+    /**
+     * @param index Index im Bitfeld (y * Wörter pro Zeile + x / 64)
+     * @return Zellen der 64 Spalten, die sich seit dem letzten Zeichnen verändert haben
+     */
+    public long getDirtyWord(int index) {
+        return dirty[index];
+    }
+
+    /**
+     * @return Boolean, ob das ganze Spielfeld neu gezeichnet werden muss (z.B. nach dem Laden einer Generation)
+     */
+    public boolean isAllDirty() {
+        return allDirty;
+    }
+
+    /**
+     * Markiert alle Zellen als gezeichnet.
+     */
+    public void clearDirty() {
+        Arrays.fill(dirty, 0, getWordCount(), 0);
+        allDirty = false;
+    }
+
+    /**
+     * @return Anzahl lebender Zellen (wird beim Berechnen und Bearbeiten mitgezählt)
+     */
+    public int getPopulation() {
+        return sum(rowPopulation, height);
+    }
+
+    /**
+     * @return Anzahl Zellen, die im letzten Schritt geboren wurden
+     */
+    public int getBirths() {
+        return sum(rowBirths, height);
+    }
+
+    /**
+     * @return Anzahl Zellen, die im letzten Schritt gestorben sind
+     */
+    public int getDeaths() {
+        return sum(rowDeaths, height);
+    }
+
+    /**
+     * Hash der lebenden Zellen. Zwei Spielfelder mit den gleichen lebenden Zellen haben den gleichen Hash
+     * (die Farben zählen nicht), unterschiedliche fast sicher nicht. Der Hash wird beim Berechnen und Bearbeiten
+     * nur für die veränderten Wörter nachgeführt, hier werden nur die Zeilen zusammengefasst.
+     *
+     * @return Hash der lebenden Zellen
+     */
+    public long getHash() {
+        long hash = 0;
+        for (int y = 0; y < height; y++) {
+            hash ^= rowHash[y];
+        }
+        return hash;
+    }
+
+    private static int sum(int[] rows, int height) {
+        int sum = 0;
+        for (int y = 0; y < height; y++) {
+            sum += rows[y];
+        }
+        return sum;
+    }
+
+    /**
+     * @return Nummer der Generation, die in diesem Spielfeld gespeichert ist
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @param generation Nummer der Generation, die in diesem Spielfeld gespeichert ist
+     */
+    public void setGeneration(long generation) {
+        this.generation = generation;
+    }
+
+    /**
+     * @return Zähler, der bei jeder Änderung von aussen erhöht wird (zum Erkennen von Änderungen)
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * @return Anzahl Spalten
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return Anzahl Zeilen
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return Anzahl long Werte pro Zeile im Bitfeld
+     */
+    public int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    /**
+     * @return Zeile, in der alle Zellen tot sind (darf nicht verändert werden)
+     */
+    long[] getEmptyRow() {
+        return emptyRow;
+    }
+
+    /**
+     * @return Maske für das letzte Wort einer Zeile
+     */
+    long getLastWordMask() {
+        return lastWordMask;
+    }
+}
@@ -0,0 +1,101 @@
+package engine;
+
+/**
+ * Verhalten am Rand des Spielfeldes: welche Zellen die Nachbaren ausserhalb des Spielfeldes sind.
+ * Die Engines lesen die Nachbaren ausserhalb aus einem Rand (Halo) von einer Zeile bzw. Spalte rund um das
+ * Spielfeld, der einmal pro Zeile aus den Zellen am Rand zusammengesetzt wird. So braucht die innere Schleife
+ * keine Prüfung, ob ein Nachbar noch im Spielfeld liegt.
+ *
+ * Gilt nur für die Engines mit einem begrenzten Spielfeld (Scalar, Bit, Parallel, Tiles). HashLife und
+ * SparseEngine rechnen mit einem unbegrenzten Universum und haben keinen Rand.
+ */
+public enum Boundary {
+    // Zellen ausserhalb des Spielfeldes sind immer tot
+    DEAD("Dead"),
+    // Das Spielfeld ist ein Torus: rechts geht es links weiter, unten oben
+    TORUS("Torus"),
+    // Der Rand wird gespiegelt: der Nachbar ausserhalb ist die Zelle am Rand selbst
+    MIRROR("Mirror");
+
+    private final String label;
+
+    Boundary(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @param y      Zeile innerhalb oder direkt ausserhalb des Spielfeldes (-1 bis height)
+     * @param height Anzahl Zeilen des Spielfeldes
+     * @return Zeile des Spielfeldes, welche als Zeile y gilt, oder -1, wenn sie leer ist
+     */
+    public int row(int y, int height) {
+        return y >= 0 && y < height ? y : outside(y, height);
+    }
+
+    /**
+     * @param x     Spalte innerhalb oder direkt ausserhalb des Spielfeldes (-1 bis width)
+     * @param width Anzahl Spalten des Spielfeldes
+     * @return Spalte des Spielfeldes, welche als Spalte x gilt, oder -1, wenn sie leer ist
+     */
+    public int column(int x, int width) {
+        return x >= 0 && x < width ? x : outside(x, width);
+    }
+
+    /**
+     * @param index Zeile bzw. Spalte direkt ausserhalb des Spielfeldes (-1 oder size)
+     * @param size  Anzahl Zeilen bzw. Spalten des Spielfeldes
+     * @return Zeile bzw. Spalte des Spielfeldes, die an ihrer Stelle gilt, oder -1, wenn sie leer ist
+     */
+    private int outside(int index, int size) {
+        switch (this) {
+            case TORUS:
+                return index < 0 ? size - 1 : 0;
+            case MIRROR:
+                return index < 0 ? 0 : size - 1;
+            case DEAD:
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Setzt die Spalte links des Spielfeldes (-1) für eine Zeile des Bitfeldes zusammen.
+     *
+     * @param words  Bitfeld
+     * @param offset Index des ersten Wortes der Zeile
+     * @param width  Anzahl Spalten des Spielfeldes
+     * @return Wort, dessen höchstes Bit die Zelle links des Spielfeldes ist (die anderen Bits sind 0)
+     */
+    long leftHalo(long[] words, int offset, int width) {
+        int x = column(-1, width);
+        return x < 0 ? 0 : (words[offset + (x >>> 6)] >>> x) << 63;
+    }
+
+    /**
+     * Setzt die Spalte rechts des Spielfeldes (width) für eine Zeile des Bitfeldes zusammen.
+     *
+     * @param words  Bitfeld
+     * @param offset Index des ersten Wortes der Zeile
+     * @param width  Anzahl Spalten des Spielfeldes
+     * @return 1, wenn die Zelle rechts des Spielfeldes lebt, sonst 0
+     */
+    long rightHalo(long[] words, int offset, int width) {
+        int x = column(width, width);
+        return x < 0 ? 0 : (words[offset + (x >>> 6)] >>> x) & 1;
+    }
+
+    /**
+     * @return Der nächste Rand in der Aufzählung (nach dem letzten kommt wieder der erste)
+     */
+    public Boundary next() {
+        Boundary[] boundaries = values();
+        return boundaries[(ordinal() + 1) % boundaries.length];
+    }
+
+    /**
+     * @return Name des Randes für die Anzeige
+     */
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,157 @@
+package engine;
+
+import java.util.Arrays;
+
+/**
+ * Hashtabelle von Chunk Koordinaten (als long zusammengesetzt) auf Chunks.
+ * Die Schlüssel werden direkt in einem long Array gespeichert (offene Adressierung mit linearem Sondieren),
+ * so wird beim Suchen und Einfügen kein Objekt für den Schlüssel angelegt.
+ * Die Tabelle wird verdoppelt, wenn sie halb voll ist, und halbiert, wenn weniger als ein Achtel belegt ist.
+ */
+class ChunkMap {
+    // Schlüssel für einen freien Platz (entspricht keiner gültigen Koordinate, die vorkommen kann)
+    private static final long FREE = Long.MIN_VALUE;
+    // Kleinste Grösse der Tabelle
+    private static final int MIN_CAPACITY = 64;
+
+    private long[] keys;
+    private SparseEngine.Chunk[] values;
+    private int size;
+
+    ChunkMap() {
+        keys = new long[MIN_CAPACITY];
+        values = new SparseEngine.Chunk[MIN_CAPACITY];
+        Arrays.fill(keys, FREE);
+    }
+
+    /**
+     * @param chunkX X Koordinate des Chunks
+     * @param chunkY Y Koordinate des Chunks
+     * @return Schlüssel für die Koordinaten
+     */
+    static long key(int chunkX, int chunkY) {
+        return ((long) chunkY << 32) | (chunkX & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param key Schlüssel des Chunks
+     * @return Der Chunk oder null, wenn es ihn nicht gibt
+     */
+    SparseEngine.Chunk get(long key) {
+        int mask = keys.length - 1;
+        for (int i = index(key, mask); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                return values[i];
+            }
+            if (k == FREE) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Fügt einen Chunk ein (oder ersetzt den bisherigen mit dem gleichen Schlüssel).
+     *
+     * @param key   Schlüssel des Chunks
+     * @param chunk Chunk
+     */
+    void put(long key, SparseEngine.Chunk chunk) {
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        while (keys[i] != FREE && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == FREE) {
+            size++;
+        }
+        keys[i] = key;
+        values[i] = chunk;
+    }
+
+    /**
+     * Entfernt einen Chunk. Die nachfolgenden Einträge werden zurückgeschoben, damit keine Lücken entstehen.
+     *
+     * @param key Schlüssel des Chunks
+     */
+    void remove(long key) {
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        while (keys[i] != key) {
+            if (keys[i] == FREE) {
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        size--;
+
+        // Nachfolgende Einträge, die wegen diesem Platz weiter hinten liegen, nachrücken lassen
+        int gap = i;
+        for (int j = (gap + 1) & mask; keys[j] != FREE; j = (j + 1) & mask) {
+            int home = index(keys[j], mask);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = FREE;
+        values[gap] = null;
+
+        if (size * 8 < keys.length && keys.length > MIN_CAPACITY) {
+            rehash(keys.length / 2);
+        }
+    }
+
+    /**
+     * Entfernt alle Chunks. Die Tabelle bekommt wieder die kleinste Grösse.
+     */
+    void clear() {
+        if (keys.length > MIN_CAPACITY) {
+            keys = new long[MIN_CAPACITY];
+            values = new SparseEngine.Chunk[MIN_CAPACITY];
+            Arrays.fill(keys, FREE);
+        } else {
+            Arrays.fill(keys, FREE);
+            Arrays.fill(values, null);
+        }
+        size = 0;
+    }
+
+    /**
+     * @return Anzahl Chunks
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Legt die Tabelle in einer neuen Grösse an und fügt alle Chunks wieder ein.
+     *
+     * @param capacity Neue Grösse (Zweierpotenz)
+     */
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        SparseEngine.Chunk[] oldValues = values;
+        keys = new long[capacity];
+        values = new SparseEngine.Chunk[capacity];
+        Arrays.fill(keys, FREE);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * @return Startposition für einen Schlüssel
+     */
+    private static int index(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
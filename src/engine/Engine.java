@@ -0,0 +1,56 @@
+package engine;
+
+/**
+ * Schnittstelle für alle Verfahren, welche die nächste Generation berechnen.
+ * Die meisten Engines können einen Bereich von Zeilen berechnen (siehe supportsRowBands()), so können mehrere
+ * Threads verschiedene Zeilen der gleichen Generation gleichzeitig berechnen.
+ */
+public interface Engine extends AutoCloseable {
+
+    /**
+     * Berechnet die nächste Generation (Status und Farbe aller Zellen).
+     * Die aktuelle Generation wird dabei nur gelesen.
+     *
+     * @param current Spielfeld der aktuellen Generation
+     * @param next    Spielfeld gleicher Grösse, in welches die nächste Generation geschrieben wird
+     * @param fade    Boolean, ob die Farben in diesem Schritt verblassen
+     */
+    default void step(Board current, Board next, boolean fade) {
+        stepRows(current, next, 0, current.getHeight(), fade);
+    }
+
+    /**
+     * Berechnet die Zeilen fromRow bis toRow (exklusive) der nächsten Generation.
+     * Es wird nur in diese Zeilen von next geschrieben, current wird nur gelesen.
+     * Eine Engine, die keine Bänder berechnen kann (siehe supportsRowBands()), berechnet immer das ganze Spielfeld.
+     *
+     * @param current Spielfeld der aktuellen Generation
+     * @param next    Spielfeld gleicher Grösse, in welches die nächste Generation geschrieben wird
+     * @param fromRow erste Zeile
+     * @param toRow   Zeile nach der letzten Zeile
+     * @param fade    Boolean, ob die Farben in diesem Schritt verblassen
+     */
+    void stepRows(Board current, Board next, int fromRow, int toRow, boolean fade);
+
+    /**
+     * @return Boolean, ob die Engine einzelne Bänder von Zeilen berechnen kann, auch gleichzeitig aus mehreren
+     * Threads (Engines mit Zustand über das ganze Spielfeld wie Kacheln oder Quadtrees können das nicht)
+     */
+    default boolean supportsRowBands() {
+        return true;
+    }
+
+    /**
+     * @return Kurzer Zustand der Engine für die Anzeige (z.B. Anteil berechneter Kacheln) oder null
+     */
+    default String getStatus() {
+        return null;
+    }
+
+    /**
+     * Gibt die Ressourcen der Engine (z.B. Threads) wieder frei.
+     */
+    @Override
+    default void close() {
+    }
+}
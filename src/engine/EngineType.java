@@ -0,0 +1,141 @@
+package engine;
+
+/**
+ * Auswahl, mit welchem Verfahren die nächste Generation berechnet wird.
+ */
+public enum EngineType {
+    // Jede Zelle zählt ihre Nachbaren einzeln (ScalarEngine)
+    SCALAR("Scalar"),
+    // 64 Zellen pro long, Nachbaren werden bitweise gezählt (BitEngine)
+    BIT("Bit"),
+    // BitEngine auf mehrere Threads verteilt, jeder Thread berechnet ein Band von Zeilen (ParallelEngine)
+    PARALLEL("Parallel"),
+    // BitEngine, welche stabile Kacheln des Spielfeldes überspringt (TileEngine)
+    TILE("Tiles"),
+    // Quadtree mit gespeicherten Resultaten, kann viele Generationen auf einmal überspringen (HashLife)
+    HASHLIFE("HashLife"),
+    // Unbegrenztes Universum aus Chunks von 64x64 Zellen, nur belebte Chunks werden gespeichert (SparseEngine)
+    SPARSE("Sparse"),
+    // Wie BIT, aber mehrere Wörter gleichzeitig mit der Vector API (VectorEngine in src-vector/). Braucht Java 17+
+    // und --add-modules jdk.incubator.vector, sonst wird mit der BitEngine gerechnet
+    VECTOR("Vector");
+
+    // Name der Klasse, die nur mit dem Maven Profil "vector" kompiliert wird
+    private static final String VECTOR_ENGINE = "engine.VectorEngine";
+    // Grund, weshalb die VectorEngine nicht geladen werden konnte (wird nur einmal ausgegeben)
+    private static String vectorUnavailable;
+
+    // Anzahl Threads für PARALLEL, kann mit -Dgol.threads=N festgelegt werden (Standard: Anzahl Prozessoren)
+    private static int threads = Integer.getInteger("gol.threads", Runtime.getRuntime().availableProcessors());
+
+    private final String label;
+
+    EngineType(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return Eine neue Instanz der Engine dieses Typs für Game of Life (B3/S23)
+     */
+    public Engine create() {
+        return create(Rule.LIFE);
+    }
+
+    /**
+     * @param rule Regel, nach der die Engine rechnet
+     * @return Eine neue Instanz der Engine dieses Typs mit toten Zellen ausserhalb des Spielfeldes
+     */
+    public Engine create(Rule rule) {
+        return create(rule, Boundary.DEAD);
+    }
+
+    /**
+     * @param rule     Regel, nach der die Engine rechnet
+     * @param boundary Verhalten am Rand des Spielfeldes (HashLife und Sparse haben keinen Rand, siehe isBounded())
+     * @return Eine neue Instanz der Engine dieses Typs
+     */
+    public Engine create(Rule rule, Boundary boundary) {
+        switch (this) {
+            case SCALAR:
+                return new ScalarEngine(rule, boundary);
+            case PARALLEL:
+                return new ParallelEngine(new BitEngine(rule, boundary), threads);
+            case TILE:
+                return new TileEngine(rule, boundary);
+            case HASHLIFE:
+                return new HashLife(rule);
+            case SPARSE:
+                return new SparseEngine(rule);
+            case VECTOR:
+                return createVector(rule, boundary);
+            case BIT:
+            default:
+                return new BitEngine(rule, boundary);
+        }
+    }
+
+    /**
+     * Lädt die VectorEngine über Reflection, weil sie nicht mit den übrigen Quellen kompiliert wird.
+     * Fehlt die Klasse oder das Modul jdk.incubator.vector, wird mit der BitEngine gerechnet.
+     */
+    private static Engine createVector(Rule rule, Boundary boundary) {
+        try {
+            return (Engine) Class.forName(VECTOR_ENGINE).getConstructor(Rule.class, Boundary.class)
+                    .newInstance(rule, boundary);
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            synchronized (EngineType.class) {
+                if (vectorUnavailable == null) {
+                    vectorUnavailable = ex.toString();
+                    System.err.println("VectorEngine nicht verfügbar, es wird mit der BitEngine gerechnet: " + vectorUnavailable);
+                }
+            }
+            return new BitEngine(rule, boundary) {
+                @Override
+                public String getStatus() {
+                    return "(Bit)";
+                }
+            };
+        }
+    }
+
+    /**
+     * @return Boolean, ob die Engine mit einem begrenzten Spielfeld rechnet (und der Rand eine Rolle spielt)
+     */
+    public boolean isBounded() {
+        return this != HASHLIFE && this != SPARSE;
+    }
+
+    /**
+     * @return Die nächste Engine in der Aufzählung (nach der letzten kommt wieder die erste)
+     */
+    public EngineType next() {
+        EngineType[] types = values();
+        return types[(ordinal() + 1) % types.length];
+    }
+
+    /**
+     * Legt fest, mit wie vielen Threads die parallele Engine rechnet (gilt für neu erstellte Engines).
+     *
+     * @param threads Anzahl Threads (mindestens 1)
+     */
+    public static void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Anzahl Threads muss mindestens 1 sein: " + threads);
+        }
+        EngineType.threads = threads;
+    }
+
+    /**
+     * @return Anzahl Threads für die parallele Engine
+     */
+    public static int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @return Name der Engine für die Anzeige
+     */
+    public String getLabel() {
+        return label;
+    }
+}
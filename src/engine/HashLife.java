@@ -0,0 +1,547 @@
+package engine;
+
+import java.util.Arrays;
+
+/**
+ * Engine nach dem HashLife Verfahren (Bill Gosper).
+ * Das Universum wird als Quadtree gespeichert, gleiche Teilbäume gibt es nur einmal (kanonische Knoten
+ * in einer Hashtabelle). Jeder Knoten merkt sich das Resultat (das Zentrum nach 2^j Generationen),
+ * deshalb müssen sich wiederholende Muster nur einmal berechnet werden. So können sehr viele
+ * Generationen in logarithmischer Zeit übersprungen werden (siehe advance()).
+ *
+ * Im Gegensatz zu den anderen Engines ist das Universum unbegrenzt: Zellen können das Spielfeld
+ * verlassen und werden ausserhalb weiter berechnet, auf dem Spielfeld sieht man aber nur den Ausschnitt.
+ * Muster, die den Rand berühren, entwickeln sich deshalb anders als mit den anderen Engines.
+ */
+public class HashLife implements Engine {
+    // Ab dieser Anzahl Knoten werden alle nicht mehr erreichbaren Knoten und Resultate verworfen
+    private static final int MAX_NODES = 1 << 21;
+    // Grösster Level des Wurzelknotens, damit die Koordinaten in einem long Platz haben
+    private static final int MAX_LEVEL = 62;
+
+    /**
+     * Knoten des Quadtrees. Ein Knoten mit Level k ist ein Quadrat mit 2^k x 2^k Zellen.
+     * Knoten mit Level 0 sind einzelne Zellen (lebend oder tot).
+     */
+    private static final class Node {
+        final Node nw;
+        final Node ne;
+        final Node sw;
+        final Node se;
+        final int level;
+        final long population;
+        final int hash;
+
+        // Nächster Knoten in der gleichen Zeile der Hashtabelle
+        Node nextInBucket;
+        // Zentrum dieses Knotens nach 2^resultStep Generationen
+        Node result;
+        int resultStep = -1;
+        // Markierung beim Aufräumen der Hashtabelle
+        int mark;
+
+        Node(int population) {
+            this.nw = null;
+            this.ne = null;
+            this.sw = null;
+            this.se = null;
+            this.level = 0;
+            this.population = population;
+            this.hash = population;
+        }
+
+        Node(Node nw, Node ne, Node sw, Node se, int hash) {
+            this.nw = nw;
+            this.ne = ne;
+            this.sw = sw;
+            this.se = se;
+            this.level = nw.level + 1;
+            this.population = nw.population + ne.population + sw.population + se.population;
+            this.hash = hash;
+        }
+    }
+
+    // Regel für die Knoten mit Level 2, alle grösseren Knoten setzen sich daraus zusammen
+    private final Rule rule;
+
+    private final Node deadCell = new Node(0);
+    private final Node aliveCell = new Node(1);
+    // Leere Knoten für jeden Level
+    private final Node[] emptyNodes = new Node[MAX_LEVEL + 2];
+    // Alle Knoten mit Level 2 (4x4 Zellen), Index ist die Bitmaske der 16 Zellen (Bit Zeile * 4 + Spalte)
+    private Node[] level2Nodes = new Node[1 << 16];
+
+    private Node[] table = new Node[1 << 16];
+    private int nodeCount;
+    private int currentMark;
+
+    private Node root;
+    // Koordinate der Zelle (0, 0) des Spielfeldes im Universum, der Wurzelknoten ist um (0, 0) zentriert
+    private long originX;
+    private long originY;
+
+    // Spielfeld, welches zuletzt geschrieben wurde; ist es seither unverändert, muss es nicht neu gelesen werden
+    private Board syncedBoard;
+    private int syncedModCount;
+
+    private long hits;
+    private long misses;
+
+    /**
+     * Konstruktor der Engine für Game of Life (B3/S23).
+     */
+    public HashLife() {
+        this(Rule.LIFE);
+    }
+
+    /**
+     * @param rule Regel, nach der die nächste Generation berechnet wird
+     */
+    public HashLife(Rule rule) {
+        this.rule = rule;
+    }
+
+    @Override
+    public boolean supportsRowBands() {
+        return false;
+    }
+
+    @Override
+    public void stepRows(Board current, Board next, int fromRow, int toRow, boolean fade) {
+        // Der Quadtree enthält immer das ganze Spielfeld
+        step(current, next, fade);
+    }
+
+    @Override
+    public void step(Board current, Board next, boolean fade) {
+        advance(current, next, 1, fade);
+    }
+
+    /**
+     * Springt um eine beliebige Anzahl Generationen vorwärts.
+     * Die Anzahl wird in Zweierpotenzen zerlegt, jede Zweierpotenz 2^j wird mit einem einzigen
+     * Aufruf von successor() auf dem Wurzelknoten berechnet.
+     *
+     * @param current     Spielfeld der aktuellen Generation
+     * @param next        Spielfeld gleicher Grösse, in welches das Resultat geschrieben wird
+     * @param generations Anzahl Generationen (mindestens 0)
+     * @param fade        Boolean, ob die Farben in diesen Generationen verblassen
+     */
+    public void advance(Board current, Board next, long generations, boolean fade) {
+        if (generations < 0) {
+            throw new IllegalArgumentException("Anzahl Generationen darf nicht negativ sein: " + generations);
+        }
+        if (current != syncedBoard || current.getModCount() != syncedModCount || root == null) {
+            load(current);
+        }
+
+        for (int j = 0; j < 63; j++) {
+            if ((generations & (1L << j)) == 0) {
+                continue;
+            }
+            // Das Muster muss im inneren Viertel liegen, damit es sich um 2^j Zellen ausbreiten kann
+            while (root.level < j + 2 || !isPadded(root)) {
+                expandRoot();
+            }
+            expandRoot();
+            root = successor(root, j);
+        }
+
+        store(next);
+        next.updateColors(current, 0, current.getHeight(), fade ? (int) Math.min(generations, Integer.MAX_VALUE) : 0);
+
+        syncedBoard = next;
+        syncedModCount = next.getModCount();
+
+        if (nodeCount > MAX_NODES) {
+            collectGarbage();
+        }
+    }
+
+    /**
+     * Berechnet das Zentrum eines Knotens (Level k - 1) nach 2^j Generationen.
+     * Das Resultat wird im Knoten gespeichert und beim nächsten Aufruf mit dem gleichen j wiederverwendet.
+     *
+     * @param node Knoten mit Level k (mindestens 2)
+     * @param j    Zweierlogarithmus der Anzahl Generationen (höchstens k - 2)
+     * @return Zentrum des Knotens nach 2^j Generationen
+     */
+    private Node successor(Node node, int j) {
+        if (node.population == 0) {
+            return empty(node.level - 1);
+        }
+        if (node.result != null && node.resultStep == j) {
+            hits++;
+            return node.result;
+        }
+        misses++;
+
+        Node result;
+        if (node.level == 2) {
+            result = stepLevel2(node);
+        } else {
+            // Neun überlappende Teilknoten mit Level k - 1
+            Node n00 = node.nw;
+            Node n01 = join(node.nw.ne, node.ne.nw, node.nw.se, node.ne.sw);
+            Node n02 = node.ne;
+            Node n10 = join(node.nw.sw, node.nw.se, node.sw.nw, node.sw.ne);
+            Node n11 = join(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+            Node n12 = join(node.ne.sw, node.ne.se, node.se.nw, node.se.ne);
+            Node n20 = node.sw;
+            Node n21 = join(node.sw.ne, node.se.nw, node.sw.se, node.se.sw);
+            Node n22 = node.se;
+
+            Node r00, r01, r02, r10, r11, r12, r20, r21, r22;
+            int nextStep;
+            if (j == node.level - 2) {
+                // Volle Geschwindigkeit: beide Hälften rücken je um 2^(k - 3) Generationen vor
+                nextStep = j - 1;
+                r00 = successor(n00, nextStep);
+                r01 = successor(n01, nextStep);
+                r02 = successor(n02, nextStep);
+                r10 = successor(n10, nextStep);
+                r11 = successor(n11, nextStep);
+                r12 = successor(n12, nextStep);
+                r20 = successor(n20, nextStep);
+                r21 = successor(n21, nextStep);
+                r22 = successor(n22, nextStep);
+            } else {
+                // Kleinerer Schritt: zuerst nur das Zentrum nehmen, erst danach um 2^j vorrücken
+                nextStep = j;
+                r00 = center(n00);
+                r01 = center(n01);
+                r02 = center(n02);
+                r10 = center(n10);
+                r11 = center(n11);
+                r12 = center(n12);
+                r20 = center(n20);
+                r21 = center(n21);
+                r22 = center(n22);
+            }
+
+            result = join(
+                    successor(join(r00, r01, r10, r11), nextStep),
+                    successor(join(r01, r02, r11, r12), nextStep),
+                    successor(join(r10, r11, r20, r21), nextStep),
+                    successor(join(r11, r12, r21, r22), nextStep));
+        }
+
+        node.result = result;
+        node.resultStep = j;
+        return result;
+    }
+
+    /**
+     * Berechnet für einen Knoten mit 4x4 Zellen die inneren 2x2 Zellen der nächsten Generation.
+     *
+     * @param node Knoten mit Level 2
+     * @return Knoten mit Level 1
+     */
+    private Node stepLevel2(Node node) {
+        int mask = level2Mask(node);
+        int nw = nextCell(mask, 1, 1);
+        int ne = nextCell(mask, 2, 1);
+        int sw = nextCell(mask, 1, 2);
+        int se = nextCell(mask, 2, 2);
+        return join(cell(nw), cell(ne), cell(sw), cell(se));
+    }
+
+    /**
+     * @param mask Bitmaske der 4x4 Zellen (Bit Zeile * 4 + Spalte)
+     * @param x    Spalte der Zelle (1 oder 2)
+     * @param y    Zeile der Zelle (1 oder 2)
+     * @return 1, wenn die Zelle in der nächsten Generation lebt, sonst 0
+     */
+    private int nextCell(int mask, int x, int y) {
+        // Die drei Zeilen der 3x3 Nachbarschaft aus der 4x4 Maske zusammensetzen und in der Tabelle der Regel nachschlagen
+        int pattern = 0;
+        for (int dy = 0; dy < 3; dy++) {
+            pattern |= ((mask >>> ((y - 1 + dy) * 4 + x - 1)) & 7) << (dy * 3);
+        }
+        return rule.isAliveNext(pattern) ? 1 : 0;
+    }
+
+    /**
+     * @param node Knoten mit Level 2
+     * @return Bitmaske der 4x4 Zellen (Bit Zeile * 4 + Spalte)
+     */
+    private static int level2Mask(Node node) {
+        return (int) (node.nw.nw.population | node.nw.ne.population << 1 | node.ne.nw.population << 2 | node.ne.ne.population << 3
+                | node.nw.sw.population << 4 | node.nw.se.population << 5 | node.ne.sw.population << 6 | node.ne.se.population << 7
+                | node.sw.nw.population << 8 | node.sw.ne.population << 9 | node.se.nw.population << 10 | node.se.ne.population << 11
+                | node.sw.sw.population << 12 | node.sw.se.population << 13 | node.se.sw.population << 14 | node.se.se.population << 15);
+    }
+
+    /**
+     * Gibt den kanonischen Knoten mit 4x4 Zellen für eine Bitmaske zurück.
+     *
+     * @param mask Bitmaske der 4x4 Zellen (Bit Zeile * 4 + Spalte)
+     * @return Knoten mit Level 2
+     */
+    private Node level2(int mask) {
+        Node node = level2Nodes[mask];
+        if (node == null) {
+            node = join(
+                    join(cell(mask & 1), cell(mask >>> 1 & 1), cell(mask >>> 4 & 1), cell(mask >>> 5 & 1)),
+                    join(cell(mask >>> 2 & 1), cell(mask >>> 3 & 1), cell(mask >>> 6 & 1), cell(mask >>> 7 & 1)),
+                    join(cell(mask >>> 8 & 1), cell(mask >>> 9 & 1), cell(mask >>> 12 & 1), cell(mask >>> 13 & 1)),
+                    join(cell(mask >>> 10 & 1), cell(mask >>> 11 & 1), cell(mask >>> 14 & 1), cell(mask >>> 15 & 1)));
+            level2Nodes[mask] = node;
+        }
+        return node;
+    }
+
+    /**
+     * @param alive 1 für eine lebende Zelle, 0 für eine tote
+     * @return Knoten mit Level 0
+     */
+    private Node cell(int alive) {
+        return alive != 0 ? aliveCell : deadCell;
+    }
+
+    /**
+     * @param node Knoten mit Level k (mindestens 2)
+     * @return Das Zentrum des Knotens (Level k - 1) ohne Generationen vorzurücken
+     */
+    private Node center(Node node) {
+        return join(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+    }
+
+    /**
+     * Gibt den kanonischen Knoten mit den vier Kindern zurück. Gibt es ihn noch nicht, wird er angelegt.
+     *
+     * @return Knoten mit einem Level mehr als die Kinder
+     */
+    private Node join(Node nw, Node ne, Node sw, Node se) {
+        int hash = nw.hash * 0x9E3779B1 + ne.hash * 0x85EBCA6B + sw.hash * 0xC2B2AE35 + se.hash * 0x27D4EB2F;
+        hash ^= hash >>> 15;
+        int bucket = hash & (table.length - 1);
+
+        for (Node node = table[bucket]; node != null; node = node.nextInBucket) {
+            if (node.nw == nw && node.ne == ne && node.sw == sw && node.se == se) {
+                return node;
+            }
+        }
+
+        Node node = new Node(nw, ne, sw, se, hash);
+        node.nextInBucket = table[bucket];
+        table[bucket] = node;
+        nodeCount++;
+        if (nodeCount > table.length) {
+            resize();
+        }
+        return node;
+    }
+
+    /**
+     * Verdoppelt die Grösse der Hashtabelle.
+     */
+    private void resize() {
+        Node[] oldTable = table;
+        table = new Node[oldTable.length * 2];
+        for (Node head : oldTable) {
+            Node node = head;
+            while (node != null) {
+                Node following = node.nextInBucket;
+                int bucket = node.hash & (table.length - 1);
+                node.nextInBucket = table[bucket];
+                table[bucket] = node;
+                node = following;
+            }
+        }
+    }
+
+    /**
+     * @param level Level des Knotens
+     * @return Knoten ohne lebende Zellen
+     */
+    private Node empty(int level) {
+        Node node = emptyNodes[level];
+        if (node == null) {
+            node = level == 0 ? deadCell : join(empty(level - 1), empty(level - 1), empty(level - 1), empty(level - 1));
+            emptyNodes[level] = node;
+        }
+        return node;
+    }
+
+    /**
+     * Vergrössert das Universum auf die doppelte Breite, der alte Wurzelknoten liegt danach im Zentrum.
+     */
+    private void expandRoot() {
+        if (root.level >= MAX_LEVEL) {
+            throw new IllegalStateException("Das Universum ist zu gross geworden");
+        }
+        Node border = empty(root.level - 1);
+        root = join(
+                join(border, border, border, root.nw),
+                join(border, border, root.ne, border),
+                join(border, root.sw, border, border),
+                join(root.se, border, border, border));
+    }
+
+    /**
+     * @param node Knoten mit Level k (mindestens 3)
+     * @return Boolean, ob alle lebenden Zellen im inneren Viertel des Knotens liegen
+     */
+    private boolean isPadded(Node node) {
+        return node.level >= 3
+                && node.nw.population == node.nw.se.se.population
+                && node.ne.population == node.ne.sw.sw.population
+                && node.sw.population == node.sw.ne.ne.population
+                && node.se.population == node.se.nw.nw.population;
+    }
+
+    /**
+     * Baut den Quadtree aus dem Spielfeld auf. Das Spielfeld liegt im Zentrum des Universums.
+     *
+     * @param board Spielfeld, das gelesen wird
+     */
+    private void load(Board board) {
+        int size = Math.max(board.getWidth(), board.getHeight());
+        int level = 3;
+        while ((1L << level) < size + 2) {
+            level++;
+        }
+        originX = -(board.getWidth() / 2);
+        originY = -(board.getHeight() / 2);
+
+        long half = 1L << (level - 1);
+        root = build(board, level, -half, -half);
+    }
+
+    /**
+     * Baut den Knoten für ein Quadrat des Universums aus dem Spielfeld auf.
+     *
+     * @param board Spielfeld, das gelesen wird
+     * @param level Level des Knotens (mindestens 2)
+     * @param x     X Koordinate der oberen linken Ecke im Universum
+     * @param y     Y Koordinate der oberen linken Ecke im Universum
+     * @return Knoten mit allen lebenden Zellen des Spielfeldes in diesem Quadrat
+     */
+    private Node build(Board board, int level, long x, long y) {
+        long size = 1L << level;
+        long boardX = x - originX;
+        long boardY = y - originY;
+        if (boardX >= board.getWidth() || boardY >= board.getHeight() || boardX + size <= 0 || boardY + size <= 0) {
+            return empty(level);
+        }
+
+        if (level == 2) {
+            int mask = 0;
+            for (int dy = 0; dy < 4; dy++) {
+                for (int dx = 0; dx < 4; dx++) {
+                    long cx = boardX + dx;
+                    long cy = boardY + dy;
+                    if (cx >= 0 && cy >= 0 && cx < board.getWidth() && cy < board.getHeight() && board.isAlive((int) cx, (int) cy)) {
+                        mask |= 1 << (dy * 4 + dx);
+                    }
+                }
+            }
+            return level2(mask);
+        }
+
+        long half = size / 2;
+        return join(
+                build(board, level - 1, x, y),
+                build(board, level - 1, x + half, y),
+                build(board, level - 1, x, y + half),
+                build(board, level - 1, x + half, y + half));
+    }
+
+    /**
+     * Schreibt den Ausschnitt des Universums, der auf dem Spielfeld liegt, in das Spielfeld.
+     * Die Farben werden hier nicht verändert.
+     *
+     * @param board Spielfeld, in welches geschrieben wird
+     */
+    private void store(Board board) {
+        Arrays.fill(board.alive, 0);
+        long half = 1L << (root.level - 1);
+        write(board, root, -half, -half);
+    }
+
+    /**
+     * Schreibt alle lebenden Zellen eines Knotens, die auf dem Spielfeld liegen, in das Spielfeld.
+     *
+     * @param board Spielfeld, in welches geschrieben wird
+     * @param node  Knoten, der geschrieben wird
+     * @param x     X Koordinate der oberen linken Ecke im Universum
+     * @param y     Y Koordinate der oberen linken Ecke im Universum
+     */
+    private void write(Board board, Node node, long x, long y) {
+        long boardX = x - originX;
+        long boardY = y - originY;
+        long size = 1L << node.level;
+        if (node.population == 0 || boardX >= board.getWidth() || boardY >= board.getHeight()
+                || boardX + size <= 0 || boardY + size <= 0) {
+            return;
+        }
+        if (node.level == 0) {
+            int wordsPerRow = board.getWordsPerRow();
+            board.alive[(int) boardY * wordsPerRow + ((int) boardX >>> 6)] |= 1L << boardX;
+            return;
+        }
+
+        long half = size / 2;
+        write(board, node.nw, x, y);
+        write(board, node.ne, x + half, y);
+        write(board, node.sw, x, y + half);
+        write(board, node.se, x + half, y + half);
+    }
+
+    /**
+     * Verwirft alle Knoten, die vom Wurzelknoten aus nicht mehr erreichbar sind, sowie alle gespeicherten Resultate.
+     */
+    private void collectGarbage() {
+        currentMark++;
+        Node[] oldTable = table;
+        table = new Node[oldTable.length];
+        nodeCount = 0;
+        level2Nodes = new Node[1 << 16];
+        Arrays.fill(emptyNodes, null);
+        if (root != null) {
+            reinsert(root);
+        }
+    }
+
+    /**
+     * Fügt einen Knoten und alle seine Kinder wieder in die (neue) Hashtabelle ein.
+     *
+     * @param node Knoten, der behalten wird
+     */
+    private void reinsert(Node node) {
+        if (node.level == 0 || node.mark == currentMark) {
+            return;
+        }
+        node.mark = currentMark;
+        node.result = null;
+        node.resultStep = -1;
+        reinsert(node.nw);
+        reinsert(node.ne);
+        reinsert(node.sw);
+        reinsert(node.se);
+
+        int bucket = node.hash & (table.length - 1);
+        node.nextInBucket = table[bucket];
+        table[bucket] = node;
+        nodeCount++;
+        if (nodeCount > table.length) {
+            resize();
+        }
+    }
+
+    /**
+     * @return Anzahl Knoten in der Hashtabelle
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return Anteil der Aufrufe von successor(), bei denen das gespeicherte Resultat verwendet werden konnte (0 - 1)
+     */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
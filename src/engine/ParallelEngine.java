@@ -0,0 +1,172 @@
+package engine;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Berechnet die nächste Generation mit mehreren Threads gleichzeitig.
+ * Das Spielfeld wird in gleich grosse Bänder von Zeilen aufgeteilt, jedes Band wird von einem
+ * eigenen Thread mit der übergebenen Engine berechnet. Alle Threads lesen nur aus der aktuellen
+ * Generation und schreiben nur in ihre eigenen Zeilen der nächsten Generation, deshalb ist das
+ * Resultat immer gleich wie mit einem einzelnen Thread.
+ * Die Threads werden einmal gestartet und warten zwischen den Generationen an einer Barriere,
+ * pro Generation wird nichts neu angelegt.
+ */
+public class ParallelEngine implements Engine {
+    private final Engine delegate;
+    private final int threads;
+    private final Thread[] workers;
+
+    // Alle Threads (inklusive dem aufrufenden) warten hier auf den Start bzw. das Ende einer Generation
+    private final CyclicBarrier startBarrier;
+    private final CyclicBarrier doneBarrier;
+
+    // Auftrag der aktuellen Generation, wird vor dem Start gesetzt und von den Workern nur gelesen
+    private Board current;
+    private Board next;
+    private int fromRow;
+    private int toRow;
+    private boolean fade;
+
+    private volatile boolean closed;
+    // Erster Fehler eines Bandes in der aktuellen Generation, wird nach der Barriere im aufrufenden Thread geworfen
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * Konstruktor der Engine. Die Worker Threads werden sofort gestartet.
+     *
+     * @param delegate Engine, welche die einzelnen Bänder berechnet (siehe Engine.supportsRowBands())
+     * @param threads  Anzahl Threads (inklusive dem aufrufenden Thread)
+     */
+    public ParallelEngine(Engine delegate, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Anzahl Threads muss mindestens 1 sein: " + threads);
+        }
+        if (!delegate.supportsRowBands()) {
+            throw new IllegalArgumentException(delegate.getClass().getSimpleName() + " kann keine Bänder berechnen");
+        }
+        this.delegate = delegate;
+        this.threads = threads;
+        this.startBarrier = new CyclicBarrier(threads);
+        this.doneBarrier = new CyclicBarrier(threads);
+
+        // Band 0 berechnet der aufrufende Thread selbst, für die restlichen Bänder gibt es je einen Worker
+        workers = new Thread[threads - 1];
+        for (int i = 0; i < workers.length; i++) {
+            int band = i + 1;
+            workers[i] = new Thread(() -> work(band), "GoL-Worker-" + band);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    @Override
+    public void stepRows(Board current, Board next, int fromRow, int toRow, boolean fade) {
+        if (closed) {
+            throw new IllegalStateException("Engine wurde bereits geschlossen");
+        }
+        this.current = current;
+        this.next = next;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+        this.fade = fade;
+
+        // Die Barrieren sorgen auch dafür, dass die Worker die oben gesetzten Werte sehen
+        await(startBarrier);
+        // Auch bei einem Fehler müssen alle Threads an der Barriere ankommen, sonst warten sie dort für immer
+        try {
+            stepBand(0);
+        } catch (Throwable ex) {
+            failure.compareAndSet(null, ex);
+        }
+        await(doneBarrier);
+
+        Throwable error = failure.getAndSet(null);
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        if (error != null) {
+            throw new IllegalStateException(error);
+        }
+    }
+
+    /**
+     * Schleife eines Worker Threads: wartet auf den Start einer Generation, berechnet sein Band und meldet sich fertig.
+     *
+     * @param band Nummer des Bandes, welches dieser Thread berechnet
+     */
+    private void work(int band) {
+        try {
+            while (true) {
+                startBarrier.await();
+                if (closed) {
+                    return;
+                }
+                try {
+                    stepBand(band);
+                } catch (Throwable ex) {
+                    failure.compareAndSet(null, ex);
+                }
+                doneBarrier.await();
+            }
+        } catch (InterruptedException | BrokenBarrierException ex) {
+            // Die Engine wird geschlossen
+        }
+    }
+
+    /**
+     * Berechnet ein Band von Zeilen. Die Grenzen der Bänder hängen nur von der Anzahl Zeilen und Threads ab.
+     *
+     * @param band Nummer des Bandes (0 bis threads - 1)
+     */
+    private void stepBand(int band) {
+        int rows = toRow - fromRow;
+        int bandStart = fromRow + (int) ((long) rows * band / threads);
+        int bandEnd = fromRow + (int) ((long) rows * (band + 1) / threads);
+        if (bandStart < bandEnd) {
+            delegate.stepRows(current, next, bandStart, bandEnd, fade);
+        }
+    }
+
+    /**
+     * Wartet an einer Barriere, bis alle Threads angekommen sind.
+     *
+     * @param barrier Barriere, an der gewartet wird
+     */
+    private void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Warten auf die Worker wurde unterbrochen", ex);
+        } catch (BrokenBarrierException ex) {
+            throw new IllegalStateException("Ein Worker wurde abgebrochen", ex);
+        }
+    }
+
+    /**
+     * Beendet alle Worker Threads.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        delegate.close();
+    }
+
+    /**
+     * @return Anzahl Threads, mit denen gerechnet wird
+     */
+    public int getThreads() {
+        return threads;
+    }
+}
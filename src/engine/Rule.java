@@ -0,0 +1,296 @@
+package engine;
+
+import java.util.Locale;
+
+/**
+ * Regel eines Life-ähnlichen Automaten in der B/S Notation, z.B. "B3/S23" für GoL oder "B36/S23" für HighLife:
+ * eine tote Zelle wird mit einer der Anzahlen Nachbaren nach B geboren, eine lebende überlebt mit einer der
+ * Anzahlen nach S. Die alte Notation "S/B" ohne Buchstaben (z.B. "23/3") wird auch gelesen.
+ *
+ * Die Regel wird beim Erstellen einmal übersetzt, damit das Berechnen mit jeder Regel gleich viel kostet:
+ * in eine Tabelle über alle 512 Nachbarschaften von 3x3 Zellen (für die Engines, welche Zelle für Zelle rechnen)
+ * und in Masken pro Anzahl Nachbaren, mit denen die bitweisen Engines die Regel ohne Verzweigung auf 64 Zellen
+ * gleichzeitig anwenden (siehe apply()).
+ *
+ * Regeln mit B0 werden nicht unterstützt: dort würden tote Zellen ohne Nachbaren geboren, das unbegrenzte
+ * Universum von HashLife und SparseEngine wäre also nie leer.
+ */
+public final class Rule {
+    // Bekannte Regeln zur Auswahl im Fenster
+    private static final String[][] PRESETS = {
+            {"Life", "B3/S23"},
+            {"HighLife", "B36/S23"},
+            {"Day & Night", "B3678/S34678"},
+            {"Seeds", "B2/S"},
+            {"Life without Death", "B3/S012345678"},
+            {"Replicator", "B1357/S1357"},
+            {"Maze", "B3/S12345"},
+            {"2x2", "B36/S125"},
+            {"Morley", "B368/S245"},
+            {"Diamoeba", "B35678/S5678"},
+    };
+
+    // Game of Life, Standard für alle Engines (nach PRESETS, weil parse() sie verwendet)
+    public static final Rule LIFE = parse("B3/S23");
+
+    // Bit n ist gesetzt, wenn eine Zelle mit n lebenden Nachbaren geboren wird bzw. überlebt
+    private final int birth;
+    private final int survival;
+
+    // Status in der nächsten Generation für jede Nachbarschaft (Bit dy * 3 + dx, die Zelle selbst ist Bit 4)
+    private final boolean[] table = new boolean[512];
+
+    // Boolean, ob die Regel B3/S23 ist (dafür gibt es in apply() eine kürzere Formel)
+    private final boolean life;
+    // Masken für apply(), die Zahl ist die Anzahl Nachbaren: birthN ist -1, wenn mit N Nachbaren eine Zelle
+    // geboren wird, sonst 0; changeN ist -1, wenn sich Geburt und Überleben bei N Nachbaren unterscheiden
+    // (einzelne Felder statt Arrays, damit in apply() keine Arrays gelesen werden)
+    private final long birth0, birth1, birth2, birth3, birth4, birth5, birth6, birth7, birth8;
+    private final long change0, change1, change2, change3, change4, change5, change6, change7, change8;
+
+    private Rule(int birth, int survival) {
+        this.birth = birth;
+        this.survival = survival;
+        for (int pattern = 0; pattern < table.length; pattern++) {
+            int neighbors = Integer.bitCount(pattern & ~(1 << 4));
+            table[pattern] = isAliveNext((pattern & (1 << 4)) != 0, neighbors);
+        }
+        life = birth == 1 << 3 && survival == (1 << 2 | 1 << 3);
+
+        birth0 = mask(birth, 0);
+        birth1 = mask(birth, 1);
+        birth2 = mask(birth, 2);
+        birth3 = mask(birth, 3);
+        birth4 = mask(birth, 4);
+        birth5 = mask(birth, 5);
+        birth6 = mask(birth, 6);
+        birth7 = mask(birth, 7);
+        birth8 = mask(birth, 8);
+        int change = birth ^ survival;
+        change0 = mask(change, 0);
+        change1 = mask(change, 1);
+        change2 = mask(change, 2);
+        change3 = mask(change, 3);
+        change4 = mask(change, 4);
+        change5 = mask(change, 5);
+        change6 = mask(change, 6);
+        change7 = mask(change, 7);
+        change8 = mask(change, 8);
+    }
+
+    private static long mask(int bits, int n) {
+        return (bits >>> n & 1) != 0 ? -1L : 0;
+    }
+
+    /**
+     * Liest eine Regel in der B/S Notation ("B36/S23", Gross-/Kleinschreibung egal, der Schrägstrich ist
+     * freiwillig), in der alten S/B Notation ("23/36") oder den Namen einer bekannten Regel (z.B. "HighLife").
+     *
+     * @param text Regel
+     * @return Übersetzte Regel
+     * @throws IllegalArgumentException Wenn der Text keine gültige Regel ist oder die Regel B0 enthält
+     */
+    public static Rule parse(String text) {
+        for (String[] preset : PRESETS) {
+            if (preset[0].equalsIgnoreCase(text.trim())) {
+                return parse(preset[1]);
+            }
+        }
+
+        String rule = text.replace(" ", "").toUpperCase(Locale.ROOT);
+        String birthDigits;
+        String survivalDigits;
+        if (rule.startsWith("B")) {
+            int s = rule.indexOf('S');
+            if (s < 0) {
+                throw new IllegalArgumentException("Regel ohne S: " + text);
+            }
+            birthDigits = rule.substring(1, rule.charAt(s - 1) == '/' ? s - 1 : s);
+            survivalDigits = rule.substring(s + 1);
+        } else if (rule.startsWith("S")) {
+            int b = rule.indexOf('B');
+            if (b < 0) {
+                throw new IllegalArgumentException("Regel ohne B: " + text);
+            }
+            survivalDigits = rule.substring(1, rule.charAt(b - 1) == '/' ? b - 1 : b);
+            birthDigits = rule.substring(b + 1);
+        } else {
+            int slash = rule.indexOf('/');
+            if (slash < 0) {
+                throw new IllegalArgumentException("Unbekannte Regel: " + text);
+            }
+            survivalDigits = rule.substring(0, slash);
+            birthDigits = rule.substring(slash + 1);
+        }
+
+        int birth = digits(birthDigits, text);
+        int survival = digits(survivalDigits, text);
+        if ((birth & 1) != 0) {
+            throw new IllegalArgumentException("Regeln mit B0 werden nicht unterstützt: " + text);
+        }
+        return new Rule(birth, survival);
+    }
+
+    /**
+     * @return Bitmaske der Ziffern (Bit n für die Ziffer n)
+     */
+    private static int digits(String digits, String text) {
+        int bits = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            char c = digits.charAt(i);
+            if (c < '0' || c > '8') {
+                throw new IllegalArgumentException("Ungültige Anzahl Nachbaren '" + c + "' in der Regel: " + text);
+            }
+            bits |= 1 << (c - '0');
+        }
+        return bits;
+    }
+
+    /**
+     * @param alive     Boolean, ob die Zelle lebt
+     * @param neighbors Anzahl lebender Nachbaren (0 - 8)
+     * @return Boolean, ob die Zelle in der nächsten Generation lebt
+     */
+    public boolean isAliveNext(boolean alive, int neighbors) {
+        return ((alive ? survival : birth) >>> neighbors & 1) != 0;
+    }
+
+    /**
+     * @param pattern Nachbarschaft von 3x3 Zellen, Bit dy * 3 + dx (die Zelle selbst ist Bit 4)
+     * @return Boolean, ob die Zelle in der Mitte in der nächsten Generation lebt
+     */
+    public boolean isAliveNext(int pattern) {
+        return table[pattern];
+    }
+
+    /**
+     * Wendet die Regel auf 64 Zellen gleichzeitig an. Die Anzahl Nachbaren jeder Zelle ist auf vier Wörter
+     * verteilt (Bit 1, 2, 4 und 8 der Anzahl, so wie sie der bitweise Addierer der BitEngine liefert).
+     *
+     * @param alive  Status der 64 Zellen
+     * @param ones   Bit 1 der Anzahl Nachbaren
+     * @param twos   Bit 2 der Anzahl Nachbaren
+     * @param fours  Bit 4 der Anzahl Nachbaren
+     * @param eights Bit 8 der Anzahl Nachbaren (dann sind die anderen drei 0)
+     * @return Status der 64 Zellen in der nächsten Generation
+     */
+    public long apply(long alive, long ones, long twos, long fours, long eights) {
+        if (life) {
+            // Genau 2 oder 3 Nachbaren: die Zelle lebt, wenn sie 3 Nachbaren hat oder schon lebt
+            return twos & ~fours & ~eights & (ones | alive);
+        }
+        // Pro Anzahl n ist das Resultat birth[n] für tote und survival[n] für lebende Zellen,
+        // also birth[n] ^ (alive & change[n])
+        long n0 = birth0 ^ (alive & change0);
+        long n1 = birth1 ^ (alive & change1);
+        long n2 = birth2 ^ (alive & change2);
+        long n3 = birth3 ^ (alive & change3);
+        long n4 = birth4 ^ (alive & change4);
+        long n5 = birth5 ^ (alive & change5);
+        long n6 = birth6 ^ (alive & change6);
+        long n7 = birth7 ^ (alive & change7);
+        long n8 = birth8 ^ (alive & change8);
+
+        // Auswahl nach den Bits der Anzahl (Multiplexer: a ^ (bit & (a ^ b)) ist b, wo bit gesetzt ist, sonst a)
+        long n01 = n0 ^ (ones & (n0 ^ n1));
+        long n23 = n2 ^ (ones & (n2 ^ n3));
+        long n45 = n4 ^ (ones & (n4 ^ n5));
+        long n67 = n6 ^ (ones & (n6 ^ n7));
+        long n03 = n01 ^ (twos & (n01 ^ n23));
+        long n47 = n45 ^ (twos & (n45 ^ n67));
+        long n07 = n03 ^ (fours & (n03 ^ n47));
+        return n07 ^ (eights & (n07 ^ n8));
+    }
+
+    /**
+     * @return Boolean, ob die Regel B3/S23 ist (für Engines, die eine eigene Formel dafür haben)
+     */
+    boolean isLife() {
+        return life;
+    }
+
+    /**
+     * @param neighbors Anzahl Nachbaren (0 - 8)
+     * @return -1, wenn eine tote Zelle mit so vielen Nachbaren geboren wird, sonst 0 (siehe apply())
+     */
+    long getBirthMask(int neighbors) {
+        return mask(birth, neighbors);
+    }
+
+    /**
+     * @param neighbors Anzahl Nachbaren (0 - 8)
+     * @return -1, wenn sich Geburt und Überleben bei so vielen Nachbaren unterscheiden, sonst 0 (siehe apply())
+     */
+    long getChangeMask(int neighbors) {
+        return mask(birth ^ survival, neighbors);
+    }
+
+    /**
+     * @return Namen der bekannten Regeln in der Reihenfolge der Auswahl
+     */
+    public static String[] getPresetNames() {
+        String[] names = new String[PRESETS.length];
+        for (int i = 0; i < PRESETS.length; i++) {
+            names[i] = PRESETS[i][0];
+        }
+        return names;
+    }
+
+    /**
+     * @return Die nächste bekannte Regel (nach der letzten kommt wieder die erste, nach einer unbekannten Life)
+     */
+    public Rule next() {
+        for (int i = 0; i < PRESETS.length; i++) {
+            if (parse(PRESETS[i][1]).equals(this)) {
+                return parse(PRESETS[(i + 1) % PRESETS.length][1]);
+            }
+        }
+        return LIFE;
+    }
+
+    /**
+     * @return Name der Regel, falls sie bekannt ist, sonst die B/S Notation
+     */
+    public String getName() {
+        for (String[] preset : PRESETS) {
+            if (parse(preset[1]).equals(this)) {
+                return preset[0];
+            }
+        }
+        return toString();
+    }
+
+    /**
+     * @return Regel in der B/S Notation mit aufsteigenden Ziffern (z.B. "B36/S23")
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("B");
+        appendDigits(text, birth);
+        text.append("/S");
+        appendDigits(text, survival);
+        return text.toString();
+    }
+
+    private static void appendDigits(StringBuilder text, int bits) {
+        for (int n = 0; n <= 8; n++) {
+            if ((bits >>> n & 1) != 0) {
+                text.append(n);
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Rule)) {
+            return false;
+        }
+        Rule rule = (Rule) other;
+        return birth == rule.birth && survival == rule.survival;
+    }
+
+    @Override
+    public int hashCode() {
+        return birth * 512 + survival;
+    }
+}
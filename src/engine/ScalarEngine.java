@@ -0,0 +1,120 @@
+package engine;
+
+import java.util.Arrays;
+
+/**
+ * Berechnet die nächste Generation Zelle für Zelle, so wie es früher Cell.prepareNextGen() gemacht hat.
+ * Für jede Zelle wird durch die 3x3 Nachbarschaft geloopt und gezählt, wie viele Nachbaren leben.
+ * Die Zellen werden dazu zuerst in ein Array mit einem Rand (Halo) von einer Zelle rundherum kopiert,
+ * der je nach Boundary leer ist oder die Zellen vom gegenüberliegenden bzw. vom eigenen Rand enthält.
+ * So liegen alle Nachbaren im Array und die Schleife braucht keine Prüfung der Grenzen.
+ */
+public class ScalarEngine implements Engine {
+    private final Rule rule;
+    private final Boundary boundary;
+
+    // Zellen der Zeilen fromRow - 1 bis toRow mit Rand, (width + 2) Zellen pro Zeile (1 = lebt, 0 = tot)
+    private byte[] padded = new byte[0];
+
+    /**
+     * Konstruktor der Engine für Game of Life (B3/S23).
+     */
+    public ScalarEngine() {
+        this(Rule.LIFE);
+    }
+
+    /**
+     * @param rule Regel, nach der die nächste Generation berechnet wird
+     */
+    public ScalarEngine(Rule rule) {
+        this(rule, Boundary.DEAD);
+    }
+
+    /**
+     * @param rule     Regel, nach der die nächste Generation berechnet wird
+     * @param boundary Verhalten am Rand des Spielfeldes
+     */
+    public ScalarEngine(Rule rule, Boundary boundary) {
+        this.rule = rule;
+        this.boundary = boundary;
+    }
+
+    @Override
+    public void stepRows(Board current, Board next, int fromRow, int toRow, boolean fade) {
+        int width = current.getWidth();
+        int wordsPerRow = current.getWordsPerRow();
+        int paddedWidth = width + 2;
+        fillPadded(current, fromRow, toRow);
+
+        for (int y = fromRow; y < toRow; y++) {
+            // Index der Zelle (0, y) im Array mit Rand
+            int rowStart = (y - fromRow + 1) * paddedWidth + 1;
+            for (int w = 0; w < wordsPerRow; w++) {
+                long word = 0;
+                int end = Math.min(64, width - (w << 6));
+                for (int bit = 0; bit < end; bit++) {
+                    int x = (w << 6) + bit;
+                    if (isAliveNextGen(rowStart + x, paddedWidth)) {
+                        word |= 1L << bit;
+                    }
+                }
+                next.alive[y * wordsPerRow + w] = word;
+            }
+        }
+
+        next.updateColors(current, fromRow, toRow, fade);
+    }
+
+    /**
+     * Kopiert die Zeilen fromRow - 1 bis toRow (inklusive) mit dem Rand links und rechts in padded.
+     */
+    private void fillPadded(Board current, int fromRow, int toRow) {
+        int width = current.getWidth();
+        int height = current.getHeight();
+        int paddedWidth = width + 2;
+        int size = (toRow - fromRow + 2) * paddedWidth;
+        if (padded.length < size) {
+            padded = new byte[size];
+        }
+
+        int left = boundary.column(-1, width);
+        int right = boundary.column(width, width);
+        for (int y = fromRow - 1; y <= toRow; y++) {
+            int start = (y - fromRow + 1) * paddedWidth;
+            int source = boundary.row(y, height);
+            if (source < 0) {
+                Arrays.fill(padded, start, start + paddedWidth, (byte) 0);
+                continue;
+            }
+            for (int x = 0; x < width; x++) {
+                padded[start + 1 + x] = (byte) (current.isAlive(x, source) ? 1 : 0);
+            }
+            padded[start] = (byte) (left >= 0 && current.isAlive(left, source) ? 1 : 0);
+            padded[start + 1 + width] = (byte) (right >= 0 && current.isAlive(right, source) ? 1 : 0);
+        }
+    }
+
+    /**
+     * Zählt die lebenden Nachbaren einer Zelle und wendet die Regel an.
+     *
+     * @param index       Index der Zelle im Array mit Rand
+     * @param paddedWidth Anzahl Zellen pro Zeile im Array mit Rand
+     * @return Boolean, ob die Zelle in der nächsten Generation lebt
+     */
+    private boolean isAliveNextGen(int index, int paddedWidth) {
+        int neighbors = 0;
+
+        // Loop duch die Nachbaren, wegen dem Rand liegen alle im Array
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                // Die Zelle selbst soll nicht gezählt werden
+                if (dx == 0 && dy == 0) {
+                    continue;
+                }
+                neighbors += padded[index + dy * paddedWidth + dx];
+            }
+        }
+
+        return rule.isAliveNext(padded[index] != 0, neighbors);
+    }
+}
@@ -0,0 +1,361 @@
+package engine;
+
+import java.util.Arrays;
+
+/**
+ * Engine mit einem unbegrenzten Universum, das nur aus Chunks von 64x64 Zellen besteht, in denen etwas lebt.
+ * Ein Chunk speichert jede seiner 64 Zeilen in einem long (gleiche Anordnung wie im Bitfeld des Spielfeldes),
+ * die Nachbaren werden wie in der BitEngine bitweise gezählt. Die Chunks werden in einer ChunkMap über ihre
+ * Koordinaten gefunden. Chunks werden angelegt, sobald am Rand eines Nachbarchunks Zellen leben, und wieder
+ * freigegeben, wenn sie leer sind. Der Speicherbedarf hängt so nur von der belebten Fläche ab.
+ *
+ * Das Spielfeld zeigt den Ausschnitt ab der Zelle (0, 0) des Universums. Zellen, die das Spielfeld verlassen,
+ * leben ausserhalb weiter (z.B. Glider). Wird das Spielfeld bearbeitet, wird das Universum neu aus dem
+ * Spielfeld gelesen, dabei gehen die Zellen ausserhalb verloren.
+ */
+public class SparseEngine implements Engine {
+    // Anzahl Zeilen und Spalten eines Chunks
+    public static final int CHUNK_SIZE = 64;
+    // So viele freigegebene Chunks werden immer behalten
+    private static final int MIN_POOL = 64;
+
+    /**
+     * Ein Chunk mit 64x64 Zellen. Die aktuelle und die nächste Generation werden nach jedem Schritt vertauscht.
+     */
+    static final class Chunk {
+        int chunkX;
+        int chunkY;
+        long[] current = new long[CHUNK_SIZE];
+        long[] next = new long[CHUNK_SIZE];
+    }
+
+    // Zeile ohne lebende Zellen für fehlende Nachbarchunks
+    private static final long[] EMPTY = new long[CHUNK_SIZE];
+
+    private final Rule rule;
+
+    private final ChunkMap map = new ChunkMap();
+    // Alle Chunks in einer Liste, damit beim Berechnen nicht durch die Hashtabelle geloopt werden muss
+    private Chunk[] chunks = new Chunk[64];
+    private int chunkCount;
+    // Freigegebene Chunks, die wiederverwendet werden (höchstens halb so viele wie belegte, mindestens MIN_POOL)
+    private Chunk[] pool = new Chunk[MIN_POOL];
+    private int poolCount;
+
+    // Spielfeld, welches zuletzt geschrieben wurde; ist es seither unverändert, muss es nicht neu gelesen werden
+    private Board syncedBoard;
+    private int syncedModCount;
+
+    /**
+     * Konstruktor der Engine für Game of Life (B3/S23).
+     */
+    public SparseEngine() {
+        this(Rule.LIFE);
+    }
+
+    /**
+     * @param rule Regel, nach der die nächste Generation berechnet wird
+     */
+    public SparseEngine(Rule rule) {
+        this.rule = rule;
+    }
+
+    @Override
+    public boolean supportsRowBands() {
+        return false;
+    }
+
+    @Override
+    public void stepRows(Board current, Board next, int fromRow, int toRow, boolean fade) {
+        // Die Chunks enthalten immer das ganze Universum
+        step(current, next, fade);
+    }
+
+    @Override
+    public void step(Board current, Board next, boolean fade) {
+        if (current != syncedBoard || current.getModCount() != syncedModCount) {
+            load(current);
+        }
+
+        step();
+
+        store(next);
+        next.updateColors(current, 0, current.getHeight(), fade);
+        syncedBoard = next;
+        syncedModCount = next.getModCount();
+    }
+
+    /**
+     * Berechnet die nächste Generation des ganzen Universums.
+     */
+    private void step() {
+        // Nachbarchunks anlegen, in denen am Rand neue Zellen entstehen können
+        int existing = chunkCount;
+        for (int i = 0; i < existing; i++) {
+            addNeighbors(chunks[i]);
+        }
+
+        for (int i = 0; i < chunkCount; i++) {
+            stepChunk(chunks[i]);
+        }
+
+        // Generationen vertauschen und leere Chunks freigeben
+        for (int i = 0; i < chunkCount; i++) {
+            Chunk chunk = chunks[i];
+            long[] swap = chunk.current;
+            chunk.current = chunk.next;
+            chunk.next = swap;
+
+            if (isEmpty(chunk.current)) {
+                removeChunk(i);
+                i--;
+            }
+        }
+        trimPool();
+    }
+
+    /**
+     * Legt die Nachbarchunks an, in welche die lebenden Zellen am Rand eines Chunks hinein wirken.
+     *
+     * @param chunk Chunk, dessen Rand geprüft wird
+     */
+    private void addNeighbors(Chunk chunk) {
+        long top = chunk.current[0];
+        long bottom = chunk.current[CHUNK_SIZE - 1];
+        long left = 0;
+        long right = 0;
+        for (long row : chunk.current) {
+            left |= row & 1L;
+            right |= row >>> 63;
+        }
+        int x = chunk.chunkX;
+        int y = chunk.chunkY;
+
+        if (top != 0) {
+            getOrCreate(x, y - 1);
+        }
+        if (bottom != 0) {
+            getOrCreate(x, y + 1);
+        }
+        if (left != 0) {
+            getOrCreate(x - 1, y);
+        }
+        if (right != 0) {
+            getOrCreate(x + 1, y);
+        }
+        if ((top & 1L) != 0) {
+            getOrCreate(x - 1, y - 1);
+        }
+        if ((top >>> 63) != 0) {
+            getOrCreate(x + 1, y - 1);
+        }
+        if ((bottom & 1L) != 0) {
+            getOrCreate(x - 1, y + 1);
+        }
+        if ((bottom >>> 63) != 0) {
+            getOrCreate(x + 1, y + 1);
+        }
+    }
+
+    /**
+     * Berechnet die nächste Generation eines Chunks mit Hilfe der Ränder seiner acht Nachbaren.
+     *
+     * @param chunk Chunk, der berechnet wird
+     */
+    private void stepChunk(Chunk chunk) {
+        int x = chunk.chunkX;
+        int y = chunk.chunkY;
+        long[] west = rows(x - 1, y);
+        long[] east = rows(x + 1, y);
+        long[] north = rows(x, y - 1);
+        long[] south = rows(x, y + 1);
+        long[] northWest = rows(x - 1, y - 1);
+        long[] northEast = rows(x + 1, y - 1);
+        long[] southWest = rows(x - 1, y + 1);
+        long[] southEast = rows(x + 1, y + 1);
+        long[] center = chunk.current;
+
+        int last = CHUNK_SIZE - 1;
+        for (int r = 0; r < CHUNK_SIZE; r++) {
+            long abovePrev, aboveCur, aboveNext;
+            if (r > 0) {
+                abovePrev = west[r - 1];
+                aboveCur = center[r - 1];
+                aboveNext = east[r - 1];
+            } else {
+                abovePrev = northWest[last];
+                aboveCur = north[last];
+                aboveNext = northEast[last];
+            }
+            long belowPrev, belowCur, belowNext;
+            if (r < last) {
+                belowPrev = west[r + 1];
+                belowCur = center[r + 1];
+                belowNext = east[r + 1];
+            } else {
+                belowPrev = southWest[0];
+                belowCur = south[0];
+                belowNext = southEast[0];
+            }
+
+            chunk.next[r] = BitEngine.nextWord(rule, abovePrev, aboveCur, aboveNext,
+                    west[r], center[r], east[r],
+                    belowPrev, belowCur, belowNext);
+        }
+    }
+
+    /**
+     * @return Die Zeilen der aktuellen Generation eines Chunks oder eine leere Zeile, wenn es den Chunk nicht gibt
+     */
+    private long[] rows(int chunkX, int chunkY) {
+        Chunk chunk = map.get(ChunkMap.key(chunkX, chunkY));
+        return chunk != null ? chunk.current : EMPTY;
+    }
+
+    /**
+     * Gibt den Chunk an den Koordinaten zurück. Gibt es ihn noch nicht, wird ein leerer Chunk angelegt.
+     *
+     * @return Chunk an den Koordinaten
+     */
+    private Chunk getOrCreate(int chunkX, int chunkY) {
+        long key = ChunkMap.key(chunkX, chunkY);
+        Chunk chunk = map.get(key);
+        if (chunk != null) {
+            return chunk;
+        }
+
+        if (poolCount > 0) {
+            chunk = pool[--poolCount];
+            pool[poolCount] = null;
+        } else {
+            chunk = new Chunk();
+        }
+        chunk.chunkX = chunkX;
+        chunk.chunkY = chunkY;
+        Arrays.fill(chunk.current, 0);
+
+        map.put(key, chunk);
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunks.length * 2);
+        }
+        chunks[chunkCount++] = chunk;
+        return chunk;
+    }
+
+    /**
+     * Gibt den Chunk an der Stelle index der Liste frei. Der letzte Chunk der Liste rückt an seine Stelle.
+     *
+     * @param index Position in der Liste
+     */
+    private void removeChunk(int index) {
+        Chunk chunk = chunks[index];
+        map.remove(ChunkMap.key(chunk.chunkX, chunk.chunkY));
+        chunks[index] = chunks[--chunkCount];
+        chunks[chunkCount] = null;
+
+        if (poolCount < poolLimit()) {
+            if (poolCount == pool.length) {
+                pool = Arrays.copyOf(pool, pool.length * 2);
+            }
+            pool[poolCount++] = chunk;
+        }
+    }
+
+    /**
+     * @return Anzahl freigegebener Chunks, die höchstens behalten werden
+     */
+    private int poolLimit() {
+        return Math.max(MIN_POOL, chunkCount / 2);
+    }
+
+    /**
+     * Gibt die freigegebenen Chunks über der Grenze frei, nachdem das Universum kleiner geworden ist.
+     */
+    private void trimPool() {
+        int limit = poolLimit();
+        if (poolCount > limit) {
+            Arrays.fill(pool, limit, poolCount, null);
+            poolCount = limit;
+        }
+        if (pool.length > 2 * limit) {
+            pool = Arrays.copyOf(pool, Math.max(MIN_POOL, Integer.highestOneBit(limit) * 2));
+        }
+    }
+
+    /**
+     * @return Boolean, ob in den Zeilen keine Zelle lebt
+     */
+    private static boolean isEmpty(long[] rows) {
+        long any = 0;
+        for (long row : rows) {
+            any |= row;
+        }
+        return any == 0;
+    }
+
+    /**
+     * Ersetzt das ganze Universum durch die lebenden Zellen des Spielfeldes.
+     *
+     * @param board Spielfeld, das gelesen wird
+     */
+    private void load(Board board) {
+        // Die bisherigen Chunks kommen alle in den Pool, sie werden beim Einlesen gleich wieder verwendet
+        map.clear();
+        if (poolCount + chunkCount > pool.length) {
+            pool = Arrays.copyOf(pool, poolCount + chunkCount);
+        }
+        System.arraycopy(chunks, 0, pool, poolCount, chunkCount);
+        poolCount += chunkCount;
+        Arrays.fill(chunks, 0, chunkCount, null);
+        chunkCount = 0;
+
+        int wordsPerRow = board.getWordsPerRow();
+        for (int y = 0; y < board.getHeight(); y++) {
+            for (int w = 0; w < wordsPerRow; w++) {
+                long word = board.alive[y * wordsPerRow + w];
+                if (word != 0) {
+                    getOrCreate(w, y / CHUNK_SIZE).current[y % CHUNK_SIZE] = word;
+                }
+            }
+        }
+        trimPool();
+    }
+
+    /**
+     * Schreibt den Ausschnitt des Universums, der auf dem Spielfeld liegt, in das Spielfeld.
+     * Die Farben werden hier nicht verändert.
+     *
+     * @param board Spielfeld, in welches geschrieben wird
+     */
+    private void store(Board board) {
+        Arrays.fill(board.alive, 0);
+        int wordsPerRow = board.getWordsPerRow();
+        int chunkRows = (board.getHeight() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        for (int chunkY = 0; chunkY < chunkRows; chunkY++) {
+            for (int chunkX = 0; chunkX < wordsPerRow; chunkX++) {
+                Chunk chunk = map.get(ChunkMap.key(chunkX, chunkY));
+                if (chunk == null) {
+                    continue;
+                }
+                long mask = chunkX == wordsPerRow - 1 ? board.getLastWordMask() : -1L;
+                int rowEnd = Math.min(CHUNK_SIZE, board.getHeight() - chunkY * CHUNK_SIZE);
+                for (int r = 0; r < rowEnd; r++) {
+                    board.alive[(chunkY * CHUNK_SIZE + r) * wordsPerRow + chunkX] = chunk.current[r] & mask;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Anzahl Chunks im Universum
+     */
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    @Override
+    public String getStatus() {
+        return chunkCount + " Chunks";
+    }
+}
@@ -0,0 +1,200 @@
+package engine;
+
+import java.util.Arrays;
+
+/**
+ * Engine, welche stabile Bereiche des Spielfeldes überspringt.
+ * Das Spielfeld ist in Kacheln von 64 Spalten (ein Wort im Bitfeld) mal TILE_ROWS Zeilen eingeteilt.
+ *
+ * Weil die beiden Spielfelder abwechselnd verwendet werden, enthält das Zielspielfeld vor dem Schritt
+ * die vorletzte Generation. Für jede Kachel wird gespeichert, ob sie sich gegenüber der vorletzten
+ * Generation verändert hat. Ist das weder bei der Kachel noch bei ihren Nachbarkacheln der Fall
+ * (Stillleben oder Oszillatoren mit Periode 2 wie Blinker), dann ist die nächste Generation gleich
+ * der vorletzten und steht schon im Zielspielfeld. Nur die übrigen Kacheln werden wie in der
+ * BitEngine bitweise neu berechnet.
+ *
+ * Die Farben werden in ruhigen Kacheln nachgeführt, bis tote Zellen ganz verblasst sind. Die Farbe
+ * lebender Zellen wird nie angezeigt (sie werden weiss gezeichnet und beim Sterben zurückgesetzt),
+ * sie wird in übersprungenen Kacheln deshalb nicht mehr nachgeführt.
+ */
+public class TileEngine implements Engine {
+    // Anzahl Zeilen pro Kachel
+    public static final int TILE_ROWS = 16;
+
+    private final Rule rule;
+    private final Boundary boundary;
+
+    private int tilesX;
+    private int tilesY;
+
+    // Ob sich die Kachel gegenüber der vorletzten Generation verändert hat (Index tileY * tilesX + tileX)
+    private boolean[] changed = new boolean[0];
+    private boolean[] nextChanged = new boolean[0];
+    // Anzahl Farbstufen, seit sich die Kachel zuletzt verändert hat
+    private int[] quietFades = new int[0];
+    // Zwischenspeicher für die alten Wörter einer Kachel
+    private final long[] previousWords = new long[TILE_ROWS];
+
+    // Spielfeld, welches zuletzt geschrieben bzw. gelesen wurde (mit dem Zähler für Änderungen von aussen)
+    private Board lastTarget;
+    private int lastTargetModCount;
+    private Board lastSource;
+    private int lastSourceModCount;
+
+    private int activeTiles;
+
+    /**
+     * Konstruktor der Engine für Game of Life (B3/S23).
+     */
+    public TileEngine() {
+        this(Rule.LIFE);
+    }
+
+    /**
+     * @param rule Regel, nach der die nächste Generation berechnet wird
+     */
+    public TileEngine(Rule rule) {
+        this(rule, Boundary.DEAD);
+    }
+
+    /**
+     * @param rule     Regel, nach der die nächste Generation berechnet wird
+     * @param boundary Verhalten am Rand des Spielfeldes
+     */
+    public TileEngine(Rule rule, Boundary boundary) {
+        this.rule = rule;
+        this.boundary = boundary;
+    }
+
+    @Override
+    public boolean supportsRowBands() {
+        return false;
+    }
+
+    @Override
+    public void stepRows(Board current, Board next, int fromRow, int toRow, boolean fade) {
+        // Die Markierungen der Kacheln gelten für das ganze Spielfeld
+        step(current, next, fade);
+    }
+
+    @Override
+    public void step(Board current, Board next, boolean fade) {
+        int wordsPerRow = current.getWordsPerRow();
+        int fadeSteps = fade ? 1 : 0;
+
+        // Den Markierungen kann nur vertraut werden, wenn beide Spielfelder seit dem letzten Schritt
+        // unverändert sind (also keine Zelle bearbeitet oder eine alte Generation geladen wurde)
+        boolean synced = current == lastTarget && current.getModCount() == lastTargetModCount
+                && next == lastSource && next.getModCount() == lastSourceModCount
+                && tilesX == wordsPerRow && tilesY == (current.getHeight() + TILE_ROWS - 1) / TILE_ROWS;
+        if (!synced) {
+            resize(current);
+        }
+
+        activeTiles = 0;
+        for (int tileY = 0; tileY < tilesY; tileY++) {
+            int rowStart = tileY * TILE_ROWS;
+            int rowEnd = Math.min(current.getHeight(), rowStart + TILE_ROWS);
+
+            for (int tileX = 0; tileX < tilesX; tileX++) {
+                int tile = tileY * tilesX + tileX;
+
+                if (!synced || isActive(tileX, tileY)) {
+                    activeTiles++;
+                    for (int y = rowStart; y < rowEnd; y++) {
+                        previousWords[y - rowStart] = next.alive[y * wordsPerRow + tileX];
+                    }
+                    BitEngine.stepWords(rule, boundary, current, next, rowStart, rowEnd, tileX, tileX + 1);
+
+                    boolean tileChanged = !synced || hasChanged(next, rowStart, rowEnd, tileX);
+                    nextChanged[tile] = tileChanged;
+                    quietFades[tile] = tileChanged ? 0 : quietFades[tile] + fadeSteps;
+                    next.updateColors(current, rowStart, rowEnd, tileX, tileX + 1, fadeSteps);
+                } else {
+                    // Die nächste Generation der Kachel ist gleich der vorletzten, sie steht schon im Zielspielfeld.
+                    // Sind die toten Zellen ganz verblasst, stimmen auch die Farben schon.
+                    nextChanged[tile] = false;
+                    if (quietFades[tile] <= Board.MAX_FADE) {
+                        next.updateColors(current, rowStart, rowEnd, tileX, tileX + 1, fadeSteps);
+                    } else {
+                        next.markChanged(current, rowStart, rowEnd, tileX, tileX + 1);
+                    }
+                    quietFades[tile] += fadeSteps;
+                }
+            }
+        }
+
+        boolean[] swap = changed;
+        changed = nextChanged;
+        nextChanged = swap;
+
+        lastSource = current;
+        lastSourceModCount = current.getModCount();
+        lastTarget = next;
+        lastTargetModCount = next.getModCount();
+    }
+
+    /**
+     * @param tileX Spalte der Kachel
+     * @param tileY Zeile der Kachel
+     * @return Boolean, ob sich die Kachel oder eine ihrer Nachbarkacheln gegenüber der vorletzten Generation verändert hat
+     * (beim Torus sind die Kacheln am gegenüberliegenden Rand auch Nachbaren)
+     */
+    private boolean isActive(int tileX, int tileY) {
+        for (int dy = -1; dy <= 1; dy++) {
+            int y = boundary == Boundary.TORUS ? (tileY + dy + tilesY) % tilesY : tileY + dy;
+            if (y < 0 || y >= tilesY) {
+                continue;
+            }
+            for (int dx = -1; dx <= 1; dx++) {
+                int x = boundary == Boundary.TORUS ? (tileX + dx + tilesX) % tilesX : tileX + dx;
+                if (x >= 0 && x < tilesX && changed[y * tilesX + x]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Boolean, ob sich die neu berechneten Wörter der Kachel von den vorher gespeicherten unterscheiden
+     */
+    private boolean hasChanged(Board next, int rowStart, int rowEnd, int tileX) {
+        int wordsPerRow = next.getWordsPerRow();
+        long difference = 0;
+        for (int y = rowStart; y < rowEnd; y++) {
+            difference |= previousWords[y - rowStart] ^ next.alive[y * wordsPerRow + tileX];
+        }
+        return difference != 0;
+    }
+
+    /**
+     * Legt die Markierungen für die Grösse des Spielfeldes neu an. Alle Kacheln gelten als verändert.
+     *
+     * @param board Spielfeld
+     */
+    private void resize(Board board) {
+        tilesX = board.getWordsPerRow();
+        tilesY = (board.getHeight() + TILE_ROWS - 1) / TILE_ROWS;
+        if (changed.length != tilesX * tilesY) {
+            changed = new boolean[tilesX * tilesY];
+            nextChanged = new boolean[tilesX * tilesY];
+            quietFades = new int[tilesX * tilesY];
+        }
+        Arrays.fill(changed, true);
+        Arrays.fill(quietFades, 0);
+    }
+
+    /**
+     * @return Anteil der Kacheln, die in der letzten Generation neu berechnet wurden (0 - 1)
+     */
+    public double getActiveTileFraction() {
+        int tiles = tilesX * tilesY;
+        return tiles == 0 ? 0 : (double) activeTiles / tiles;
+    }
+
+    @Override
+    public String getStatus() {
+        return Math.round(getActiveTileFraction() * 100) + "%";
+    }
+}
@@ -0,0 +1,182 @@
+package history;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Verlauf, der die Generationen als Keyframes und Deltas im Speicher hält (siehe FrameHistory).
+ *
+ * Übersteigt der Speicherbedarf das Budget, werden zuerst die Deltas der ältesten Abschnitte entfernt
+ * (ältere Generationen bleiben nur noch bei jedem Keyframe erhalten, die neuesten vollständig).
+ * Reicht das nicht, werden die ältesten Generationen ganz entfernt.
+ */
+public class DeltaHistory extends FrameHistory {
+    // Budget in MB, kann mit -Dgol.history.budget=N festgelegt werden
+    public static final long DEFAULT_BUDGET = Long.getLong("gol.history.budget", 64) * 1024 * 1024;
+    // Abstand der Keyframes, kann mit -Dgol.history.keyframes=N festgelegt werden
+    public static final int DEFAULT_KEYFRAME_INTERVAL = Integer.getInteger("gol.history.keyframes", 64);
+
+    // Geschätzter Speicherbedarf eines Eintrages ohne die Daten (Objekt, Array Header, Referenz in der Liste)
+    private static final int ENTRY_OVERHEAD = 64;
+
+    /**
+     * Eine gespeicherte Generation.
+     */
+    private static final class Entry {
+        long generation;
+        // Anzahl Farbstufen seit der vorherigen Generation (nur für Deltas)
+        int fadeSteps;
+        boolean keyframe;
+        byte[] data;
+
+        long size() {
+            return ENTRY_OVERHEAD + data.length;
+        }
+    }
+
+    private final long budget;
+
+    // Die ältesten Generationen werden nicht sofort aus der Liste entfernt, sondern nur auf null gesetzt.
+    // Die gespeicherten Generationen beginnen bei first, erst wenn das mehr als die Hälfte der Liste ist,
+    // werden die entfernten auf einmal gelöscht (so kostet das Entfernen der ältesten Generation nicht jedes Mal
+    // das Verschieben aller anderen)
+    private final ArrayList<Entry> entries = new ArrayList<>();
+    private int first;
+    // Index in entries des ältesten Keyframes, dessen Abschnitt noch nicht ausgedünnt wurde
+    // (davor gibt es nur noch Keyframes)
+    private int thinned;
+    private long memoryUsage;
+
+    /**
+     * Konstruktor mit dem Budget und Keyframe Abstand aus den System Properties.
+     */
+    public DeltaHistory() {
+        this(DEFAULT_BUDGET, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * @param budget           Maximaler Speicherbedarf in Bytes
+     * @param keyframeInterval Spätestens nach so vielen Generationen wird ein Keyframe gespeichert (mindestens 1)
+     */
+    public DeltaHistory(long budget, int keyframeInterval) {
+        super(keyframeInterval);
+        this.budget = budget;
+    }
+
+    @Override
+    public int size() {
+        return entries.size() - first;
+    }
+
+    @Override
+    public long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    @Override
+    protected void append(long generation, int fadeSteps, boolean keyframe, byte[] data) {
+        Entry entry = new Entry();
+        entry.generation = generation;
+        entry.fadeSteps = fadeSteps;
+        entry.keyframe = keyframe;
+        entry.data = data;
+        entries.add(entry);
+        memoryUsage += entry.size();
+    }
+
+    @Override
+    protected void truncate(int size) {
+        List<Entry> removed = entries.subList(first + size, entries.size());
+        for (Entry entry : removed) {
+            memoryUsage -= entry.size();
+        }
+        removed.clear();
+        if (size == 0) {
+            entries.clear();
+            first = 0;
+        }
+        // Die letzte verbleibende Generation im ausgedünnten Teil ist ein Keyframe
+        thinned = Math.max(first, Math.min(thinned, entries.size() - 1));
+    }
+
+    @Override
+    protected long getGeneration(int index) {
+        return entries.get(first + index).generation;
+    }
+
+    @Override
+    protected boolean isKeyframe(int index) {
+        return entries.get(first + index).keyframe;
+    }
+
+    @Override
+    protected int getFadeSteps(int index) {
+        return entries.get(first + index).fadeSteps;
+    }
+
+    @Override
+    protected byte[] getData(int index) {
+        return entries.get(first + index).data;
+    }
+
+    @Override
+    protected void afterPush() {
+        if (memoryUsage > budget) {
+            evict();
+        }
+    }
+
+    /**
+     * Entfernt Generationen, bis der Speicherbedarf wieder im Budget liegt.
+     * Zuerst werden die Deltas der ältesten Abschnitte entfernt (ausser im neuesten Abschnitt),
+     * danach die ältesten Generationen.
+     */
+    private void evict() {
+        // Ein Abschnitt wird nur ganz ausgedünnt, da jedes Delta auf dem vorherigen aufbaut.
+        // Die bereits ausgedünnten Abschnitte werden nicht mehr durchsucht
+        while (memoryUsage > budget) {
+            int next = thinned + 1;
+            while (next < entries.size() && !entries.get(next).keyframe) {
+                next++;
+            }
+            if (next == entries.size()) {
+                // Der neueste Abschnitt bleibt vollständig
+                break;
+            }
+            List<Entry> deltas = entries.subList(thinned + 1, next);
+            for (Entry entry : deltas) {
+                memoryUsage -= entry.size();
+            }
+            deltas.clear();
+            thinned++;
+        }
+
+        while (memoryUsage > budget && size() > 1) {
+            removeOldest();
+        }
+    }
+
+    /**
+     * Entfernt die älteste Generation. Ist die nächste Generation ein Delta, wird sie zuerst als Keyframe gespeichert.
+     */
+    private void removeOldest() {
+        Entry second = entries.get(first + 1);
+        if (!second.keyframe) {
+            Entry keyframe = new Entry();
+            keyframe.generation = second.generation;
+            keyframe.keyframe = true;
+            keyframe.data = encodeKeyframe(reconstruct(1));
+            entries.set(first + 1, keyframe);
+            memoryUsage += keyframe.size() - second.size();
+        }
+        memoryUsage -= entries.set(first, null).size();
+        first++;
+        thinned = Math.max(thinned, first);
+
+        if (first > entries.size() / 2) {
+            entries.subList(0, first).clear();
+            thinned -= first;
+            first = 0;
+        }
+    }
+}
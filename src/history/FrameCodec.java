@@ -0,0 +1,259 @@
+package history;
+
+import engine.Board;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Kodiert Generationen für den Verlauf in kompakte byte Arrays.
+ *
+ * Ein Keyframe enthält die ganze Generation: das Bitfeld (nur die Wörter, in denen etwas lebt)
+ * und das mit Deflate komprimierte Alter der Zellen (zuerst alle tiefen, dann alle hohen Bytes,
+ * die hohen Bytes sind fast alle gleich und lassen sich sehr gut komprimieren).
+ * Ein Delta enthält nur die Unterschiede des Bitfeldes zur vorherigen Generation (XOR).
+ * Die Wörter ohne Unterschied werden nicht gespeichert, sondern nur gezählt (Lauflänge).
+ * Das Alter wird beim Dekodieren aus der vorherigen Generation neu berechnet.
+ *
+ * Aufbau der Wörter: wiederholt (Anzahl übersprungener Nullwörter als varint, Wort mit 8 Bytes).
+ */
+final class FrameCodec {
+    // Zwischenspeicher für das Resultat, wächst bei Bedarf
+    private byte[] buffer = new byte[4096];
+    private int length;
+
+    // Zwischenspeicher für das Alter der Zellen eines Spielfeldes, aufgeteilt in tiefe und hohe Bytes
+    private short[] ages = new short[0];
+    private byte[] low = new byte[0];
+    private byte[] high = new byte[0];
+
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final Inflater inflater = new Inflater();
+
+    /**
+     * @param board Spielfeld
+     * @return Keyframe mit dem Bitfeld und dem Alter der Zellen des Spielfeldes
+     */
+    byte[] encodeKeyframe(Board board) {
+        length = 0;
+        ensureAges(board);
+
+        // Länge der Wörter voraus, damit beim Dekodieren das Alter gefunden wird
+        int wordsStart = 5;
+        length = wordsStart;
+        writeWords(board, null);
+        int wordsLength = length - wordsStart;
+        int lengthBytes = varintSize(wordsLength);
+        System.arraycopy(buffer, wordsStart, buffer, lengthBytes, wordsLength);
+        length = 0;
+        writeVarint(wordsLength);
+        length += wordsLength;
+
+        board.getAges(ages);
+        for (int i = 0; i < ages.length; i++) {
+            low[i] = (byte) ages[i];
+            high[i] = (byte) (ages[i] >>> 8);
+        }
+        deflater.reset();
+        deflate(low, false);
+        deflate(high, true);
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Schreibt einen Keyframe in ein Spielfeld gleicher Grösse.
+     *
+     * @param data   Keyframe
+     * @param target Spielfeld, in welches geschrieben wird
+     */
+    void decodeKeyframe(byte[] data, Board target) {
+        ensureAges(target);
+
+        int[] position = {0};
+        int wordsLength = (int) readVarint(data, position);
+        int wordsEnd = position[0] + wordsLength;
+        // Zu einem Keyframe gibt es keine vorherige Generation, es gab also auch keine Geburten und Tode
+        target.clear();
+        readWords(data, position[0], wordsEnd, target, null);
+
+        inflater.reset();
+        inflater.setInput(data, wordsEnd, data.length - wordsEnd);
+        inflate(low);
+        inflate(high);
+        for (int i = 0; i < ages.length; i++) {
+            ages[i] = (short) ((low[i] & 0xFF) | high[i] << 8);
+        }
+        target.setAges(ages);
+    }
+
+    /**
+     * @param previous Spielfeld der vorherigen Generation
+     * @param board    Spielfeld gleicher Grösse mit der neuen Generation
+     * @return Delta mit den Unterschieden im Bitfeld
+     */
+    byte[] encodeDelta(Board previous, Board board) {
+        length = 0;
+        writeWords(board, previous);
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Berechnet eine Generation aus der vorherigen und einem Delta.
+     *
+     * @param data      Delta
+     * @param previous  Spielfeld der vorherigen Generation
+     * @param target    Spielfeld gleicher Grösse, in welches die Generation geschrieben wird
+     * @param fadeSteps Anzahl Farbstufen zwischen den beiden Generationen
+     */
+    void applyDelta(byte[] data, Board previous, Board target, int fadeSteps) {
+        for (int i = 0; i < target.getWordCount(); i++) {
+            target.setWord(i, previous.getWord(i));
+        }
+        readWords(data, 0, data.length, target, previous);
+        target.updateColors(previous, 0, target.getHeight(), fadeSteps);
+    }
+
+    /**
+     * Schreibt alle Wörter des Bitfeldes, die nicht 0 sind (bzw. sich von base unterscheiden).
+     *
+     * @param board Spielfeld
+     * @param base  Spielfeld, zu dem die Unterschiede geschrieben werden, oder null
+     */
+    private void writeWords(Board board, Board base) {
+        int skipped = 0;
+        for (int i = 0; i < board.getWordCount(); i++) {
+            long word = board.getWord(i);
+            if (base != null) {
+                word ^= base.getWord(i);
+            }
+            if (word == 0) {
+                skipped++;
+                continue;
+            }
+            writeVarint(skipped);
+            ensureCapacity(8);
+            for (int b = 0; b < 8; b++) {
+                buffer[length++] = (byte) (word >>> (b * 8));
+            }
+            skipped = 0;
+        }
+    }
+
+    /**
+     * Liest die Wörter zwischen from und to und schreibt sie in das Spielfeld.
+     *
+     * @param base Spielfeld, zu dem die Wörter Unterschiede sind (die Wörter werden mit XOR angewendet), oder null
+     */
+    private static void readWords(byte[] data, int from, int to, Board target, Board base) {
+        int[] position = {from};
+        int index = 0;
+        while (position[0] < to) {
+            index += (int) readVarint(data, position);
+            long word = 0;
+            for (int b = 0; b < 8; b++) {
+                word |= (data[position[0]++] & 0xFFL) << (b * 8);
+            }
+            if (base != null) {
+                word ^= base.getWord(index);
+            }
+            target.setWord(index, word);
+            index++;
+        }
+    }
+
+    /**
+     * Komprimiert ein Array an das Ende des Zwischenspeichers.
+     *
+     * @param input  Daten
+     * @param finish Boolean, ob es die letzten Daten sind
+     */
+    private void deflate(byte[] input, boolean finish) {
+        deflater.setInput(input);
+        if (finish) {
+            deflater.finish();
+        }
+        while (finish ? !deflater.finished() : !deflater.needsInput()) {
+            ensureCapacity(4096);
+            length += deflater.deflate(buffer, length, buffer.length - length);
+        }
+    }
+
+    /**
+     * Entpackt genau output.length Bytes.
+     *
+     * @param output Array, welches ganz gefüllt wird
+     */
+    private void inflate(byte[] output) {
+        try {
+            int read = 0;
+            while (read < output.length) {
+                int count = inflater.inflate(output, read, output.length - read);
+                if (count == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IllegalStateException("Keyframe ist unvollständig");
+                }
+                read += count;
+            }
+        } catch (DataFormatException ex) {
+            throw new IllegalStateException("Keyframe ist beschädigt", ex);
+        }
+    }
+
+    /**
+     * Schreibt eine Zahl mit 7 Bits pro Byte (das oberste Bit zeigt an, ob noch ein Byte folgt).
+     */
+    private void writeVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+
+    /**
+     * Liest eine Zahl, die mit writeVarint() geschrieben wurde.
+     *
+     * @param position Leseposition, wird hinter die Zahl verschoben
+     */
+    private static long readVarint(byte[] data, int[] position) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = data[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    /**
+     * @return Anzahl Bytes, die writeVarint() für die Zahl braucht
+     */
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (length + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + additional));
+        }
+    }
+
+    private void ensureAges(Board board) {
+        int cells = board.getWidth() * board.getHeight();
+        if (ages.length != cells) {
+            ages = new short[cells];
+            low = new byte[cells];
+            high = new byte[cells];
+        }
+    }
+}
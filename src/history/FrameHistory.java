@@ -0,0 +1,281 @@
+package history;
+
+import engine.Board;
+
+/**
+ * Gemeinsame Logik der Verläufe, welche die Generationen als Keyframes und Deltas speichern.
+ *
+ * Nach jedem Keyframe folgen bis zu keyframeInterval - 1 Deltas, welche nur die Unterschiede im Bitfeld enthalten.
+ * Die Farben einer Generation werden aus der vorherigen neu berechnet. Das stimmt nur, wenn die Engine die
+ * Generation direkt aus der zuletzt gespeicherten berechnet hat. Sonst (z.B. weil Zellen bearbeitet wurden,
+ * dann ist fadeSteps -1) wird stattdessen ein Keyframe gespeichert.
+ * Um eine Generation wiederherzustellen, werden ab dem letzten Keyframe davor alle Deltas angewendet.
+ *
+ * Alle gespeicherten Generationen haben die gleiche Grösse. Beim Lesen bekommt das Spielfeld diese Grösse.
+ * Hat das Spielfeld beim Speichern eine andere Grösse, beginnt ein Verlauf im Speicher neu. Ein Verlauf, der
+ * einen Neustart überdauern soll (isPersistent()), wird dagegen nie gelöscht: er speichert nichts, bis das
+ * Spielfeld wieder die Grösse der gespeicherten Generationen hat.
+ *
+ * Die Unterklassen legen fest, wo die kodierten Generationen gespeichert werden.
+ */
+public abstract class FrameHistory implements History {
+    private final int keyframeInterval;
+    private int deltasSinceKeyframe;
+
+    private final FrameCodec codec = new FrameCodec();
+
+    // Grösse der gespeicherten Generationen
+    private int width;
+    private int height;
+
+    // Kopie der zuletzt gespeicherten Generation, von der aus das nächste Delta berechnet wird
+    private Board last;
+    private boolean lastValid;
+    // Spielfelder zum Wiederherstellen der Generationen
+    private Board scratch;
+    private Board scratchOther;
+
+    /**
+     * @param keyframeInterval Spätestens nach so vielen Generationen wird ein Keyframe gespeichert (mindestens 1)
+     */
+    protected FrameHistory(int keyframeInterval) {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Abstand der Keyframes muss mindestens 1 sein: " + keyframeInterval);
+        }
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    @Override
+    public void push(Board board, int fadeSteps) {
+        if (!fits(board)) {
+            if (isPersistent() && size() > 0) {
+                return;
+            }
+            // Generationen einer anderen Grösse können nicht zusammen mit dieser gespeichert werden
+            clear();
+            width = board.getWidth();
+            height = board.getHeight();
+            resized(width, height);
+        }
+        prepareBoards();
+
+        // Neuere Generationen gehören zu einem anderen Verlauf (es wurde zurück gesprungen)
+        int size = size();
+        if (size > 0 && getGeneration(size - 1) >= board.getGeneration()) {
+            int first = indexOf(board.getGeneration());
+            truncate(getGeneration(first) < board.getGeneration() ? first + 1 : first);
+            lastValid = false;
+        }
+
+        if (canStoreDelta(board, fadeSteps)) {
+            append(board.getGeneration(), fadeSteps, false, codec.encodeDelta(last, board));
+            deltasSinceKeyframe++;
+        } else {
+            append(board.getGeneration(), 0, true, codec.encodeKeyframe(board));
+            deltasSinceKeyframe = 0;
+        }
+
+        last.copyFrom(board);
+        lastValid = true;
+        afterPush();
+    }
+
+    /**
+     * @return Boolean, ob die Generation als Delta gespeichert werden kann, also ob sie unverändert aus der zuletzt
+     * gespeicherten Generation berechnet wurde (dann werden die Farben wieder genau gleich berechnet)
+     */
+    private boolean canStoreDelta(Board board, int fadeSteps) {
+        if (!lastValid || size() == 0 || fadeSteps < 0 || deltasSinceKeyframe + 1 >= keyframeInterval) {
+            return false;
+        }
+        // Nach einem Sprung oder einer nicht gespeicherten Wiederholung fehlen Generationen dazwischen
+        return board.getGeneration() == getGeneration(size() - 1) + 1;
+    }
+
+    @Override
+    public boolean restore(long generation, Board target) {
+        if (size() == 0) {
+            return false;
+        }
+        int index = indexOf(generation);
+        target.copyFrom(reconstruct(index));
+
+        // Die wiederhergestellte Generation ist jetzt die aktuelle, sie und alle neueren werden entfernt
+        truncate(index);
+        lastValid = false;
+        return true;
+    }
+
+    @Override
+    public boolean read(long generation, Board target) {
+        if (size() == 0) {
+            return false;
+        }
+        target.copyFrom(reconstruct(indexOf(generation)));
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        truncate(0);
+        deltasSinceKeyframe = 0;
+        lastValid = false;
+    }
+
+    @Override
+    public long getLastGeneration() {
+        int size = size();
+        return size == 0 ? -1 : getGeneration(size - 1);
+    }
+
+    /**
+     * @return Index der neuesten Generation mit einer Nummer von höchstens generation (oder 0, wenn es keine gibt)
+     */
+    protected int indexOf(long generation) {
+        int low = 0;
+        int high = size() - 1;
+        int found = 0;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (getGeneration(middle) <= generation) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Stellt eine Generation ab dem letzten Keyframe davor wieder her.
+     *
+     * @param index Index der Generation
+     * @return Eines der beiden Hilfsspielfelder mit der Generation (bis zum nächsten Aufruf gültig)
+     */
+    protected Board reconstruct(int index) {
+        prepareBoards();
+        int keyframe = index;
+        while (!isKeyframe(keyframe)) {
+            keyframe--;
+        }
+
+        Board current = scratch;
+        Board next = scratchOther;
+        codec.decodeKeyframe(getData(keyframe), current);
+        for (int i = keyframe + 1; i <= index; i++) {
+            codec.applyDelta(getData(i), current, next, getFadeSteps(i));
+            Board swap = current;
+            current = next;
+            next = swap;
+        }
+        current.setGeneration(getGeneration(index));
+        return current;
+    }
+
+    /**
+     * @param board Spielfeld
+     * @return Keyframe mit der ganzen Generation des Spielfeldes
+     */
+    protected byte[] encodeKeyframe(Board board) {
+        return codec.encodeKeyframe(board);
+    }
+
+    /**
+     * Legt die Hilfsspielfelder in der Grösse der gespeicherten Generationen an, falls es sie noch nicht gibt.
+     * Nach einer Änderung der Grösse werden die bestehenden angepasst (ihre Arrays werden wenn möglich weiter
+     * verwendet).
+     */
+    private void prepareBoards() {
+        if (last == null) {
+            last = new Board(width, height);
+            scratch = new Board(width, height);
+            scratchOther = new Board(width, height);
+            lastValid = false;
+        } else if (last.getWidth() != width || last.getHeight() != height) {
+            last.resize(width, height);
+            scratch.resize(width, height);
+            scratchOther.resize(width, height);
+            lastValid = false;
+        }
+    }
+
+    /**
+     * @return Boolean, ob die gespeicherten Generationen die gleiche Grösse wie das Spielfeld haben
+     */
+    private boolean fits(Board board) {
+        return width == board.getWidth() && height == board.getHeight();
+    }
+
+    /**
+     * @return Boolean, ob der Verlauf einen Neustart überdauert und deshalb bei einer anderen Grösse des Spielfeldes
+     * nicht gelöscht wird
+     */
+    protected boolean isPersistent() {
+        return false;
+    }
+
+    /**
+     * Wird nach jeder gespeicherten Generation aufgerufen (z.B. um das Budget einzuhalten).
+     */
+    protected void afterPush() {
+    }
+
+    /**
+     * Wird aufgerufen, wenn Generationen einer neuen Grösse gespeichert werden (der Verlauf ist dann leer).
+     *
+     * @param width  Anzahl Spalten
+     * @param height Anzahl Zeilen
+     */
+    protected void resized(int width, int height) {
+    }
+
+    /**
+     * Legt die Grösse bereits gespeicherter Generationen fest (z.B. beim Öffnen eines gespeicherten Verlaufs).
+     *
+     * @param width  Anzahl Spalten
+     * @param height Anzahl Zeilen
+     */
+    protected void setSize(int width, int height) {
+        this.width = width;
+        this.height = height;
+        lastValid = false;
+    }
+
+    /**
+     * Speichert eine kodierte Generation am Ende.
+     *
+     * @param generation Nummer der Generation
+     * @param fadeSteps  Anzahl Farbstufen seit der vorherigen Generation (nur für Deltas)
+     * @param keyframe   Boolean, ob es ein Keyframe ist
+     * @param data       Kodierte Generation
+     */
+    protected abstract void append(long generation, int fadeSteps, boolean keyframe, byte[] data);
+
+    /**
+     * Entfernt alle Generationen ab dem Index.
+     *
+     * @param size Anzahl Generationen, die bleiben
+     */
+    protected abstract void truncate(int size);
+
+    /**
+     * @return Nummer der Generation am Index
+     */
+    protected abstract long getGeneration(int index);
+
+    /**
+     * @return Boolean, ob die Generation am Index ein Keyframe ist
+     */
+    protected abstract boolean isKeyframe(int index);
+
+    /**
+     * @return Anzahl Farbstufen zwischen der Generation am Index und der vorherigen
+     */
+    protected abstract int getFadeSteps(int index);
+
+    /**
+     * @return Kodierte Generation am Index
+     */
+    protected abstract byte[] getData(int index);
+}
@@ -0,0 +1,62 @@
+package history;
+
+import engine.Board;
+
+/**
+ * Verlauf der vergangenen Generationen, damit zu einer früheren Generation zurück gesprungen werden kann.
+ * Die Generationen werden in aufsteigender Reihenfolge gespeichert.
+ */
+public interface History {
+
+    /**
+     * Speichert eine Generation am Ende des Verlaufs. Das Spielfeld wird dabei nur gelesen.
+     * Gespeicherte Generationen mit einer gleichen oder höheren Nummer werden vorher entfernt
+     * (z.B. wenn nach einem Sprung zurück neu weiter gerechnet wird).
+     *
+     * @param board     Spielfeld mit der Generation
+     * @param fadeSteps Anzahl Farbstufen seit der vorherigen Generation (oder -1, wenn das Spielfeld danach
+     *                  noch bearbeitet wurde und die Farben deshalb nicht daraus berechnet werden können)
+     */
+    void push(Board board, int fadeSteps);
+
+    /**
+     * Stellt die neueste gespeicherte Generation wieder her, deren Nummer höchstens generation ist.
+     * Gibt es keine solche Generation mehr, wird die älteste gespeicherte genommen.
+     * Die wiederhergestellte und alle neueren Generationen werden aus dem Verlauf entfernt.
+     *
+     * @param generation Nummer der gewünschten Generation
+     * @param target     Spielfeld, in welches die Generation geschrieben wird (es bekommt deren Grösse)
+     * @return Boolean, ob eine Generation wiederhergestellt wurde (false, wenn der Verlauf leer ist)
+     */
+    boolean restore(long generation, Board target);
+
+    /**
+     * Liest die neueste gespeicherte Generation, deren Nummer höchstens generation ist
+     * (oder die älteste, wenn es keine solche gibt). Der Verlauf bleibt dabei unverändert.
+     *
+     * @param generation Nummer der gewünschten Generation
+     * @param target     Spielfeld, in welches die Generation geschrieben wird (es bekommt deren Grösse)
+     * @return Boolean, ob eine Generation gelesen wurde (false, wenn der Verlauf leer ist)
+     */
+    boolean read(long generation, Board target);
+
+    /**
+     * Löscht alle gespeicherten Generationen.
+     */
+    void clear();
+
+    /**
+     * @return Anzahl gespeicherter Generationen
+     */
+    int size();
+
+    /**
+     * @return Nummer der neuesten gespeicherten Generation (oder -1, wenn der Verlauf leer ist)
+     */
+    long getLastGeneration();
+
+    /**
+     * @return Ungefährer Speicherbedarf aller gespeicherten Generationen in Bytes
+     */
+    long getMemoryUsage();
+}
@@ -0,0 +1,261 @@
+package history;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * Verlauf, der die Generationen als Keyframes und Deltas (siehe FrameHistory) in Dateien auf der Festplatte
+ * speichert, so können auch Millionen von Generationen gespeichert werden.
+ *
+ * Die kodierten Generationen werden an eine Datendatei angehängt, eine Indexdatei enthält pro Generation
+ * einen Eintrag fester Grösse (Nummer, Position und Länge in der Datendatei). Beide Dateien werden in
+ * Bereichen von REGION_SIZE Bytes in den Speicher gemappt, eine Generation wird also direkt aus der Datei
+ * gelesen, ohne den ganzen Verlauf in den Heap zu laden. Grosse Generationen (z.B. Keyframes sehr grosser
+ * Spielfelder) können über mehrere Bereiche gehen.
+ * Der Verlauf bleibt nach einem Neustart erhalten und kann mit dem gleichen Pfad wieder geöffnet werden.
+ */
+public class MappedHistory extends FrameHistory implements AutoCloseable {
+    // Kennung am Anfang der Indexdatei ("GOLT")
+    private static final int MAGIC = 0x474F4C54;
+    // Version 2: Keyframes enthalten das Alter der Zellen statt Rot und Blau
+    private static final int VERSION = 2;
+
+    // Kopf der Indexdatei: Kennung, Version, Breite, Höhe, Anzahl Generationen
+    private static final int HEADER_SIZE = 64;
+    private static final int HEADER_WIDTH = 8;
+    private static final int HEADER_HEIGHT = 12;
+    private static final int HEADER_COUNT = 16;
+
+    // Eintrag im Index: Nummer der Generation, Position und Länge der Daten, Farbstufen, Keyframe
+    private static final int RECORD_SIZE = 32;
+    private static final int RECORD_OFFSET = 8;
+    private static final int RECORD_LENGTH = 16;
+    private static final int RECORD_FADE_STEPS = 20;
+    private static final int RECORD_KEYFRAME = 24;
+
+    // Grösse der gemappten Bereiche (ein Vielfaches von RECORD_SIZE, damit ein Eintrag im Index nie auf zwei liegt)
+    private static final int REGION_SIZE = 1 << 26;
+
+    private final FileChannel indexChannel;
+    private final FileChannel dataChannel;
+    private final MappedByteBuffer header;
+    private final ArrayList<MappedByteBuffer> indexRegions = new ArrayList<>();
+    private final ArrayList<MappedByteBuffer> dataRegions = new ArrayList<>();
+
+    private int count;
+    // Position nach der letzten Generation in der Datendatei
+    private long dataEnd;
+
+    /**
+     * Öffnet einen gespeicherten Verlauf oder legt einen neuen an.
+     * Die Dateien heissen wie der Pfad mit der Endung ".idx" bzw. ".dat".
+     *
+     * @param path             Pfad der Dateien (ohne Endung)
+     * @param keyframeInterval Spätestens nach so vielen Generationen wird ein Keyframe gespeichert (mindestens 1)
+     * @throws IOException Wenn die Dateien nicht geöffnet werden können oder kein Verlauf sind
+     */
+    public MappedHistory(Path path, int keyframeInterval) throws IOException {
+        super(keyframeInterval);
+        Path indexPath = path.resolveSibling(path.getFileName() + ".idx");
+        Path dataPath = path.resolveSibling(path.getFileName() + ".dat");
+        boolean exists = Files.exists(indexPath) && Files.size(indexPath) >= HEADER_SIZE;
+
+        indexChannel = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        dataChannel = FileChannel.open(dataPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        header = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+
+        if (exists) {
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                close();
+                throw new IOException("Keine Verlaufsdatei: " + indexPath);
+            }
+            count = header.getInt(HEADER_COUNT);
+            setSize(header.getInt(HEADER_WIDTH), header.getInt(HEADER_HEIGHT));
+            if (count > 0) {
+                dataEnd = getOffset(count - 1) + getLength(count - 1);
+            }
+        } else {
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putInt(HEADER_COUNT, 0);
+        }
+    }
+
+    /**
+     * Öffnet einen Verlauf mit dem Keyframe Abstand aus den System Properties.
+     *
+     * @param path Pfad der Dateien (ohne Endung)
+     * @throws IOException Wenn die Dateien nicht geöffnet werden können oder kein Verlauf sind
+     */
+    public MappedHistory(Path path) throws IOException {
+        this(path, DeltaHistory.DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public long getMemoryUsage() {
+        // Im Heap liegen nur die Hilfsspielfelder, die Generationen belegen Platz auf der Festplatte
+        return dataEnd + HEADER_SIZE + (long) count * RECORD_SIZE;
+    }
+
+    @Override
+    protected void append(long generation, int fadeSteps, boolean keyframe, byte[] data) {
+        long offset = dataEnd;
+        // Die Generation wird in Stücken in die Bereiche geschrieben, über die sie geht
+        for (int done = 0; done < data.length; ) {
+            ByteBuffer region = dataRegion(offset + done);
+            int length = Math.min(data.length - done, region.remaining());
+            region.put(data, done, length);
+            done += length;
+        }
+
+        long recordPosition = (long) count * RECORD_SIZE;
+        MappedByteBuffer records = region(indexRegions, indexChannel, HEADER_SIZE, recordPosition);
+        int record = (int) (recordPosition % REGION_SIZE);
+        records.putLong(record, generation);
+        records.putLong(record + RECORD_OFFSET, offset);
+        records.putInt(record + RECORD_LENGTH, data.length);
+        records.putInt(record + RECORD_FADE_STEPS, fadeSteps);
+        records.putInt(record + RECORD_KEYFRAME, keyframe ? 1 : 0);
+
+        // Die Anzahl wird erst geschrieben, wenn die Generation vollständig in den Dateien steht
+        count++;
+        dataEnd = offset + data.length;
+        header.putInt(HEADER_COUNT, count);
+    }
+
+    @Override
+    protected void truncate(int size) {
+        if (size >= count) {
+            return;
+        }
+        count = size;
+        dataEnd = count == 0 ? 0 : getOffset(count - 1) + getLength(count - 1);
+        header.putInt(HEADER_COUNT, count);
+    }
+
+    @Override
+    protected boolean isPersistent() {
+        return true;
+    }
+
+    @Override
+    protected void resized(int width, int height) {
+        header.putInt(HEADER_WIDTH, width);
+        header.putInt(HEADER_HEIGHT, height);
+    }
+
+    @Override
+    protected long getGeneration(int index) {
+        return record(index).getLong(recordIndex(index));
+    }
+
+    @Override
+    protected boolean isKeyframe(int index) {
+        return record(index).getInt(recordIndex(index) + RECORD_KEYFRAME) != 0;
+    }
+
+    @Override
+    protected int getFadeSteps(int index) {
+        return record(index).getInt(recordIndex(index) + RECORD_FADE_STEPS);
+    }
+
+    @Override
+    protected byte[] getData(int index) {
+        long offset = getOffset(index);
+        byte[] data = new byte[getLength(index)];
+        for (int done = 0; done < data.length; ) {
+            ByteBuffer region = dataRegion(offset + done);
+            int length = Math.min(data.length - done, region.remaining());
+            region.get(data, done, length);
+            done += length;
+        }
+        return data;
+    }
+
+    /**
+     * Schreibt alle Änderungen auf die Festplatte und schliesst die Dateien.
+     */
+    @Override
+    public void close() {
+        try {
+            header.force();
+            for (MappedByteBuffer region : indexRegions) {
+                region.force();
+            }
+            for (MappedByteBuffer region : dataRegions) {
+                region.force();
+            }
+            indexChannel.close();
+            dataChannel.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private long getOffset(int index) {
+        return record(index).getLong(recordIndex(index) + RECORD_OFFSET);
+    }
+
+    private int getLength(int index) {
+        return record(index).getInt(recordIndex(index) + RECORD_LENGTH);
+    }
+
+    /**
+     * @param position Position in der Datendatei
+     * @return Bereich der Datendatei ab dieser Position bis zum Ende des Bereiches
+     */
+    private ByteBuffer dataRegion(long position) {
+        ByteBuffer region = region(dataRegions, dataChannel, 0, position).duplicate();
+        region.position((int) (position % REGION_SIZE));
+        return region;
+    }
+
+    /**
+     * @return Bereich der Indexdatei mit dem Eintrag der Generation
+     */
+    private MappedByteBuffer record(int index) {
+        return region(indexRegions, indexChannel, HEADER_SIZE, (long) index * RECORD_SIZE);
+    }
+
+    /**
+     * @return Position des Eintrages der Generation in seinem Bereich
+     */
+    private static int recordIndex(int index) {
+        return (int) ((long) index * RECORD_SIZE % REGION_SIZE);
+    }
+
+    /**
+     * Gibt den gemappten Bereich zurück, in dem eine Position liegt. Fehlende Bereiche werden gemappt,
+     * die Datei wird dabei wenn nötig vergrössert.
+     *
+     * @param regions  Bereits gemappte Bereiche der Datei
+     * @param channel  Datei
+     * @param start    Position in der Datei, an welcher der erste Bereich beginnt
+     * @param position Position ab start
+     * @return Bereich, in dem die Position liegt
+     */
+    private static MappedByteBuffer region(ArrayList<MappedByteBuffer> regions, FileChannel channel, long start, long position) {
+        int index = (int) (position / REGION_SIZE);
+        try {
+            while (regions.size() <= index) {
+                long regionStart = start + (long) regions.size() * REGION_SIZE;
+                regions.add(channel.map(FileChannel.MapMode.READ_WRITE, regionStart, REGION_SIZE));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return regions.get(index);
+    }
+}
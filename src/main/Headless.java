@@ -0,0 +1,384 @@
+package main;
+
+import engine.Board;
+import engine.Boundary;
+import engine.Engine;
+import engine.EngineType;
+import engine.HashLife;
+import engine.Rule;
+import pattern.Patterns;
+import profiler.Phase;
+import profiler.PhaseStatistics;
+import profiler.Profiler;
+import simulation.CycleDetector;
+import simulation.Statistics;
+import snapshot.SnapshotFile;
+import snapshot.SnapshotInfo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Einstieg in das Programm ohne Fenster (z.B. für lange Experimente auf Servern ohne Bildschirm).
+ * Diese Klasse verwendet nichts von Processing, es wird also weder ein Fenster noch eine Grafikkarte benötigt.
+ *
+ * Aufruf (alle Optionen sind freiwillig):
+ * java -cp ... main.Headless --width=450 --height=250 --seed=1 --probability=30 --generations=1000 --engine=bit
+ *
+ * Am Ende werden die Laufzeit, die Generationen und Zellen pro Sekunde sowie die Anzahl lebender Zellen ausgegeben.
+ * Mit --stats=Datei wird zusätzlich die Anzahl lebender, geborener und gestorbener Zellen pro Generation als CSV gespeichert,
+ * mit --profile=true werden die Laufzeiten der Schritte gemessen und am Ende ausgegeben.
+ * Mit --pattern=Datei wird statt einer zufälligen ersten Generation ein Pattern (RLE oder .cells) geladen,
+ * mit --save=Datei wird die letzte Generation als Pattern gespeichert.
+ * Mit --checkpoint=Datei wird der ganze Zustand alle --checkpoint-interval Sekunden (Standard 60) und am Ende
+ * als binärer Snapshot gespeichert. Existiert die Datei beim Start bereits, wird die Berechnung dort fortgesetzt,
+ * bis insgesamt --generations Generationen erreicht sind (in der Grösse des Checkpoints, --width und --height
+ * werden dann ignoriert).
+ * Wiederholen sich die Generationen (Stillleben, Oszillatoren), wird die Periode ausgegeben. Mit --fast-forward=true
+ * werden danach nur noch die Generationen nach der letzten ganzen Periode berechnet (die übersprungenen werden
+ * separat ausgegeben und zählen nicht zum Durchsatz). Beides nur mit Engines mit
+ * Rand (siehe EngineType.isBounded()), im unbegrenzten Universum kann ein Muster das Spielfeld verlassen.
+ * Mit --rule=B36/S23 (oder dem Namen einer bekannten Regel wie HighLife) wird eine andere Regel als Game of Life
+ * verwendet. Ohne --rule gilt die Regel aus dem Pattern bzw. dem Checkpoint.
+ * Mit --boundary=torus (oder mirror) werden die Zellen ausserhalb des Spielfeldes vom gegenüberliegenden
+ * (bzw. vom eigenen) Rand genommen statt als tot gezählt.
+ */
+public class Headless {
+    // Abstand der Zwischenstände in Sekunden, 0 für keine
+    private static final long DEFAULT_REPORT_SECONDS = 10;
+
+    private int width = 450;
+    private int height = 250;
+    private long seed = System.nanoTime();
+    private int probability = Main.firstGenProbability;
+    private long generations = 1000;
+    private EngineType engineType = EngineType.BIT;
+    // Regel von der Kommandozeile, null für die Regel aus dem Pattern bzw. Checkpoint (sonst Game of Life)
+    private Rule rule;
+    private Boundary boundary = Boundary.DEAD;
+    private long reportSeconds = DEFAULT_REPORT_SECONDS;
+    private Path statsFile;
+    private Path patternFile;
+    private Path saveFile;
+    private Path checkpointFile;
+    private long checkpointSeconds = 60;
+    private boolean fastForward;
+
+    /**
+     * Liest die Optionen von der Kommandozeile (--name=wert).
+     *
+     * @param args Argumente der Kommandozeile
+     */
+    private void parse(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("--help") || arg.equals("-h")) {
+                printUsage();
+                System.exit(0);
+            }
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Unbekanntes Argument: " + arg);
+            }
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            switch (name) {
+                case "width":
+                    width = positive(name, Integer.parseInt(value));
+                    break;
+                case "height":
+                    height = positive(name, Integer.parseInt(value));
+                    break;
+                case "seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "probability":
+                    probability = Integer.parseInt(value);
+                    if (probability < 0 || probability > 100) {
+                        throw new IllegalArgumentException("Wahrscheinlichkeit muss zwischen 0 und 100 liegen: " + value);
+                    }
+                    break;
+                case "generations":
+                    generations = Long.parseLong(value);
+                    if (generations < 0) {
+                        throw new IllegalArgumentException("Anzahl Generationen darf nicht negativ sein: " + value);
+                    }
+                    break;
+                case "engine":
+                    engineType = parseEngine(value);
+                    break;
+                case "rule":
+                    rule = Rule.parse(value);
+                    break;
+                case "boundary":
+                    boundary = parseBoundary(value);
+                    break;
+                case "threads":
+                    EngineType.setThreads(Integer.parseInt(value));
+                    break;
+                case "report":
+                    reportSeconds = Long.parseLong(value);
+                    break;
+                case "stats":
+                    statsFile = Paths.get(value);
+                    break;
+                case "pattern":
+                    patternFile = Paths.get(value);
+                    break;
+                case "save":
+                    saveFile = Paths.get(value);
+                    break;
+                case "checkpoint":
+                    checkpointFile = Paths.get(value);
+                    break;
+                case "checkpoint-interval":
+                    checkpointSeconds = Long.parseLong(value);
+                    if (checkpointSeconds < 1) {
+                        throw new IllegalArgumentException("Checkpoint Intervall muss mindestens 1 Sekunde sein: " + value);
+                    }
+                    break;
+                case "fast-forward":
+                    fastForward = Boolean.parseBoolean(value);
+                    break;
+                case "profile":
+                    Profiler.setEnabled(Boolean.parseBoolean(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unbekannte Option: --" + name);
+            }
+        }
+        if (boundary != Boundary.DEAD && !engineType.isBounded()) {
+            throw new IllegalArgumentException("Engine " + engineType.getLabel() + " hat keinen Rand, --boundary="
+                    + boundary.getLabel().toLowerCase(Locale.ROOT) + " ist nicht möglich");
+        }
+        if (fastForward && !engineType.isBounded()) {
+            throw new IllegalArgumentException("Engine " + engineType.getLabel()
+                    + " hat keinen Rand, --fast-forward ist nicht möglich");
+        }
+    }
+
+    /**
+     * Erstellt die erste Generation und berechnet alle Generationen.
+     *
+     * @throws IOException Wenn das Pattern oder der Checkpoint nicht gelesen oder die Resultate nicht gespeichert werden können
+     */
+    private void run() throws IOException {
+        Board currentGen = new Board(width, height);
+        Board nextGen = new Board(width, height);
+        String initial;
+        String fileRule = null;
+        if (checkpointFile != null && Files.exists(checkpointFile)) {
+            // Fortsetzen beim letzten Checkpoint, das Spielfeld bekommt dabei die Grösse des Checkpoints
+            // (--width und --height gelten dann nicht, beide Spielfelder müssen gleich gross sein)
+            SnapshotInfo info = SnapshotFile.load(checkpointFile, currentGen);
+            width = currentGen.getWidth();
+            height = currentGen.getHeight();
+            nextGen.resize(width, height);
+            seed = info.getSeed();
+            fileRule = info.getRule();
+            initial = "Checkpoint: " + checkpointFile + " at generation " + currentGen.getGeneration();
+        } else if (patternFile != null) {
+            fileRule = Patterns.load(patternFile, currentGen);
+            seed = 0;
+            initial = "Pattern: " + patternFile;
+        } else {
+            currentGen.randomize(new Random(seed), probability);
+            initial = "Seed: " + seed + ", Probability: " + probability + "%";
+        }
+        if (rule == null) {
+            rule = fileRule != null ? Rule.parse(fileRule) : Rule.LIFE;
+        }
+        System.out.println("Board: " + width + " x " + height + ", " + initial
+                + ", Generations: " + generations + ", Engine: " + engineType.getLabel() + ", Rule: " + rule + ", Boundary: " + boundary.getLabel());
+
+        long first = currentGen.getGeneration();
+        int initialPopulation = currentGen.getPopulation();
+        Statistics statistics = new Statistics();
+        statistics.record(currentGen);
+
+        long start = System.nanoTime();
+        long reportInterval = TimeUnit.SECONDS.toNanos(reportSeconds);
+        long nextReport = start + reportInterval;
+        long checkpointInterval = TimeUnit.SECONDS.toNanos(checkpointSeconds);
+        long nextCheckpoint = start + checkpointInterval;
+        CycleDetector cycles = new CycleDetector();
+        // Mit --fast-forward übersprungene Generationen, sie zählen nicht zum Durchsatz
+        long skippedTotal = 0;
+        try (Engine engine = engineType.create(rule, boundary)) {
+            if (engine instanceof HashLife && generations > first) {
+                // HashLife springt direkt über alle Generationen
+                long stepStart = Profiler.start();
+                ((HashLife) engine).advance(currentGen, nextGen, generations - first, true);
+                Profiler.stop(Phase.STEP, stepStart);
+                nextGen.setGeneration(generations);
+                Board swap = currentGen;
+                currentGen = nextGen;
+                nextGen = swap;
+                statistics.record(currentGen);
+            } else {
+                for (long gen = first; gen < generations; gen++) {
+                    // Die Farben verblassen wie im Fenster bei jeder zweiten Generation
+                    long stepStart = Profiler.start();
+                    engine.step(currentGen, nextGen, gen % 2 == 0);
+                    Profiler.stop(Phase.STEP, stepStart);
+                    nextGen.setGeneration(currentGen.getGeneration() + 1);
+                    Board swap = currentGen;
+                    currentGen = nextGen;
+                    nextGen = swap;
+                    statistics.record(currentGen);
+
+                    // Im unbegrenzten Universum zeigt das Spielfeld nur einen Ausschnitt, eine Wiederholung darin
+                    // (z.B. nachdem ein Glider das Spielfeld verlassen hat) gilt nicht für das ganze Universum
+                    if (engineType.isBounded() && cycles.update(currentGen)) {
+                        System.out.println("Cycle: period " + cycles.getPeriod() + " since generation " + cycles.getStart());
+                        if (fastForward) {
+                            // Ganze Perioden verändern die lebenden Zellen nicht, es bleibt nur der Rest zu berechnen
+                            long remaining = generations - currentGen.getGeneration();
+                            long skipped = remaining - remaining % cycles.getPeriod();
+                            currentGen.setGeneration(currentGen.getGeneration() + skipped);
+                            cycles.skip(skipped);
+                            gen += skipped;
+                            skippedTotal += skipped;
+                        }
+                    }
+
+                    if (reportSeconds > 0 && System.nanoTime() >= nextReport) {
+                        report("Progress", currentGen.getGeneration() - first - skippedTotal, System.nanoTime() - start,
+                                currentGen.getPopulation());
+                        nextReport += reportInterval;
+                    }
+                    if (checkpointFile != null && System.nanoTime() >= nextCheckpoint) {
+                        saveCheckpoint(currentGen);
+                        nextCheckpoint = System.nanoTime() + checkpointInterval;
+                    }
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (checkpointFile != null) {
+            saveCheckpoint(currentGen);
+            System.out.println("Checkpoint written to " + checkpointFile);
+        }
+
+        System.out.println("Initial population: " + initialPopulation);
+        report("Done", currentGen.getGeneration() - first - skippedTotal, elapsed, currentGen.getPopulation());
+        if (skippedTotal > 0) {
+            System.out.println("Skipped: " + skippedTotal + " generations (cycle), now at generation "
+                    + currentGen.getGeneration());
+        }
+        if (Profiler.isEnabled()) {
+            PhaseStatistics step = Profiler.getStatistics(Phase.STEP);
+            System.out.println(String.format(Locale.ROOT, "Step (last %d): min %.1f us, avg %.1f us, p99 %.1f us",
+                    Math.min(step.getCount(), Profiler.SAMPLES), step.getMin(), step.getAverage(), step.getP99()));
+        }
+
+        if (statsFile != null) {
+            statistics.export(statsFile);
+            System.out.println("Statistics: " + statistics.size() + " generations written to " + statsFile);
+        }
+        if (saveFile != null) {
+            Patterns.save(currentGen, saveFile, rule.toString());
+            System.out.println("Last generation written to " + saveFile);
+        }
+    }
+
+    /**
+     * Speichert den ganzen Zustand der Generation im Checkpoint.
+     *
+     * @param board Aktuelle Generation
+     * @throws IOException Wenn der Checkpoint nicht geschrieben werden kann
+     */
+    private void saveCheckpoint(Board board) throws IOException {
+        SnapshotFile.save(checkpointFile, board, new SnapshotInfo(rule.toString(), seed, board.getGeneration()), true);
+    }
+
+    /**
+     * Gibt den Durchsatz und die Anzahl lebender Zellen aus.
+     *
+     * @param label       Bezeichnung der Zeile
+     * @param generations Anzahl berechneter Generationen
+     * @param nanos       Laufzeit in Nanosekunden
+     * @param population  Anzahl lebender Zellen
+     */
+    private void report(String label, long generations, long nanos, int population) {
+        double seconds = nanos / 1e9;
+        double gensPerSecond = seconds > 0 ? generations / seconds : 0;
+        double cellsPerSecond = gensPerSecond * width * height;
+        System.out.println(String.format(Locale.ROOT,
+                "%s: %d gens in %.3f s, %.1f gens/s, %.3e cells/s, population %d",
+                label, generations, seconds, gensPerSecond, cellsPerSecond, population));
+    }
+
+    /**
+     * @param value Name (z.B. "bit") oder Bezeichnung (z.B. "Tiles") der Engine, Gross-/Kleinschreibung egal
+     * @return Typ der Engine
+     */
+    private static EngineType parseEngine(String value) {
+        for (EngineType type : EngineType.values()) {
+            if (type.name().equalsIgnoreCase(value) || type.getLabel().equalsIgnoreCase(value)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unbekannte Engine: " + value);
+    }
+
+    private static Boundary parseBoundary(String value) {
+        for (Boundary boundary : Boundary.values()) {
+            if (boundary.name().equalsIgnoreCase(value)) {
+                return boundary;
+            }
+        }
+        throw new IllegalArgumentException("Unbekannter Rand: " + value);
+    }
+
+    private static int positive(String name, int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException(name + " muss mindestens 1 sein: " + value);
+        }
+        return value;
+    }
+
+    private static void printUsage() {
+        StringBuilder engines = new StringBuilder();
+        for (EngineType type : EngineType.values()) {
+            if (engines.length() > 0) {
+                engines.append(", ");
+            }
+            engines.append(type.name().toLowerCase(Locale.ROOT));
+        }
+        System.out.println("Usage: main.Headless [--width=N] [--height=N] [--seed=N] [--probability=0-100]");
+        System.out.println("                     [--generations=N] [--engine=NAME] [--threads=N] [--report=SECONDS]");
+        System.out.println("                     [--stats=FILE.csv] [--profile=true]");
+        System.out.println("                     [--pattern=FILE.rle|.cells] [--save=FILE.rle|.cells]");
+        System.out.println("                     [--checkpoint=FILE.gol] [--checkpoint-interval=SECONDS]");
+        System.out.println("                     [--fast-forward=true] [--rule=B3/S23|NAME]");
+        System.out.println("                     [--boundary=dead|torus|mirror]");
+        System.out.println("Engines: " + engines);
+    }
+
+    /**
+     * Einstieg ohne Fenster.
+     *
+     * @param args Optionen, siehe printUsage()
+     */
+    public static void main(String[] args) {
+        Headless headless = new Headless();
+        try {
+            headless.parse(args);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            printUsage();
+            System.exit(2);
+        }
+        try {
+            headless.run();
+        } catch (IOException ex) {
+            System.err.println("Fehler: " + ex);
+            System.exit(1);
+        }
+    }
+}
@@ -1,10 +1,33 @@
 package main;
 
 import components.*;
+import engine.Boundary;
+import engine.EngineType;
+import engine.Rule;
+import history.DeltaHistory;
+import history.History;
+import history.MappedHistory;
 import processing.core.PApplet;
-
-import java.util.ArrayList;
-import java.util.Random;
+import processing.core.PImage;
+import processing.event.MouseEvent;
+import profiler.Phase;
+import profiler.Profiler;
+import recording.FrameEncoder;
+import recording.GifEncoder;
+import recording.OverflowPolicy;
+import recording.PngSequenceEncoder;
+import recording.Recorder;
+import simulation.Simulation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.swing.JOptionPane;
 
 /**
  * Main Klasse des Programms. Diese Klasse enthält die Logik des GoL.
@@ -14,23 +37,70 @@ import java.util.Random;
  */
 public class Main extends PApplet {
 
-    public static final int cellSize = 2;
+    // Breite und Höhe einer Zelle in Pixel (Zweierpotenz), bestimmt zusammen mit dem Fenster die Grösse des
+    // Spielfeldes; kann mit 'n' geändert werden, gezoomt wird unabhängig davon mit der BoardView
+    public static int cellSize = 2;
     public static final int componentWidth = 150;
     public static final int componentHeight = 50;
 
+    // Grösse des Fensters beim Start (mit -Dgol.fullscreen=true wird der ganze Bildschirm verwendet)
     public static final int windowWidth = 900;
     public static final int windowHeight = 600;
     // Breite des GoL Feldes
     public static int sketchWidth = windowWidth;
     // Höhe des GoL Feldes
     public static int sketchHeight = windowHeight - (2 * componentHeight);
+    // Anzahl Pixel, um welche die Pfeiltasten den Ausschnitt verschieben
+    private static final int panStep = 100;
+    // Millisekunden, welche die Grösse des Fensters gleich bleiben muss, bevor Spielfeld und Bild angepasst werden
+    // (beim Ziehen am Fenster wird so nur einmal am Ende neu angelegt)
+    private static final int resizeDelay = 200;
+    // Eingabe im Dialog für die Grösse: Spalten x Zeilen oder nur die Zellgrösse
+    private static final Pattern boardSizePattern = Pattern.compile("(\\d+)\\s*[xX*]\\s*(\\d+)");
 
     // Prozentsatz, wie viele Zellen zu Beginn leben sollen
     public static final int firstGenProbability = 30;
 
-    private Cell[][] currentGen;
-    // Arrayliste mit allen vergangen Genertationen
-    private ArrayList<Cell[][]> previousGens;
+    // Berechnet die Generationen in einem eigenen Thread
+    private Simulation simulation;
+    // Alle vergangenen Generationen (als Keyframes und Deltas, im Speicher oder mit -Dgol.history.file in einer Datei)
+    private History previousGens;
+
+    // Nummer, Anzahl lebender, geborener und gestorbener Zellen der zuletzt gezeichneten Generation
+    private long displayedGen;
+    private int livingCells;
+    private int births;
+    private int deaths;
+
+    // Zeichnet den sichtbaren Ausschnitt des Spielfeldes als ein Bild (verschieben mit gedrückter mittlerer
+    // Maustaste oder den Pfeiltasten, zoomen mit dem Mausrad oder '+' / '-', 'f' zeigt das ganze Spielfeld)
+    private BoardView boardView;
+    // Boolean, ob das Spielfeld mit dem Fenster wächst und schrumpft (nicht, wenn die Grösse mit -Dgol.width und
+    // -Dgol.height oder im Dialog ('n') als Anzahl Zellen festgelegt wurde)
+    private boolean boardFollowsWindow;
+    // Fenstergrösse, für welche die Komponenten angeordnet sind, und Zeitpunkt (millis()) der letzten Änderung,
+    // die noch nicht an Spielfeld und BoardView weitergegeben wurde (-1, wenn keine aussteht)
+    private int layoutWidth;
+    private int layoutHeight;
+    private int resizeTime = -1;
+    // Fenstergrösse vor dem Wechsel mit 'm' auf die Grösse des Bildschirms (0, wenn das Fenster nicht maximiert ist)
+    private int restoreWidth;
+    private int restoreHeight;
+    // Eingabe aus dem Dialog für die Grösse, wird im Animations Thread übernommen (null, wenn keine aussteht)
+    private volatile String sizeInput;
+    // Laufzeiten des Profilers über dem Spielfeld, wird mit 'o' ein- und ausgeschaltet
+    private ProfilerOverlay profilerOverlay;
+    private boolean overlayVisible;
+
+    // Aufnahme der gezeichneten Generationen, wird mit 'v' gestartet und beendet (null, wenn nicht aufgenommen wird)
+    private Recorder recorder;
+    private long recordedGen;
+    // Schreibt die Bilder des Fensters (Taste 'p') im Hintergrund, wird beim ersten Bild erstellt
+    private Recorder screenshots;
+
+    // Regel und Rand, die im Titel des Fensters stehen (werden mit 'b' bzw. 't' gewechselt)
+    private Rule titleRule;
+    private Boundary titleBoundary;
 
     private PButton buttonStartStop;
     private PButton buttonClear;
@@ -38,6 +108,8 @@ public class Main extends PApplet {
     private PButton buttonPrevious;
     private PButton buttonNext;
     private PButton buttonSave;
+    private PButton buttonEngine;
+    private PButton buttonGoto;
 
     private PLabel lblCellCounter;
     private PLabel lblInfo;
@@ -50,16 +122,17 @@ public class Main extends PApplet {
     // Boolean, ob das Spiel läuft oder nicht
     public static boolean running;
 
-    public static int counter = 0;
-
     /**
      * Diese Methode wird beim Programmstart als erstes aufgerufen.
-     * Die Methode legt die Fenstergrösse fest.
+     * Die Methode legt die Fenstergrösse fest (mit -Dgol.fullscreen=true der ganze Bildschirm).
      */
     @Override
     public void settings() {
-        size(windowWidth, windowHeight);
-//        fullScreen();
+        if (Boolean.getBoolean("gol.fullscreen")) {
+            fullScreen();
+        } else {
+            size(windowWidth, windowHeight);
+        }
     }
 
     /**
@@ -69,37 +142,208 @@ public class Main extends PApplet {
      */
     @Override
     public void setup() {
-//        sketchWidth = width;
-//        sketchHeight = height;
-        previousGens = new ArrayList<>();
+        // Das Fenster kann vergrössert werden, das Spielfeld und die Komponenten passen sich in draw() an
+        surface.setResizable(true);
+        sketchWidth = width;
+        sketchHeight = Math.max(1, height - 2 * componentHeight);
+        layoutWidth = width;
+        layoutHeight = height;
+        previousGens = createHistory();
+        // Mit -Dgol.width=N und -Dgol.height=N kann das Spielfeld grösser als das Fenster sein (Standard: so viele
+        // Zellen, wie mit cellSize ins Fenster passen, dann wächst das Spielfeld mit dem Fenster)
+        boardFollowsWindow = Integer.getInteger("gol.width") == null && Integer.getInteger("gol.height") == null;
+        int boardWidth = Integer.getInteger("gol.width", Math.max(1, sketchWidth / cellSize));
+        int boardHeight = Integer.getInteger("gol.height", Math.max(1, sketchHeight / cellSize));
+        simulation = new Simulation(boardWidth, boardHeight, previousGens, EngineType.BIT);
+        boardView = new BoardView(0, 0, sketchWidth, sketchHeight, cellSize);
+        profilerOverlay = new ProfilerOverlay(10, 10);
+        Profiler.registerMBean();
         frameRate(100);
         textSize(14);
-        prepareFirstGen();
         initComponents();
-        updateUI();
         running = false;
+        // Wiederholen sich die Generationen (Stillleben, Oszillatoren), hält die Simulation an (-Dgol.cycle.pause=false zum Weiterlaufen)
+        simulation.setPauseOnCycle(Boolean.parseBoolean(System.getProperty("gol.cycle.pause", "true")));
+        // Mit -Dgol.rule=B36/S23 (oder dem Namen einer bekannten Regel) wird eine andere Regel als GoL verwendet
+        String rule = System.getProperty("gol.rule");
+        if (rule != null) {
+            simulation.setRule(Rule.parse(rule));
+        }
+        // Mit -Dgol.boundary=torus (oder mirror) sind die Zellen ausserhalb des Spielfeldes nicht mehr tot
+        String boundary = System.getProperty("gol.boundary");
+        if (boundary != null) {
+            simulation.setBoundary(Boundary.valueOf(boundary.toUpperCase(Locale.ROOT)));
+        }
+        // Mit -Dgol.checkpoint.file=Pfad wird die aktuelle Generation regelmässig gespeichert
+        // (alle -Dgol.checkpoint.seconds=N Sekunden, Standard 60) und beim nächsten Start wieder geladen
+        String checkpoint = System.getProperty("gol.checkpoint.file");
+        if (checkpoint != null) {
+            simulation.setCheckpoint(Paths.get(checkpoint), Long.getLong("gol.checkpoint.seconds", 60));
+        }
+        // Ein Checkpoint oder ein gespeicherter Verlauf wird bei der neuesten Generation fortgesetzt, sonst wird eine
+        // zufällige erste Generation erstellt (jede Zelle lebt mit der Wahrscheinlichkeit firstGenProbability)
+        simulation.start(firstGenProbability);
     }
 
     /**
      * Diese Mehthode wird einmal pro Frame aufgerufen (bei 30 FPS, 30 mal in der Sekunde)
-     * Das aktuelle Fenster wird mit background() komplett übermalt. Wenn das GoL läuft, wird alle
-     * 0.5 Sekunden eine neue Generation vorbereitet.
-     * Danach wird das Komplette GoL Spielfeld, sowie die GUI Komponenten gezeichnet.
+     * Die Generationen werden unabhängig davon im Thread der Simulation berechnet, hier wird
+     * nur die zuletzt berechnete Generation gezeichnet, sowie die GUI Komponenten.
      */
     @Override
     public void draw() {
-        // Komplettes Fenster Weiss übermalen
-        background(255);
-
-        if (running){ // && counter % (100 / Integer.parseInt(txtGensPerSecond.getText())) == 0){
-            prepareNextGen();
+        resizeIfNeeded();
+
+        // Nur den Bereich der GUI Komponenten weiss übermalen, das Spielfeld bleibt stehen und
+        // es werden nur die veränderten Zellen neu gezeichnet
+        pushStyle();
+        noStroke();
+        fill(255);
+        rect(0, sketchHeight, width, height - sketchHeight);
+        popStyle();
+
+        // Die gewünschte Anzahl Generationen pro Sekunde an die Simulation weitergeben (0 = so schnell wie möglich)
+        if (!txtGensPerSecond.getText().equals("")) {
+            simulation.setTargetGensPerSecond(Double.parseDouble(txtGensPerSecond.getText()));
         }
-        if (running){
-            counter++;
+
+        // Hat die Simulation von selbst angehalten (Wiederholung oder Fehler), werden die Buttons wieder aktiviert
+        if (simulation.takeAutoPause()) {
+            running = false;
+            enableComponents();
         }
+
         // Spielfeld und GUI zeichnen
+        drawBoard();
+        long start = Profiler.start();
         updateUI();
         drawWindow();
+        Profiler.stop(Phase.UI, start);
+        drawProfilerOverlay();
+    }
+
+    /**
+     * Passt das Spielfeld an, wenn sich die Grösse des Fensters geändert hat oder im Dialog eine neue Grösse
+     * eingegeben wurde. Die Komponenten werden sofort verschoben, Spielfeld und Bild der BoardView erst, wenn das
+     * Fenster resizeDelay Millisekunden gleich gross geblieben ist. Beim Ziehen am Fenster werden so nicht für jede
+     * Zwischengrösse neue Arrays angelegt.
+     */
+    private void resizeIfNeeded() {
+        if (width != layoutWidth || height != layoutHeight) {
+            layoutWidth = width;
+            layoutHeight = height;
+            sketchWidth = width;
+            sketchHeight = Math.max(1, height - 2 * componentHeight);
+            layoutComponents();
+            // Der Inhalt des Fensters ist nach einer Änderung der Grösse nicht mehr gültig
+            background(255);
+            boardView.repaint();
+            resizeTime = millis();
+        } else if (resizeTime >= 0 && millis() - resizeTime >= resizeDelay) {
+            resizeTime = -1;
+            boardView.setSize(sketchWidth, sketchHeight);
+            if (boardFollowsWindow) {
+                simulation.resize(Math.max(1, sketchWidth / cellSize), Math.max(1, sketchHeight / cellSize));
+            }
+        }
+
+        String input = sizeInput;
+        if (input != null) {
+            sizeInput = null;
+            applySizeInput(input);
+        }
+    }
+
+    /**
+     * Übernimmt die Eingabe aus dem Dialog für die Grösse ('n'): "Spalten x Zeilen" legt die Grösse des Spielfeldes
+     * fest (es folgt dann nicht mehr dem Fenster), eine einzelne Zahl ist die neue Zellgrösse in Pixel (das Spielfeld
+     * füllt danach wieder das Fenster).
+     *
+     * @param input Eingabe
+     */
+    private void applySizeInput(String input) {
+        try {
+            Matcher matcher = boardSizePattern.matcher(input);
+            if (matcher.matches()) {
+                simulation.resize(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+                boardFollowsWindow = false;
+            } else {
+                int size = Integer.parseInt(input);
+                boardView.setCellSize(size);
+                cellSize = size;
+                boardFollowsWindow = true;
+                simulation.resize(Math.max(1, sketchWidth / cellSize), Math.max(1, sketchHeight / cellSize));
+            }
+        } catch (IllegalArgumentException ex) {
+            // Auch NumberFormatException, z.B. bei einer zu grossen Zahl
+            System.err.println("Ungültige Grösse \"" + input + "\": " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Öffnet den Dialog für die Grösse des Spielfeldes. Wie bei selectInput() wartet ein eigener Thread auf die
+     * Eingabe, das Fenster wird unterdessen weiter gezeichnet.
+     */
+    private void askBoardSize() {
+        Thread dialog = new Thread(() -> {
+            String input = JOptionPane.showInputDialog(null,
+                    "Spalten x Zeilen (z.B. 4000x3000) oder Zellgrösse in Pixel (1, 2, 4, ... 32)",
+                    simulation.getWidth() + "x" + simulation.getHeight());
+            if (input != null && !input.trim().isEmpty()) {
+                sizeInput = input.trim();
+            }
+        }, "GoL-Size");
+        dialog.setDaemon(true);
+        dialog.start();
+    }
+
+    /**
+     * Wechselt zwischen der Grösse des Bildschirms und der vorherigen Grösse des Fensters ('m'). Das Spielfeld passt
+     * sich wie beim Ziehen am Fenster an (ein echter Vollbildmodus geht nur beim Start, mit -Dgol.fullscreen=true).
+     */
+    private void toggleMaximized() {
+        if (restoreWidth == 0) {
+            restoreWidth = width;
+            restoreHeight = height;
+            surface.setLocation(0, 0);
+            surface.setSize(displayWidth, displayHeight);
+        } else {
+            surface.setSize(restoreWidth, restoreHeight);
+            restoreWidth = 0;
+            restoreHeight = 0;
+        }
+    }
+
+    /**
+     * Verschiebt die Komponenten unter das Spielfeld (zwei Zeilen am unteren Rand des Fensters).
+     */
+    private void layoutComponents() {
+        int top = sketchHeight;
+        int bottom = sketchHeight + componentHeight;
+        for (BaseComponent component : new BaseComponent[]{buttonStartStop, buttonClear, buttonRandom, buttonSave,
+                lblCellCounter, lblInfo}) {
+            component.setY(top);
+        }
+        for (BaseComponent component : new BaseComponent[]{lblGenerationJumps, txtGenerations, buttonGoto,
+                buttonPrevious, buttonNext, lblGensPerSecond, txtGensPerSecond, buttonEngine}) {
+            component.setY(bottom);
+        }
+    }
+
+    /**
+     * Zeichnet die Laufzeiten des Profilers über das Spielfeld, solange er eingeschaltet ist.
+     * Das Spielfeld wird dafür jedes Mal wieder ganz ins Fenster kopiert (und einmal nach dem Ausschalten,
+     * damit das Overlay verschwindet).
+     */
+    private void drawProfilerOverlay() {
+        if (Profiler.isEnabled()) {
+            profilerOverlay.draw(this);
+            overlayVisible = true;
+            boardView.repaint();
+        } else if (overlayVisible) {
+            overlayVisible = false;
+            boardView.repaint();
+        }
     }
 
     /**
@@ -123,13 +367,191 @@ public class Main extends PApplet {
         }
 
         if (key == 's'){
-            running = !running;
+            setRunning(!running);
         } else if (key == 'a'){
             setPreviousGen();
         } else if(key == 'd'){
-            prepareNextGen();
+            simulation.step(1);
         } else if(key == 'p'){
-            save("/src/images/save_image" + System.currentTimeMillis() + ".jpg");
+            saveScreenshot();
+        } else if (key == 'v'){
+            if (recorder == null) {
+                startRecording();
+            } else {
+                stopRecording();
+            }
+        } else if (key == 'e'){
+            simulation.setEngine(simulation.getEngineType().next());
+        } else if (key == 'b'){
+            simulation.setRule(simulation.getRule().next());
+        } else if (key == 't'){
+            simulation.setBoundary(simulation.getBoundary().next());
+        } else if (key == 'g'){
+            goToGen();
+        } else if (key == 'c'){
+            exportStatistics();
+        } else if (key == 'o'){
+            Profiler.setEnabled(!Profiler.isEnabled());
+        } else if (key == 'l'){
+            selectInput("Pattern laden (.rle oder .cells)", "patternSelected");
+        } else if (key == 'x'){
+            selectOutput("Pattern speichern (.rle oder .cells)", "patternSaveSelected");
+        } else if (key == 'r'){
+            selectInput("Snapshot laden (.gol)", "snapshotSelected");
+        } else if (key == '+' || key == '='){
+            boardView.zoom(1);
+        } else if (key == '-'){
+            boardView.zoom(-1);
+        } else if (key == 'f'){
+            boardView.fit();
+        } else if (key == 'n'){
+            askBoardSize();
+        } else if (key == 'm'){
+            toggleMaximized();
+        } else if (key == CODED){
+            panWithKey();
+        }
+    }
+
+    /**
+     * Verschiebt den Ausschnitt des Spielfeldes mit den Pfeiltasten.
+     */
+    private void panWithKey() {
+        if (keyCode == LEFT) {
+            boardView.pan(-panStep, 0);
+        } else if (keyCode == RIGHT) {
+            boardView.pan(panStep, 0);
+        } else if (keyCode == UP) {
+            boardView.pan(0, -panStep);
+        } else if (keyCode == DOWN) {
+            boardView.pan(0, panStep);
+        }
+    }
+
+    /**
+     * Diese Methode wird aufgerufen, wenn das Mausrad gedreht wird. Über dem Spielfeld wird um die Position
+     * der Maus gezoomt (vom Benutzer weg drehen zoomt hinein).
+     */
+    @Override
+    public void mouseWheel(MouseEvent event) {
+        if (mouseY < sketchHeight) {
+            boardView.zoomAt(-event.getCount(), mouseX, mouseY);
+        }
+    }
+
+    /**
+     * Wird von Processing aufgerufen, wenn im Dialog ein Snapshot zum Laden gewählt wurde.
+     *
+     * @param file Gewählte Datei oder null, wenn der Dialog abgebrochen wurde
+     */
+    public void snapshotSelected(File file) {
+        if (file != null) {
+            simulation.loadSnapshot(file.toPath());
+        }
+    }
+
+    /**
+     * Wird von Processing aufgerufen, wenn im Dialog eine Datei zum Speichern des Snapshots gewählt wurde.
+     *
+     * @param file Gewählte Datei oder null, wenn der Dialog abgebrochen wurde
+     */
+    public void snapshotSaveSelected(File file) {
+        if (file != null) {
+            simulation.saveSnapshot(file.toPath(), true);
+        }
+    }
+
+    /**
+     * Wird von Processing aufgerufen, wenn im Dialog eine Datei zum Laden gewählt wurde.
+     *
+     * @param file Gewählte Datei oder null, wenn der Dialog abgebrochen wurde
+     */
+    public void patternSelected(File file) {
+        if (file != null) {
+            simulation.loadPattern(file.toPath());
+        }
+    }
+
+    /**
+     * Wird von Processing aufgerufen, wenn im Dialog eine Datei zum Speichern gewählt wurde.
+     *
+     * @param file Gewählte Datei oder null, wenn der Dialog abgebrochen wurde
+     */
+    public void patternSaveSelected(File file) {
+        if (file != null) {
+            simulation.savePattern(file.toPath());
+        }
+    }
+
+    /**
+     * Speichert ein Bild des ganzen Fensters als PNG in src/images. Hier werden nur die Pixel kopiert,
+     * das Kodieren und Schreiben passiert im Hintergrund.
+     */
+    private void saveScreenshot() {
+        try {
+            if (screenshots == null) {
+                screenshots = new Recorder(new PngSequenceEncoder(Paths.get(sketchPath("src/images")), "save_image"),
+                        4, OverflowPolicy.BLOCK, 1);
+            }
+            loadPixels();
+            screenshots.submit(pixels, pixelWidth, pixelHeight, System.currentTimeMillis());
+        } catch (IOException ex) {
+            System.err.println("Bild kann nicht gespeichert werden: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Startet eine Aufnahme: jede neu gezeichnete Generation wird als Bild an den Recorder gegeben.
+     * Die Simulation wartet nie auf die Aufnahme, es werden also die Generationen aufgenommen, die gezeichnet werden.
+     *
+     * Einstellungen über System Properties:
+     * gol.record.format (png für einzelne Bilder oder gif, Standard png), gol.record.dir (Ordner, Standard recordings),
+     * gol.record.delay (Millisekunden pro Bild im GIF, Standard 40), gol.record.queue (Anzahl Bildpuffer, Standard 64),
+     * gol.record.policy (drop oder block, wenn alle Puffer belegt sind, Standard drop) und
+     * gol.record.threads (Anzahl Threads zum Schreiben der PNGs, Standard Anzahl Kerne - 2).
+     */
+    private void startRecording() {
+        Path directory = Paths.get(System.getProperty("gol.record.dir", sketchPath("recordings")));
+        String name = "run" + System.currentTimeMillis();
+        String format = System.getProperty("gol.record.format", "png");
+        try {
+            FrameEncoder encoder;
+            if (format.equalsIgnoreCase("gif")) {
+                Files.createDirectories(directory);
+                encoder = new GifEncoder(directory.resolve(name + ".gif"), Integer.getInteger("gol.record.delay", 40));
+            } else {
+                encoder = new PngSequenceEncoder(directory.resolve(name), "frame");
+            }
+            OverflowPolicy policy = OverflowPolicy.valueOf(System.getProperty("gol.record.policy", "drop").toUpperCase(Locale.ROOT));
+            // Der Simulations- und der Animations Thread brauchen je einen Kern
+            int threads = Integer.getInteger("gol.record.threads", Math.max(1, Runtime.getRuntime().availableProcessors() - 2));
+            recorder = new Recorder(encoder, Integer.getInteger("gol.record.queue", 64), policy, threads);
+            recordedGen = -1;
+            System.out.println("Aufnahme gestartet: " + directory.resolve(name));
+        } catch (IOException | IllegalArgumentException ex) {
+            System.err.println("Aufnahme kann nicht gestartet werden: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Beendet die Aufnahme. Die restlichen Bilder werden im Hintergrund fertig geschrieben.
+     */
+    private void stopRecording() {
+        recorder.close();
+        System.out.println("Aufnahme beendet, " + recorder.getDropped() + " Bilder verworfen");
+        recorder = null;
+    }
+
+    /**
+     * Speichert die Anzahl lebender, geborener und gestorbener Zellen aller gespeicherten Generationen als CSV Datei.
+     */
+    private void exportStatistics() {
+        String file = "statistics" + System.currentTimeMillis() + ".csv";
+        try {
+            simulation.getStatistics().export(Paths.get(file));
+            System.out.println("Statistik gespeichert: " + file);
+        } catch (IOException ex) {
+            System.err.println("Statistik kann nicht gespeichert werden: " + ex.getMessage());
         }
     }
 
@@ -152,6 +574,8 @@ public class Main extends PApplet {
             buttonPrevious.mousePressed(mouseX, mouseY);
             buttonNext.mousePressed(mouseX, mouseY);
             buttonSave.mousePressed(mouseX, mouseY);
+            buttonEngine.mousePressed(mouseX, mouseY);
+            buttonGoto.mousePressed(mouseX, mouseY);
 
             // Teil der Textbox mit, das die Maus gedrückt wurde
             txtGenerations.mousePressed(mouseX, mouseY);
@@ -161,11 +585,14 @@ public class Main extends PApplet {
 
     /**
      * Diese Methode wird aufgerufen, wenn eine Maustaste gedrückt ist und die Maus bewegt wird.
-     * Wenn das Spiel nicht läuft, wird die geklickte Zelle verarbeitet. (Falls sich die Maus über einer Zelle befindet)
+     * Mit der mittleren Maustaste wird der Ausschnitt verschoben. Sonst wird, wenn das Spiel nicht läuft,
+     * die geklickte Zelle verarbeitet. (Falls sich die Maus über einer Zelle befindet)
      */
     @Override
     public void mouseDragged() {
-        if (!running) {
+        if (mouseButton == CENTER) {
+            boardView.pan(pmouseX - mouseX, pmouseY - mouseY);
+        } else if (!running) {
             processClickedCell();
         }
     }
@@ -182,110 +609,71 @@ public class Main extends PApplet {
         buttonPrevious.mouseReleased();
         buttonNext.mouseReleased();
         buttonSave.mouseReleased();
+        buttonEngine.mouseReleased();
+        buttonGoto.mouseReleased();
     }
 
     /**
      * Diese Methode holt sich die aktuell gedrückte Zelle.
-     * Ist diese Null, wurde keine Zelle gedrückt.
+     * Befindet sich die Maus über keiner Zelle (oder ist so weit herausgezoomt, dass ein Pixel mehrere Zellen
+     * zeigt), passiert nichts.
      * Ansonsten wird die Zelle belebt, wenn die linke Maustaste gedrückt
      * wird und getötet, wenn die rechte Maustaste gedrückt wird.
      */
     private void processClickedCell() {
-        Cell pressedCell = getCell();
-        if (pressedCell != null) {
-            if (mouseButton == LEFT) {
-                pressedCell.revive();
-            } else if (mouseButton == RIGHT) {
-                pressedCell.kill();
-            }
+        // Die BoardView rechnet die Position im Fenster in eine Zelle des Ausschnitts um
+        int column = boardView.getColumn(mouseX);
+        int row = boardView.getRow(mouseY);
+        if (column < 0 || row < 0) {
+            return;
         }
-    }
-
-    /**
-     * Diese Methode bereitet die erste Generation des GoL vor.
-     * Die Anzahl Zellen wird durch SketchHeight/CellSize und SketchWidth/CellSize bestimmt.
-     * Jede Zelle hat eine Wahrscheinlichkeit von firstGenProbability, bei der ersten Generation am Leben zu sein.
-     */
-    private void prepareFirstGen() {
-        Random random = new Random();
-        int randomInt;
-
-        // Initialisierung des Zweidimensionalen Arrays zum Speichern der Zellen
-        currentGen = new Cell[sketchHeight / cellSize][sketchWidth / cellSize];
-
-        // Loop über jede Zellen Position im currentGen Array
-        for (int y = 0; y < sketchHeight / cellSize; y++) {
-            for (int x = 0; x < sketchWidth / cellSize; x++) {
-                // An jeder Position wird ein neues Zellen Objekt instanziert
-                // Die X und Y Koordinate entsprechen ihrer Position im Array * CellSize
-                currentGen[y][x] = new Cell(x * cellSize, y * cellSize);
-
-                // Zufalls Zahl zwischen 0 und 99 (inklusive 0 und 99)
-                randomInt = random.nextInt(100);
-                if (randomInt < firstGenProbability) {
-                    currentGen[y][x].revive();
-                }
-            }
+        if (mouseButton == LEFT) {
+            simulation.setCell(column, row, true);
+        } else if (mouseButton == RIGHT) {
+            simulation.setCell(column, row, false);
         }
-
-        // Zwischengespeicherte Generation löschen
-        previousGens.clear();
     }
 
     /**
-     * Hier wird die nächste Generation des GoL vorbereitet.
+     * Startet oder hält das Spiel an.
+     *
+     * @param running Boolean, ob das Spiel laufen soll
      */
-    private void prepareNextGen() {
-        // Es wird eine Kopie des Spielfeldes gemacht, damit die neue Generation erstellt werden kann
-        Cell[][] nextGen = getDeepCopy();
-
-        // Die aktuelle Generation wird gespeichert, damit bei Bedarf auf diese Generation zurück gegangen werden kann
-        previousGens.add(currentGen);
-
-        // Loop durch jede Zelle des Spielfeldes der nächsten Generation und bereitet die Zellen vor
-        for (Cell[] cellRow : nextGen) {
-            for (Cell cell : cellRow) {
-                cell.prepareNextGen(currentGen);
-            }
-        }
-
-        // Die vorbereitete Generation wird als aktuelle Generation gesetzt
-        currentGen = nextGen;
+    private void setRunning(boolean running) {
+        Main.running = running;
+        simulation.setRunning(running);
     }
 
     /**
-     * Erstellt eine Kopie des Spielfeldes, inklusiver einer Kopie der Zellen.
-     * Dies ist nötig, weil der Zustand einer Zelle in der nächsten Generation von
-     * den Zuständen seiner Nachbarzellen in der aktuellen Generation abhängt.
-     *
-     * @return Gibt eine tiefe Kopie des Spielfeldes zurück (Kopie des Feldes und der Zellen)
+     * Zeichnet die zuletzt berechnete Generation. Die Simulation verändert sie nicht, solange sie gezeichnet wird.
      */
-    private Cell[][] getDeepCopy() {
-        // Neues Array erstellen
-        Cell[][] copy = new Cell[sketchHeight / cellSize][sketchWidth / cellSize];
-
-        // Loop durch alle Zellen
-        for (int i = 0; i < copy.length; i++) {
-            for (int j = 0; j < copy[i].length; j++) {
-                // Kopie der Zelle erstellen
-                copy[i][j] = currentGen[i][j].getCopy();
+    private void drawBoard() {
+        simulation.withSnapshot(board -> {
+            // Die sichtbaren veränderten Zellen werden in ein Bild geschrieben und auf einmal gezeichnet
+            long start = Profiler.start();
+            boardView.setBoard(board);
+            boardView.draw(this);
+            Profiler.stop(Phase.RENDER, start);
+
+            // Während einer Aufnahme wird jede neue Generation kopiert und im Hintergrund geschrieben
+            if (recorder != null && board.getGeneration() != recordedGen) {
+                PImage image = boardView.getImage();
+                recorder.submit(image.pixels, image.width, image.height, board.getGeneration());
+                recordedGen = board.getGeneration();
             }
-        }
-        return copy;
+
+            displayedGen = board.getGeneration();
+            // Die Zellen wurden schon beim Berechnen der Generation gezählt
+            livingCells = board.getPopulation();
+            births = board.getBirths();
+            deaths = board.getDeaths();
+        });
     }
 
     /**
      * In dieser Methode wird GoL Spielfeld und die GUI Komponenten gezeichnet.
      */
     private void drawWindow() {
-        // Loop durch alle Zellen des Spielfeldes
-        for (Cell[] cellRow : currentGen) {
-            for (Cell cell : cellRow) {
-                // Zeichnen der Zelle
-                cell.draw(this);
-            }
-        }
-
         // Zeichnen der Button
         buttonStartStop.draw(this);
         buttonClear.draw(this);
@@ -293,6 +681,8 @@ public class Main extends PApplet {
         buttonPrevious.draw(this);
         buttonNext.draw(this);
         buttonSave.draw(this);
+        buttonEngine.draw(this);
+        buttonGoto.draw(this);
 
         // Zeichnen der Labels
         lblCellCounter.draw(this);
@@ -312,11 +702,13 @@ public class Main extends PApplet {
         float currentFps = Math.round(frameRate * 1000) / 1000.0f;
 
         // Neue FPS Zahl und Nummer der aktuellen Generation setzten.
-        lblInfo.setText("FPS: " + currentFps + "\nGen: " + previousGens.size());
+        lblInfo.setText("FPS: " + currentFps + "\nGen: " + displayedGen + (recorder != null ? "  REC" : "")
+                + "\nZoom: " + boardView.getZoomLabel());
 
-        // sketchHeight/cellSize ergibt die Anzahl Zeilen, sketchWidth/cellSize ergibt die Anzahl Spalten
-        // Anzahl aller Zeller und Anzahl lebender Zellen setzen
-        lblCellCounter.setText("Cells: " + (sketchHeight / cellSize * sketchWidth / cellSize) + "\nLiving: " + countLivingCells());
+        // Anzahl aller Zeller, Anzahl lebender Zellen und Anzahl im letzten Frame neu gezeichneter Zellen setzen
+        long cells = (long) simulation.getWidth() * simulation.getHeight();
+        lblCellCounter.setText("Cells: " + cells + "\nLiving: " + livingCells
+                + " (+" + births + "/-" + deaths + ")\nDrawn: " + boardView.getUpdatedCells());
 
         // Wenn kein Text in der Textbox steht, wird "0" geschrieben
         // Ansonsten wird die Zahl aus der Textbox verwendet
@@ -327,61 +719,64 @@ public class Main extends PApplet {
             buttonPrevious.setText("Previous " + txtGenerations.getText());
             buttonNext.setText("Skip " + txtGenerations.getText());
         }
-    }
 
-    /**
-     * Diese Methode töte alle Zellen auf dem Spielfeld.
-     */
-    private void killAll() {
-        // Loop durch alle Zellen
-        for (Cell[] cellRow : currentGen) {
-            for (Cell cell : cellRow) {
-                // Zelle töten
-                cell.kill();
-            }
+        // Erreichte und gewünschte Anzahl Generationen pro Sekunde (die gewünschte steht in der Textbox)
+        lblGensPerSecond.setText("Gens/s: " + Math.round(simulation.getAchievedGensPerSecond() * 10) / 10.0f
+                + "\nTarget (0 = max):");
+
+        // Regel und Rand im Titel des Fensters, nur bei einer Änderung neu setzen
+        Rule rule = simulation.getRule();
+        Boundary boundary = simulation.getBoundary();
+        if (!rule.equals(titleRule) || boundary != titleBoundary) {
+            titleRule = rule;
+            titleBoundary = boundary;
+            String name = rule.getName();
+            surface.setTitle("Game of Life - " + (name.equals(rule.toString()) ? name : name + " (" + rule + ")")
+                    + ", " + boundary.getLabel());
+        }
+
+        // Zustand der Engine (z.B. Anteil neu berechneter Kacheln oder Anzahl Chunks), falls sie einen hat
+        String label = simulation.getEngineType().getLabel();
+        String status = simulation.getEngineStatus();
+        if (status != null) {
+            buttonEngine.setText("Engine:\n" + label + " " + status);
+        } else {
+            buttonEngine.setText("Engine:\n" + label);
+        }
+
+        // Grösse des Knoten Caches und Trefferquote der gespeicherten Resultate nach einem HashLife Sprung
+        // (oder eine erkannte Wiederholung, an der gleichen Stelle)
+        String jumpInfo = simulation.getJumpInfo();
+        String cycleInfo = simulation.getCycleInfo();
+        if (cycleInfo != null) {
+            lblGenerationJumps.setText(cycleInfo);
+        } else {
+            lblGenerationJumps.setText(jumpInfo != null ? jumpInfo : "Generation Jumps:");
         }
     }
 
     /**
      * Diese Methode setzt eine frühere Generation als die aktuelle.
      * Die Anzahl Generationen, die zurück gesprungen wird, wird aus dem Textfeld ausgelesen.
-     * Die Nummer der Generation entspricht ihrem Index im Array der vergangenen Generationen.
+     * Nach einem HashLife Sprung oder im ausgedünnten Verlauf fehlen Generationen, dann wird die
+     * letzte gespeicherte Generation davor genommen.
+     * Wenn mehr Generationen zurück gesprungen werden sollen, als überhaupt existieren, wird die erste Generation angezeigt.
      */
     private void setPreviousGen() {
-        // Wenn überhaupt vorherige Generation existieren
-        if (previousGens.size() != 0) {
-            // Wenn die Anzahl Generation die gesprungen werden sollen, nicht leer ist
-            if (!txtGenerations.getText().equals("")) {
-                // Wenn mehr Generationen zurück gesprungen werden sollen, als überhaupt existieren, wird die erste Generation angezeigt
-                if (Integer.parseInt(txtGenerations.getText()) > previousGens.size()) {
-                    // Erste Generation holen
-                    currentGen = previousGens.get(0);
-                    // Alle Zwischengespeicherten Generationen löschen
-                    previousGens.clear();
-                } else {
-                    // die gewünschte Generation holen
-                    currentGen = previousGens.get(previousGens.size() - Integer.parseInt(txtGenerations.getText()));
-                    // die zurückgesprungenen Generationen aus dem Zwischenspeicher löschen
-                    for (int i = 0; i < Integer.parseInt(txtGenerations.getText()); i++) {
-                        previousGens.remove(previousGens.size() - 1);
-                    }
-                }
-            }
+        // Wenn die Anzahl Generation die gesprungen werden sollen, nicht leer ist
+        if (!txtGenerations.getText().equals("")) {
+            simulation.stepBack(Long.parseLong(txtGenerations.getText()));
         }
     }
 
     /**
-     * Diese Methode gibt die Zelle zurück, über welcher sich die Maus befindet.
-     * Befindet sich die Maus über keiner Zelle, wird Null zurück gegeben.
-     *
-     * @return Die Zelle, über der sich die Maus befindet oder Null
+     * Diese Methode springt zu der Generation, deren Nummer im Textfeld steht (vorwärts oder rückwärts).
+     * Der Verlauf bleibt dabei erhalten, erst wenn von dort aus weiter gerechnet wird, werden die
+     * neueren Generationen ersetzt.
      */
-    private Cell getCell() {
-        try {
-            // Integer division -> gibt keine Kommastellen
-            return currentGen[mouseY / cellSize][mouseX / cellSize];
-        } catch (IndexOutOfBoundsException ex) {
-            return null;
+    private void goToGen() {
+        if (!txtGenerations.getText().equals("")) {
+            simulation.goTo(Long.parseLong(txtGenerations.getText()));
         }
     }
 
@@ -390,73 +785,73 @@ public class Main extends PApplet {
      * Zudem wird hier das ButtonEvent der verschiedenen Buttons ausprogrammiert.
      */
     private void initComponents() {
+        // Zwei Zeilen unter dem Spielfeld (siehe layoutComponents())
+        int top = sketchHeight;
+        int bottom = sketchHeight + componentHeight;
+
         // Start/Stop Button
-        buttonStartStop = new PButton(0, 500, componentWidth, componentHeight, "Start / Stop") {
+        buttonStartStop = new PButton(0, top, componentWidth, componentHeight, "Start / Stop") {
             @Override
             public void buttonEvent() {
                 // Wenn das Spiel läuft, wird es angehalten und die deaktivierten Buttons wieder aktiviert
                 if (running) {
-                    running = false;
+                    setRunning(false);
                     enableComponents();
                 } else {
-                    // Wenn Spiel pausiert war, wird es wieder gestartet und die Buttons deaktiviert
-                    running = true;
-                    disableComponents();
-
                     // Falls die Textbox für die Anzahl Generationen pro Sekunden
                     // leer ist, wird sie auf 1 gesetzt.
                     if (txtGensPerSecond.getText().equals("")){
                         txtGensPerSecond.setText("1");
                     }
+
+                    // Wenn Spiel pausiert war, wird es wieder gestartet und die Buttons deaktiviert
+                    setRunning(true);
+                    disableComponents();
                 }
             }
         };
 
         // Clear Button
-        buttonClear = new PButton(150, 500, componentWidth, componentHeight, "Clear") {
+        buttonClear = new PButton(150, top, componentWidth, componentHeight, "Clear") {
             @Override
             public void buttonEvent() {
-                // Töten aller Zellen
-                killAll();
-
-                // Alle Zwischengespeicherten Generationen löschen (Clear setzt die Generation auf 0)
-                previousGens.clear();
+                // Töten aller Zellen und löschen aller zwischengespeicherten Generationen (Clear setzt die Generation auf 0)
+                simulation.clear();
             }
         };
 
         // Random Gen Button
-        buttonRandom = new PButton(300, 500, componentWidth, componentHeight, "Random Generation") {
+        buttonRandom = new PButton(300, top, componentWidth, componentHeight, "Random Generation") {
             @Override
             public void buttonEvent() {
                 // Neue erste Generation setzten
-                prepareFirstGen();
+                simulation.randomize(firstGenProbability);
             }
         };
 
-        // Save Button
-        buttonSave = new PButton(450, 500, componentWidth, componentHeight, "Safe Frame") {
+        // Save Button; speichert den ganzen Zustand der aktuellen Generation (ein Bild des Fensters speichert 'p')
+        buttonSave = new PButton(450, top, componentWidth, componentHeight, "Save State") {
             @Override
             public void buttonEvent() {
-                // Diese Funktion speichert den gesamten Inhalt des aktuellen Programmfensters
-                save("/src/images/save_image" + System.currentTimeMillis() + ".png");
+                selectOutput("Snapshot speichern (.gol)", "snapshotSaveSelected");
             }
         };
 
         // Label CellCounter
-        lblCellCounter = new PLabel(600, 500, componentWidth, componentHeight, "");
+        lblCellCounter = new PLabel(600, top, componentWidth, componentHeight, "");
 
         // Label für FPS und Generationnummer
-        lblInfo = new PLabel(750, 500, componentWidth, componentHeight, "");
+        lblInfo = new PLabel(750, top, componentWidth, componentHeight, "");
 
         // Label Gen Jumps
-        lblGenerationJumps = new PLabel(0, 550, componentWidth, componentHeight,"Generation Jumps:");
+        lblGenerationJumps = new PLabel(0, bottom, componentWidth, componentHeight,"Generation Jumps:");
 
         // Textbox; Dient der Eingabe einer Zahl; die dort eingegebene Zahl wird zum springen zwischen Generationen genutzt
         // Beispiel: Zahl 5 -> 5 Generationen nach vorne oder hinten springen
-        txtGenerations = new PTextbox(150, 550, 50, componentHeight, "1");
+        txtGenerations = new PTextbox(150, bottom, 50, componentHeight, "1");
 
         // Previous Gen Button
-        buttonPrevious = new PButton(300, 550, componentWidth, componentHeight, "") {
+        buttonPrevious = new PButton(300, bottom, componentWidth, componentHeight, "") {
             @Override
             public void buttonEvent() {
                 // Setzt eine vorherige Generation als aktuelle
@@ -466,24 +861,38 @@ public class Main extends PApplet {
         };
 
         // Next Gen Button
-        buttonNext = new PButton(450, 550, componentWidth, componentHeight, "") {
+        buttonNext = new PButton(450, bottom, componentWidth, componentHeight, "") {
             @Override
             public void buttonEvent() {
                 // Die Anzahl Generationen wird aus der Textbox ausgelesen
+                // Die nächsten Generationen vorbereiten (HashLife springt direkt über alle Generationen)
                 if (!txtGenerations.getText().equals("")) {
-                    // Die nächsten Generationen vorbereiten
-                    for (int i = 0; i < Integer.parseInt(txtGenerations.getText()); i++) {
-                        prepareNextGen();
-                    }
+                    simulation.step(Long.parseLong(txtGenerations.getText()));
                 }
             }
         };
 
         // Label für Generation pro Sekunde
-        lblGensPerSecond = new PLabel(600, 550, componentWidth, componentHeight, "Generations per\nsecond:");
+        lblGensPerSecond = new PLabel(600, bottom, componentWidth, componentHeight, "Gens/s: 0\nTarget (0 = max):");
 
         // Textbox zur Eingabe, wie viel Generationen pro Sekunde berechnet werden sollen.
-        txtGensPerSecond = new PTextbox(750, 550, 50, componentHeight, "30");
+        txtGensPerSecond = new PTextbox(750, bottom, 50, componentHeight, "30");
+
+        // Go To Button; springt zu der Generation mit der Nummer aus der Textbox
+        buttonGoto = new PButton(200, bottom, 100, componentHeight, "Go to") {
+            @Override
+            public void buttonEvent() {
+                goToGen();
+            }
+        };
+
+        // Engine Button; wechselt das Verfahren, mit dem die nächste Generation berechnet wird
+        buttonEngine = new PButton(800, bottom, 100, componentHeight, "") {
+            @Override
+            public void buttonEvent() {
+                simulation.setEngine(simulation.getEngineType().next());
+            }
+        };
     }
 
     /**
@@ -495,6 +904,7 @@ public class Main extends PApplet {
         buttonPrevious.setEnabled(false);
         buttonNext.setEnabled(false);
         buttonSave.setEnabled(false);
+        buttonGoto.setEnabled(false);
 
         txtGensPerSecond.setEnable(false);
         txtGenerations.setEnable(false);
@@ -509,28 +919,51 @@ public class Main extends PApplet {
         buttonPrevious.setEnabled(true);
         buttonNext.setEnabled(true);
         buttonSave.setEnabled(true);
+        buttonGoto.setEnabled(true);
 
         txtGensPerSecond.setEnable(true);
         txtGenerations.setEnable(true);
     }
 
     /**
-     * @return Die Anzahl lebender Zellen
+     * Erstellt den Verlauf für die vergangenen Generationen. Mit -Dgol.history.file=Pfad werden die Generationen
+     * in einer Datei gespeichert (bleiben nach einem Neustart erhalten), sonst nur im Speicher.
+     *
+     * @return Verlauf
      */
-    private int countLivingCells() {
-        int livingCells = 0;
+    private History createHistory() {
+        String file = System.getProperty("gol.history.file");
+        if (file != null) {
+            try {
+                return new MappedHistory(Paths.get(file));
+            } catch (IOException ex) {
+                System.err.println("Verlauf kann nicht geöffnet werden: " + ex.getMessage());
+            }
+        }
+        return new DeltaHistory();
+    }
 
-        // Loop durch alle Zellen
-        for (Cell[] cellRow : currentGen) {
-            for (Cell cell : cellRow) {
-                if (cell.isAlive()) {
-                    // Wenn die Zelle lebt, den Counter erhöhen
-                    livingCells++;
+    /**
+     * Wird beim Beenden des Programms aufgerufen. Die Simulation (mit der Engine) und der Verlauf geben ihre Ressourcen frei.
+     */
+    @Override
+    public void dispose() {
+        // Eine laufende Aufnahme und die Bilder des Fensters werden noch fertig geschrieben
+        for (Recorder pending : new Recorder[]{recorder, screenshots}) {
+            if (pending != null) {
+                pending.close();
+                try {
+                    pending.awaitTermination();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
                 }
             }
         }
-
-        return livingCells;
+        simulation.close();
+        if (previousGens instanceof MappedHistory) {
+            ((MappedHistory) previousGens).close();
+        }
+        super.dispose();
     }
 
     /**
@@ -0,0 +1,86 @@
+package pattern;
+
+import engine.Board;
+
+/**
+ * Hilfsfunktionen, um die lebenden Zellen eines Spielfeldes wortweise im Bitfeld zu finden.
+ */
+final class BoardScan {
+    // Kleinstes Rechteck mit allen lebenden Zellen (maxX und maxY inklusive), minX > maxX wenn keine Zelle lebt
+    int minX = Integer.MAX_VALUE;
+    int minY = Integer.MAX_VALUE;
+    int maxX = -1;
+    int maxY = -1;
+
+    /**
+     * Sucht das kleinste Rechteck mit allen lebenden Zellen.
+     *
+     * @param board Spielfeld
+     */
+    BoardScan(Board board) {
+        int wordsPerRow = board.getWordsPerRow();
+        for (int y = 0; y < board.getHeight(); y++) {
+            for (int w = 0; w < wordsPerRow; w++) {
+                long word = board.getWord(y * wordsPerRow + w);
+                if (word != 0) {
+                    minY = Math.min(minY, y);
+                    maxY = y;
+                    minX = Math.min(minX, (w << 6) + Long.numberOfTrailingZeros(word));
+                    maxX = Math.max(maxX, (w << 6) + 63 - Long.numberOfLeadingZeros(word));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Boolean, ob keine Zelle lebt
+     */
+    boolean isEmpty() {
+        return maxY < 0;
+    }
+
+    /**
+     * @return Breite des Rechtecks
+     */
+    int getWidth() {
+        return isEmpty() ? 0 : maxX - minX + 1;
+    }
+
+    /**
+     * @return Höhe des Rechtecks
+     */
+    int getHeight() {
+        return isEmpty() ? 0 : maxY - minY + 1;
+    }
+
+    /**
+     * Sucht in einer Zeile ab der Spalte x die erste Zelle mit einem anderen Status.
+     *
+     * @param board Spielfeld
+     * @param y     Zeile
+     * @param x     Spalte, ab der gesucht wird
+     * @param alive Status der Zellen ab x
+     * @param limit Spalte nach der letzten, die durchsucht wird
+     * @return Spalte der ersten Zelle mit einem anderen Status oder limit
+     */
+    static int nextChange(Board board, int y, int x, boolean alive, int limit) {
+        int wordsPerRow = board.getWordsPerRow();
+        int w = x >>> 6;
+        long word = board.getWord(y * wordsPerRow + w);
+        if (alive) {
+            word = ~word;
+        }
+        word &= -1L << x;
+        while (word == 0) {
+            w++;
+            if (w << 6 >= limit) {
+                return limit;
+            }
+            word = board.getWord(y * wordsPerRow + w);
+            if (alive) {
+                word = ~word;
+            }
+        }
+        return Math.min(limit, (w << 6) + Long.numberOfTrailingZeros(word));
+    }
+}
@@ -0,0 +1,106 @@
+package pattern;
+
+import engine.Board;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Liest ein Pattern im Plaintext Format (.cells), z.B.:
+ * <pre>
+ * !Name: Glider
+ * .O.
+ * ..O
+ * OOO
+ * </pre>
+ * Zeilen mit '!' am Anfang sind Kommentare, 'O' (oder '*') ist eine lebende Zelle, alles andere eine tote.
+ * Die Zellen werden direkt im Stream gelesen und als Läufe ins Bitfeld geschrieben.
+ * Die Grösse steht nicht in der Datei, sie kann mit measure() in einem ersten Durchgang bestimmt werden.
+ */
+public class CellsReader {
+    private final CharInput input;
+
+    private int width;
+    private int height;
+
+    /**
+     * @param reader Quelle des Patterns
+     */
+    public CellsReader(Reader reader) {
+        input = new CharInput(reader);
+    }
+
+    /**
+     * Liest das ganze Pattern, ohne Zellen zu beleben, und bestimmt seine Grösse.
+     *
+     * @throws IOException Wenn nicht gelesen werden kann
+     */
+    public void measure() throws IOException {
+        read(null, 0, 0);
+    }
+
+    /**
+     * Schreibt die Zellen des Patterns ins Spielfeld. Es werden nur Zellen belebt, Zellen ausserhalb
+     * des Spielfeldes werden ignoriert. Danach stimmen getWidth() und getHeight().
+     *
+     * @param board Spielfeld (oder null, um nur die Grösse zu bestimmen)
+     * @param x     Spalte der linken oberen Ecke des Patterns im Spielfeld
+     * @param y     Zeile der linken oberen Ecke des Patterns im Spielfeld
+     * @throws IOException Wenn nicht gelesen werden kann
+     */
+    public void read(Board board, int x, int y) throws IOException {
+        int column = 0;
+        int row = 0;
+        // Beginn des aktuellen Laufs lebender Zellen, -1 wenn die letzte Zelle tot war
+        int runStart = -1;
+        boolean lineStart = true;
+        width = 0;
+        height = 0;
+        while (true) {
+            int c = input.read();
+            if (lineStart && c == '!') {
+                input.skipLine();
+                continue;
+            }
+            lineStart = false;
+            boolean alive = c == 'O' || c == '*';
+            if (alive && runStart < 0) {
+                runStart = column;
+            } else if (!alive && runStart >= 0) {
+                if (board != null) {
+                    board.reviveRun(x + runStart, y + row, column - runStart);
+                }
+                runStart = -1;
+            }
+
+            if (c == -1) {
+                if (column > 0) {
+                    height = row + 1;
+                }
+                return;
+            } else if (c == '\n') {
+                height = row + 1;
+                row++;
+                column = 0;
+                lineStart = true;
+            } else if (c != '\r') {
+                column++;
+                width = Math.max(width, column);
+            }
+        }
+    }
+
+    /**
+     * @return Breite des Patterns (längste Zeile), nach read() oder measure()
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return Anzahl Zeilen des Patterns, nach read() oder measure()
+     */
+    public int getHeight() {
+        return height;
+    }
+}
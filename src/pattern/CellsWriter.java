@@ -0,0 +1,57 @@
+package pattern;
+
+import engine.Board;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Schreibt die lebenden Zellen eines Spielfeldes im Plaintext Format (.cells), Zeile für Zeile direkt in den Writer.
+ * Gespeichert wird das kleinste Rechteck mit allen lebenden Zellen, tote Zellen am Ende einer Zeile werden weggelassen.
+ */
+public class CellsWriter {
+    private final Writer writer;
+
+    /**
+     * @param writer Ziel (wird nicht geschlossen)
+     */
+    public CellsWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Schreibt einen Kommentar mit dem Namen und alle lebenden Zellen.
+     *
+     * @param board Spielfeld
+     * @param name  Name des Patterns
+     * @throws IOException Wenn nicht geschrieben werden kann
+     */
+    public void write(Board board, String name) throws IOException {
+        BoardScan bounds = new BoardScan(board);
+        writer.write("!Name: " + name + "\n");
+        writer.write("!Generation " + board.getGeneration() + "\n");
+
+        int limit = bounds.maxX + 1;
+        for (int y = bounds.minY; y <= bounds.maxY; y++) {
+            int x = bounds.minX;
+            while (x < limit) {
+                int deadEnd = BoardScan.nextChange(board, y, x, false, limit);
+                if (deadEnd == limit) {
+                    break;
+                }
+                repeat('.', deadEnd - x);
+                int aliveEnd = BoardScan.nextChange(board, y, deadEnd, true, limit);
+                repeat('O', aliveEnd - deadEnd);
+                x = aliveEnd;
+            }
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private void repeat(char c, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            writer.write(c);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package pattern;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Liest Zeichen für Zeichen aus einem Reader mit einem eigenen Puffer, ohne Strings zu erstellen.
+ * Zählt die Zeilen für Fehlermeldungen.
+ */
+final class CharInput {
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private int line = 1;
+
+    CharInput(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return Nächstes Zeichen oder -1 am Ende
+     * @throws IOException Wenn nicht gelesen werden kann
+     */
+    int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        char c = buffer[position++];
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    /**
+     * Überspringt alle Zeichen bis und mit dem nächsten Zeilenende.
+     *
+     * @return Boolean, ob danach noch Zeichen folgen
+     * @throws IOException Wenn nicht gelesen werden kann
+     */
+    boolean skipLine() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != '\n' && c != -1);
+        return c != -1;
+    }
+
+    /**
+     * @return Aktuelle Zeile (beginnt bei 1)
+     */
+    int getLine() {
+        return line;
+    }
+}
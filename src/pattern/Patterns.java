@@ -0,0 +1,75 @@
+package pattern;
+
+import engine.Board;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Laden und Speichern von Patterns in Dateien. Das Format wird an der Endung erkannt:
+ * ".cells" für Plaintext, alles andere (normalerweise ".rle") für RLE.
+ */
+public final class Patterns {
+    private Patterns() {
+    }
+
+    /**
+     * Tötet alle Zellen und lädt ein Pattern in die Mitte des Spielfeldes.
+     * Teile des Patterns ausserhalb des Spielfeldes werden abgeschnitten.
+     *
+     * @param path  Datei
+     * @param board Spielfeld
+     * @return Regel aus dem Header der RLE Datei (B3/S23, wenn dort keine steht) oder null für .cells Dateien
+     * @throws IOException Wenn die Datei nicht gelesen werden kann oder kein gültiges Pattern ist
+     */
+    public static String load(Path path, Board board) throws IOException {
+        board.clear();
+        board.setGeneration(0);
+        if (isCells(path)) {
+            // Die Grösse steht nicht in der Datei, sie wird in einem ersten Durchgang bestimmt
+            CellsReader measure;
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                measure = new CellsReader(reader);
+                measure.measure();
+            }
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                new CellsReader(reader).read(board, (board.getWidth() - measure.getWidth()) / 2,
+                        (board.getHeight() - measure.getHeight()) / 2);
+            }
+            return null;
+        } else {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                RleReader rle = new RleReader(reader);
+                rle.read(board, (board.getWidth() - rle.getWidth()) / 2, (board.getHeight() - rle.getHeight()) / 2);
+                return rle.getRule();
+            }
+        }
+    }
+
+    /**
+     * Speichert die lebenden Zellen des Spielfeldes als Pattern.
+     *
+     * @param board Spielfeld
+     * @param path  Datei (wird überschrieben)
+     * @param rule  Regel, die im Header der RLE Datei gespeichert wird (z.B. "B3/S23")
+     * @throws IOException Wenn die Datei nicht geschrieben werden kann
+     */
+    public static void save(Board board, Path path, String rule) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            if (isCells(path)) {
+                String name = path.getFileName().toString();
+                new CellsWriter(writer).write(board, name.substring(0, name.length() - ".cells".length()));
+            } else {
+                new RleWriter(writer).write(board, rule);
+            }
+        }
+    }
+
+    private static boolean isCells(Path path) {
+        return path.getFileName().toString().toLowerCase().endsWith(".cells");
+    }
+}
@@ -0,0 +1,143 @@
+package pattern;
+
+import engine.Board;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Liest ein Pattern im RLE Format (Run Length Encoded), z.B.:
+ * <pre>
+ * #N Glider
+ * x = 3, y = 3, rule = B3/S23
+ * bob$2bo$3o!
+ * </pre>
+ * Die Kopfzeile wird im Konstruktor gelesen, danach werden die Zellen mit read() direkt im Stream
+ * dekodiert und als Läufe ins Bitfeld geschrieben, auch grosse Patterns brauchen also kaum Speicher.
+ */
+public class RleReader {
+    private final CharInput input;
+
+    private int width;
+    private int height;
+    private String rule = "B3/S23";
+
+    /**
+     * Liest die Kommentare und die Kopfzeile.
+     *
+     * @param reader Quelle des Patterns
+     * @throws IOException Wenn nicht gelesen werden kann oder die Kopfzeile fehlt
+     */
+    public RleReader(Reader reader) throws IOException {
+        input = new CharInput(reader);
+        while (true) {
+            int c = input.read();
+            if (c == '#') {
+                input.skipLine();
+            } else if (c == 'x') {
+                readHeader();
+                return;
+            } else if (c == -1 || !Character.isWhitespace(c)) {
+                throw new IOException("RLE ohne Kopfzeile (x = ..., y = ...) in Zeile " + input.getLine());
+            }
+        }
+    }
+
+    /**
+     * Liest den Rest der Kopfzeile ("x = 3, y = 3, rule = B3/S23", das x ist schon gelesen).
+     */
+    private void readHeader() throws IOException {
+        StringBuilder header = new StringBuilder("x");
+        int c;
+        while ((c = input.read()) != '\n' && c != -1) {
+            header.append((char) c);
+        }
+        for (String part : header.toString().split(",")) {
+            int separator = part.indexOf('=');
+            if (separator < 0) {
+                continue;
+            }
+            String name = part.substring(0, separator).trim();
+            String value = part.substring(separator + 1).trim();
+            try {
+                if (name.equals("x")) {
+                    width = Integer.parseInt(value);
+                } else if (name.equals("y")) {
+                    height = Integer.parseInt(value);
+                } else if (name.equals("rule")) {
+                    rule = value;
+                }
+            } catch (NumberFormatException ex) {
+                throw new IOException("Ungültige Kopfzeile: " + header);
+            }
+        }
+    }
+
+    /**
+     * Schreibt die Zellen des Patterns ins Spielfeld. Es werden nur Zellen belebt, Zellen ausserhalb
+     * des Spielfeldes werden ignoriert.
+     *
+     * @param board Spielfeld
+     * @param x     Spalte der linken oberen Ecke des Patterns im Spielfeld
+     * @param y     Zeile der linken oberen Ecke des Patterns im Spielfeld
+     * @throws IOException Wenn nicht gelesen werden kann oder das Pattern ungültig ist
+     */
+    public void read(Board board, int x, int y) throws IOException {
+        int column = 0;
+        int row = 0;
+        int count = 0;
+        while (true) {
+            int c = input.read();
+            if (c >= '0' && c <= '9') {
+                count = count * 10 + (c - '0');
+                if (count > 100_000_000) {
+                    throw new IOException("Zu lange Wiederholung in Zeile " + input.getLine());
+                }
+                continue;
+            }
+            if (c != -1 && Character.isWhitespace(c)) {
+                // Zeilenumbrüche können auch zwischen einer Anzahl und ihrem Zeichen stehen
+                continue;
+            }
+            int run = Math.max(1, count);
+            count = 0;
+            if (c == 'b' || c == '.') {
+                column += run;
+            } else if (c == '$') {
+                row += run;
+                column = 0;
+            } else if (c == '!' || c == -1) {
+                return;
+            } else if (c == '#') {
+                input.skipLine();
+            } else if (Character.isLetter(c)) {
+                // 'o' ist lebend, andere Buchstaben (Zustände anderer Regeln) zählen auch als lebend
+                board.reviveRun(x + column, y + row, run);
+                column += run;
+            } else {
+                throw new IOException("Ungültiges Zeichen '" + (char) c + "' in Zeile " + input.getLine());
+            }
+        }
+    }
+
+    /**
+     * @return Breite des Patterns laut Kopfzeile
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return Höhe des Patterns laut Kopfzeile
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return Regel laut Kopfzeile (z.B. "B3/S23")
+     */
+    public String getRule() {
+        return rule;
+    }
+}
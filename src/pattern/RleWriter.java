@@ -0,0 +1,95 @@
+package pattern;
+
+import engine.Board;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Schreibt die lebenden Zellen eines Spielfeldes im RLE Format. Die Läufe werden direkt aus dem Bitfeld
+ * gelesen und in den Writer geschrieben, es wird kein String des ganzen Patterns erstellt.
+ * Gespeichert wird das kleinste Rechteck mit allen lebenden Zellen.
+ */
+public class RleWriter {
+    // Maximale Länge einer Zeile (wie in anderen Programmen üblich)
+    private static final int LINE_LENGTH = 70;
+
+    private final Writer writer;
+    private int lineLength;
+    // Puffer für einen Lauf (Anzahl und Zeichen)
+    private final char[] token = new char[12];
+
+    /**
+     * @param writer Ziel (wird nicht geschlossen)
+     */
+    public RleWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Schreibt die Kopfzeile und alle lebenden Zellen.
+     *
+     * @param board Spielfeld
+     * @param rule  Regel für die Kopfzeile (z.B. "B3/S23")
+     * @throws IOException Wenn nicht geschrieben werden kann
+     */
+    public void write(Board board, String rule) throws IOException {
+        BoardScan bounds = new BoardScan(board);
+        writer.write("#C Generation " + board.getGeneration() + "\n");
+        writer.write("x = " + bounds.getWidth() + ", y = " + bounds.getHeight() + ", rule = " + rule + "\n");
+
+        // Leere Zeilen werden erst geschrieben, wenn danach wieder eine Zelle lebt ("3$")
+        int pendingRows = 0;
+        for (int y = bounds.minY; y <= bounds.maxY; y++) {
+            int x = bounds.minX;
+            int limit = bounds.maxX + 1;
+            boolean rowStarted = false;
+            while (x < limit) {
+                int deadEnd = BoardScan.nextChange(board, y, x, false, limit);
+                if (deadEnd == limit) {
+                    // Tote Zellen am Ende einer Zeile werden weggelassen
+                    break;
+                }
+                if (!rowStarted) {
+                    if (y > bounds.minY) {
+                        token(pendingRows + 1, '$');
+                    }
+                    pendingRows = 0;
+                    rowStarted = true;
+                }
+                if (deadEnd > x) {
+                    token(deadEnd - x, 'b');
+                }
+                int aliveEnd = BoardScan.nextChange(board, y, deadEnd, true, limit);
+                token(aliveEnd - deadEnd, 'o');
+                x = aliveEnd;
+            }
+            if (!rowStarted && y > bounds.minY) {
+                pendingRows++;
+            }
+        }
+        writer.write("!\n");
+        writer.flush();
+    }
+
+    /**
+     * Schreibt einen Lauf ("3o") und beginnt eine neue Zeile, wenn er nicht mehr auf die aktuelle passt.
+     */
+    private void token(int count, char tag) throws IOException {
+        // Die Ziffern werden von hinten in den Puffer geschrieben, ohne einen String zu erstellen
+        int start = token.length - 1;
+        token[start] = tag;
+        if (count > 1) {
+            for (int rest = count; rest > 0; rest /= 10) {
+                token[--start] = (char) ('0' + rest % 10);
+            }
+        }
+        int length = token.length - start;
+        if (lineLength + length > LINE_LENGTH) {
+            writer.write('\n');
+            lineLength = 0;
+        }
+        writer.write(token, start, length);
+        lineLength += length;
+    }
+}
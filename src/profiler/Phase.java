@@ -0,0 +1,30 @@
+package profiler;
+
+/**
+ * Abschnitte, deren Laufzeit der Profiler misst.
+ */
+public enum Phase {
+    // Berechnen der nächsten Generation durch die Engine
+    STEP("Step"),
+    // Kopieren der aktuellen Generation in den Snapshot zum Zeichnen
+    COPY("Copy"),
+    // Speichern der Generation im Verlauf
+    HISTORY("History"),
+    // Zeichnen des Spielfeldes
+    RENDER("Render"),
+    // Aktualisieren und Zeichnen der GUI Komponenten
+    UI("UI");
+
+    private final String label;
+
+    Phase(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return Name des Abschnitts für die Anzeige
+     */
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,26 @@
+package profiler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR Event für eine Messung des Profilers. Wird nur geschrieben, wenn der Profiler eingeschaltet ist
+ * und eine Aufzeichnung läuft, z.B. mit -XX:StartFlightRecording oder jcmd PID JFR.start.
+ */
+@Name("gameoflife.Phase")
+@Label("Phase")
+@Category("Game of Life")
+@Description("Laufzeit eines Abschnitts (Step, Copy, History, Render, UI)")
+@StackTrace(false)
+class PhaseEvent extends jdk.jfr.Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long nanos;
+}
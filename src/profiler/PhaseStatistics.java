@@ -0,0 +1,50 @@
+package profiler;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Laufzeiten eines Abschnitts über die letzten Messungen (in Mikrosekunden).
+ */
+public class PhaseStatistics {
+    private final String phase;
+    private final long count;
+    private final double min;
+    private final double average;
+    private final double p99;
+
+    /**
+     * @param phase   Name des Abschnitts
+     * @param count   Anzahl Messungen seit dem Einschalten (oder dem letzten Zurücksetzen)
+     * @param min     Kürzeste Laufzeit
+     * @param average Durchschnittliche Laufzeit
+     * @param p99     99% der Messungen waren höchstens so lang
+     */
+    @ConstructorProperties({"phase", "count", "min", "average", "p99"})
+    public PhaseStatistics(String phase, long count, double min, double average, double p99) {
+        this.phase = phase;
+        this.count = count;
+        this.min = min;
+        this.average = average;
+        this.p99 = p99;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getAverage() {
+        return average;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+}
@@ -0,0 +1,174 @@
+package profiler;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Misst die Laufzeit der wichtigsten Abschnitte (siehe Phase).
+ *
+ * Ein Abschnitt wird mit start() und stop() eingerahmt. Ist der Profiler ausgeschaltet, wird dabei nur ein
+ * Boolean gelesen. Eingeschaltet werden die letzten SAMPLES Laufzeiten pro Abschnitt in einem Ringpuffer
+ * gespeichert (daraus werden Minimum, Durchschnitt und 99. Perzentil berechnet) und, falls eine JFR Aufzeichnung
+ * läuft, als PhaseEvent geschrieben.
+ *
+ * Jeder Abschnitt darf nur von einem Thread gemessen werden. Gelesen werden die Werte aus einem beliebigen
+ * Thread, eine gerade geschriebene Messung kann dabei fehlen.
+ *
+ * Eingeschaltet wird der Profiler mit setEnabled(), über JMX oder beim Start mit -Dgol.profiler=true.
+ */
+public final class Profiler {
+    // Anzahl gespeicherter Laufzeiten pro Abschnitt (Zweierpotenz)
+    public static final int SAMPLES = 1024;
+
+    private static volatile boolean enabled = Boolean.getBoolean("gol.profiler");
+    private static final Recorder[] recorders = new Recorder[Phase.values().length];
+    private static boolean registered;
+
+    static {
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i] = new Recorder();
+        }
+    }
+
+    /**
+     * Laufzeiten eines Abschnitts.
+     */
+    private static final class Recorder {
+        private final long[] samples = new long[SAMPLES];
+        private volatile long count;
+
+        void add(long nanos) {
+            samples[(int) count & (SAMPLES - 1)] = nanos;
+            count++;
+        }
+    }
+
+    private Profiler() {
+    }
+
+    /**
+     * @return Startzeit für stop() oder 0, wenn der Profiler ausgeschaltet ist
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Speichert die Laufzeit eines Abschnitts.
+     *
+     * @param phase Abschnitt
+     * @param start Rückgabewert von start() am Anfang des Abschnitts
+     */
+    public static void stop(Phase phase, long start) {
+        if (start == 0) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        recorders[phase.ordinal()].add(nanos);
+
+        PhaseEvent event = new PhaseEvent();
+        if (event.isEnabled()) {
+            event.phase = phase.getLabel();
+            event.nanos = nanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * @return Boolean, ob die Laufzeiten gemessen werden
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Schaltet den Profiler ein oder aus. Beim Einschalten werden die alten Messungen gelöscht.
+     *
+     * @param enabled Boolean, ob die Laufzeiten gemessen werden
+     */
+    public static void setEnabled(boolean enabled) {
+        if (enabled && !Profiler.enabled) {
+            reset();
+        }
+        Profiler.enabled = enabled;
+    }
+
+    /**
+     * Löscht alle bisherigen Messungen.
+     */
+    public static void reset() {
+        for (Recorder recorder : recorders) {
+            recorder.count = 0;
+        }
+    }
+
+    /**
+     * @param phase Abschnitt
+     * @return Laufzeiten des Abschnitts über die letzten Messungen
+     */
+    public static PhaseStatistics getStatistics(Phase phase) {
+        Recorder recorder = recorders[phase.ordinal()];
+        long count = recorder.count;
+        int n = (int) Math.min(count, SAMPLES);
+        if (n == 0) {
+            return new PhaseStatistics(phase.getLabel(), 0, 0, 0, 0);
+        }
+        long[] samples = Arrays.copyOf(recorder.samples, n);
+        Arrays.sort(samples);
+        long total = 0;
+        for (long sample : samples) {
+            total += sample;
+        }
+        long p99 = samples[(int) Math.ceil(n * 0.99) - 1];
+        return new PhaseStatistics(phase.getLabel(), count, samples[0] / 1e3, total / 1e3 / n, p99 / 1e3);
+    }
+
+    /**
+     * Meldet den Profiler beim JMX Server an (Objektname "gameoflife:type=Profiler").
+     * Mehrfache Aufrufe haben keine Wirkung.
+     */
+    public static synchronized void registerMBean() {
+        if (registered) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MXBean(), new ObjectName("gameoflife:type=Profiler"));
+            registered = true;
+        } catch (JMException ex) {
+            System.err.println("Profiler kann nicht bei JMX angemeldet werden: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Zugriff über JMX.
+     */
+    private static final class MXBean implements ProfilerMXBean {
+        @Override
+        public boolean isEnabled() {
+            return Profiler.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            Profiler.setEnabled(enabled);
+        }
+
+        @Override
+        public Map<String, PhaseStatistics> getPhases() {
+            Map<String, PhaseStatistics> phases = new LinkedHashMap<>();
+            for (Phase phase : Phase.values()) {
+                phases.put(phase.getLabel(), getStatistics(phase));
+            }
+            return phases;
+        }
+
+        @Override
+        public void reset() {
+            Profiler.reset();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package profiler;
+
+import java.util.Map;
+
+/**
+ * Zugriff auf den Profiler über JMX (z.B. mit JConsole oder VisualVM), Objektname "gameoflife:type=Profiler".
+ */
+public interface ProfilerMXBean {
+
+    /**
+     * @return Boolean, ob die Laufzeiten gemessen werden
+     */
+    boolean isEnabled();
+
+    /**
+     * @param enabled Boolean, ob die Laufzeiten gemessen werden
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * @return Laufzeiten aller Abschnitte, nach dem Namen des Abschnitts
+     */
+    Map<String, PhaseStatistics> getPhases();
+
+    /**
+     * Löscht alle bisherigen Messungen.
+     */
+    void reset();
+}
@@ -0,0 +1,51 @@
+package recording;
+
+/**
+ * Ein Bild der Aufnahme (Pixel als RGB). Die Puffer werden vom Recorder wiederverwendet,
+ * ein Encoder darf ein Bild also nach encode() nicht mehr verwenden.
+ */
+public final class Frame {
+    private int[] pixels = new int[0];
+    private int width;
+    private int height;
+    private long number;
+
+    Frame() {
+    }
+
+    /**
+     * Kopiert die Pixel in den Puffer (ein neuer wird nur erstellt, wenn sich die Grösse ändert).
+     */
+    void set(int[] pixels, int width, int height, long number) {
+        int length = width * height;
+        if (this.pixels.length != length) {
+            this.pixels = new int[length];
+        }
+        System.arraycopy(pixels, 0, this.pixels, 0, length);
+        this.width = width;
+        this.height = height;
+        this.number = number;
+    }
+
+    /**
+     * @return Pixel zeilenweise (RGB, der Alpha Kanal wird nicht verwendet)
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return Nummer des Bildes (z.B. die Generation), wird für den Dateinamen verwendet
+     */
+    public long getNumber() {
+        return number;
+    }
+}
@@ -0,0 +1,24 @@
+package recording;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Schreibt die Bilder einer Aufnahme (z.B. als einzelne Dateien oder als Animation).
+ */
+public interface FrameEncoder extends Closeable {
+
+    /**
+     * @return Boolean, ob die Bilder in der Reihenfolge der Aufnahme geschrieben werden müssen
+     * (dann verwendet der Recorder nur einen Thread)
+     */
+    boolean isOrdered();
+
+    /**
+     * Schreibt ein Bild. Ist isOrdered() false, wird diese Methode aus mehreren Threads gleichzeitig aufgerufen.
+     *
+     * @param frame Bild
+     * @throws IOException Wenn das Bild nicht geschrieben werden kann
+     */
+    void encode(Frame frame) throws IOException;
+}
@@ -0,0 +1,169 @@
+package recording;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Schreibt alle Bilder als eine animierte GIF Datei, welche endlos wiederholt wird.
+ *
+ * Ein GIF hat höchstens 256 Farben. Statt für jedes Bild eine Palette zu berechnen, wird jede Farbe auf eine
+ * feste Palette mit 6 Stufen Rot, 7 Stufen Grün und 6 Stufen Blau gerundet (eine Tabelle pro Kanal).
+ * Die verblassenden Farben werden dadurch in Stufen dargestellt, für verlustfreie Bilder gibt es PNG.
+ */
+public class GifEncoder implements FrameEncoder {
+    private static final int RED_LEVELS = 6;
+    private static final int GREEN_LEVELS = 7;
+    private static final int BLUE_LEVELS = 6;
+
+    private static final IndexColorModel PALETTE;
+    // Index in der Palette pro Wert eines Kanals, die Summe der drei Tabellen ergibt den Index der Farbe
+    private static final int[] RED_INDEX = levelIndex(RED_LEVELS, GREEN_LEVELS * BLUE_LEVELS);
+    private static final int[] GREEN_INDEX = levelIndex(GREEN_LEVELS, BLUE_LEVELS);
+    private static final int[] BLUE_INDEX = levelIndex(BLUE_LEVELS, 1);
+
+    static {
+        int size = RED_LEVELS * GREEN_LEVELS * BLUE_LEVELS;
+        byte[] red = new byte[size];
+        byte[] green = new byte[size];
+        byte[] blue = new byte[size];
+        for (int i = 0; i < size; i++) {
+            red[i] = (byte) (i / (GREEN_LEVELS * BLUE_LEVELS) * 255 / (RED_LEVELS - 1));
+            green[i] = (byte) (i / BLUE_LEVELS % GREEN_LEVELS * 255 / (GREEN_LEVELS - 1));
+            blue[i] = (byte) (i % BLUE_LEVELS * 255 / (BLUE_LEVELS - 1));
+        }
+        PALETTE = new IndexColorModel(8, size, red, green, blue);
+    }
+
+    private final ImageWriter writer;
+    private final ImageOutputStream output;
+    // Anzeigedauer eines Bildes in Hundertstelsekunden
+    private final int delay;
+    private boolean first = true;
+
+    // Pixel des aktuellen Bildes als Index in der Palette, wird wiederverwendet
+    private byte[] indices = new byte[0];
+
+    /**
+     * @param file        Datei (wird überschrieben)
+     * @param delayMillis Anzeigedauer eines Bildes in Millisekunden (wird auf Hundertstelsekunden gerundet)
+     * @throws IOException Wenn die Datei nicht erstellt werden kann
+     */
+    public GifEncoder(Path file, int delayMillis) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("gif");
+        if (!writers.hasNext()) {
+            throw new IOException("Kein GIF Writer vorhanden");
+        }
+        writer = writers.next();
+        output = ImageIO.createImageOutputStream(file.toFile());
+        if (output == null) {
+            writer.dispose();
+            throw new IOException("Datei kann nicht erstellt werden: " + file);
+        }
+        writer.setOutput(output);
+        writer.prepareWriteSequence(null);
+        delay = Math.max(1, Math.round(delayMillis / 10f));
+    }
+
+    @Override
+    public boolean isOrdered() {
+        return true;
+    }
+
+    @Override
+    public void encode(Frame frame) throws IOException {
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        int[] pixels = frame.getPixels();
+        int length = width * height;
+        if (indices.length != length) {
+            indices = new byte[length];
+        }
+        for (int i = 0; i < length; i++) {
+            int rgb = pixels[i];
+            indices[i] = (byte) (RED_INDEX[rgb >>> 16 & 0xFF] + GREEN_INDEX[rgb >>> 8 & 0xFF] + BLUE_INDEX[rgb & 0xFF]);
+        }
+
+        WritableRaster raster = Raster.createInterleavedRaster(new DataBufferByte(indices, length),
+                width, height, width, 1, new int[]{0}, null);
+        BufferedImage image = new BufferedImage(PALETTE, raster, false, null);
+        writer.writeToSequence(new IIOImage(image, null, metadata(image)), null);
+        first = false;
+    }
+
+    /**
+     * @param image Bild
+     * @return Metadaten mit der Anzeigedauer (und beim ersten Bild der endlosen Wiederholung)
+     * @throws IOException Wenn die Metadaten nicht gesetzt werden können
+     */
+    private IIOMetadata metadata(BufferedImage image) throws IOException {
+        IIOMetadata metadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image), null);
+        String format = metadata.getNativeMetadataFormatName();
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+
+        IIOMetadataNode control = child(root, "GraphicControlExtension");
+        control.setAttribute("disposalMethod", "none");
+        control.setAttribute("userInputFlag", "FALSE");
+        control.setAttribute("transparentColorFlag", "FALSE");
+        control.setAttribute("delayTime", Integer.toString(delay));
+        control.setAttribute("transparentColorIndex", "0");
+
+        if (first) {
+            // NETSCAPE2.0 Erweiterung: 0 bedeutet endlos wiederholen
+            IIOMetadataNode application = new IIOMetadataNode("ApplicationExtension");
+            application.setAttribute("applicationID", "NETSCAPE");
+            application.setAttribute("authenticationCode", "2.0");
+            application.setUserObject(new byte[]{1, 0, 0});
+            child(root, "ApplicationExtensions").appendChild(application);
+        }
+
+        metadata.setFromTree(format, root);
+        return metadata;
+    }
+
+    private static IIOMetadataNode child(IIOMetadataNode parent, String name) {
+        for (int i = 0; i < parent.getLength(); i++) {
+            if (parent.item(i).getNodeName().equals(name)) {
+                return (IIOMetadataNode) parent.item(i);
+            }
+        }
+        IIOMetadataNode node = new IIOMetadataNode(name);
+        parent.appendChild(node);
+        return node;
+    }
+
+    /**
+     * @param levels Anzahl Stufen des Kanals
+     * @param factor Abstand zweier Stufen in der Palette
+     * @return Index der nächsten Stufe (mal factor) für jeden Wert des Kanals
+     */
+    private static int[] levelIndex(int levels, int factor) {
+        int[] index = new int[256];
+        for (int value = 0; value < 256; value++) {
+            index[value] = Math.round(value * (levels - 1) / 255f) * factor;
+        }
+        return index;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writer.endWriteSequence();
+        } finally {
+            output.close();
+            writer.dispose();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package recording;
+
+/**
+ * Verhalten des Recorders, wenn die Encoder nicht nachkommen und alle Bildpuffer belegt sind.
+ */
+public enum OverflowPolicy {
+    // Das neue Bild wird verworfen, wer das Bild abgibt, muss nie warten
+    DROP,
+    // Es wird gewartet, bis ein Encoder ein Bild fertig geschrieben hat, es geht kein Bild verloren
+    BLOCK
+}
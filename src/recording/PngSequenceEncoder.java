@@ -0,0 +1,57 @@
+package recording;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Schreibt jedes Bild als eigene PNG Datei (Präfix und Nummer des Bildes, z.B. frame_00000042.png).
+ * Die Bilder sind unabhängig voneinander und werden parallel geschrieben.
+ */
+public class PngSequenceEncoder implements FrameEncoder {
+    private static final DirectColorModel COLOR_MODEL = new DirectColorModel(24, 0xFF0000, 0xFF00, 0xFF);
+    private static final int[] MASKS = {0xFF0000, 0xFF00, 0xFF};
+
+    private final Path directory;
+    private final String prefix;
+
+    /**
+     * @param directory Ordner der Bilder (wird erstellt, falls er fehlt)
+     * @param prefix    Anfang der Dateinamen
+     * @throws IOException Wenn der Ordner nicht erstellt werden kann
+     */
+    public PngSequenceEncoder(Path directory, String prefix) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.prefix = prefix;
+    }
+
+    @Override
+    public boolean isOrdered() {
+        return false;
+    }
+
+    @Override
+    public void encode(Frame frame) throws IOException {
+        // Das Bild verwendet direkt den Puffer des Frames, die Pixel werden nicht nochmals kopiert
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        DataBufferInt buffer = new DataBufferInt(frame.getPixels(), width * height);
+        WritableRaster raster = Raster.createPackedRaster(buffer, width, height, width, MASKS, null);
+        BufferedImage image = new BufferedImage(COLOR_MODEL, raster, false, null);
+
+        Path file = directory.resolve(String.format("%s%08d.png", prefix, frame.getNumber()));
+        if (!ImageIO.write(image, "png", file.toFile())) {
+            throw new IOException("Kein PNG Writer vorhanden");
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
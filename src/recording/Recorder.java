@@ -0,0 +1,203 @@
+package recording;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Nimmt Bilder entgegen und lässt sie von Threads im Hintergrund schreiben, damit der Thread, welcher die
+ * Bilder abgibt (z.B. der Animations Thread), nicht auf das Kodieren warten muss.
+ *
+ * Es gibt höchstens capacity Bildpuffer, welche wiederverwendet werden. Sind alle belegt (die Encoder kommen
+ * nicht nach), wird gemäss der OverflowPolicy das neue Bild verworfen oder gewartet.
+ * Verlangt der Encoder die Reihenfolge der Bilder (siehe FrameEncoder.isOrdered()), wird nur ein Thread verwendet.
+ *
+ * submit() darf nur von einem Thread aufgerufen werden.
+ */
+public class Recorder {
+    // Markiert das Ende der Aufnahme in der Warteschlange, ein Exemplar pro Thread
+    private static final Frame END = new Frame();
+
+    private final FrameEncoder encoder;
+    private final OverflowPolicy policy;
+    private final int capacity;
+
+    // Bilder, die geschrieben werden müssen, und freie Bildpuffer
+    private final BlockingQueue<Frame> queue;
+    private final BlockingQueue<Frame> free;
+    private final Thread[] threads;
+    // Anzahl Threads, die noch laufen; der letzte schliesst den Encoder
+    private final AtomicInteger running;
+
+    // Anzahl erstellter Bildpuffer (nur vom Thread gelesen, der submit() aufruft)
+    private int allocated;
+    private volatile boolean closed;
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile long dropped;
+
+    /**
+     * Konstruktor des Recorders, die Threads werden sofort gestartet.
+     *
+     * @param encoder  Schreibt die Bilder
+     * @param capacity Maximale Anzahl Bilder, die gleichzeitig warten oder geschrieben werden (mindestens 1)
+     * @param policy   Verhalten, wenn alle Bildpuffer belegt sind
+     * @param threads  Anzahl Threads zum Schreiben (mindestens 1, wird ignoriert, wenn der Encoder die Reihenfolge verlangt)
+     */
+    public Recorder(FrameEncoder encoder, int capacity, OverflowPolicy policy, int threads) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Kapazität muss mindestens 1 sein: " + capacity);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Anzahl Threads muss mindestens 1 sein: " + threads);
+        }
+        this.encoder = encoder;
+        this.policy = policy;
+        this.capacity = capacity;
+        int count = encoder.isOrdered() ? 1 : threads;
+        queue = new ArrayBlockingQueue<>(capacity + count);
+        free = new ArrayBlockingQueue<>(capacity);
+        running = new AtomicInteger(count);
+
+        this.threads = new Thread[count];
+        for (int i = 0; i < count; i++) {
+            // Keine Daemon Threads, damit eine Aufnahme auch beim Beenden des Programms fertig geschrieben wird
+            this.threads[i] = new Thread(this::run, "GoL-Recorder-" + i);
+            this.threads[i].start();
+        }
+    }
+
+    /**
+     * Gibt ein Bild zum Schreiben ab. Die Pixel werden in einen freien Puffer kopiert und dürfen danach
+     * sofort wieder verändert werden.
+     *
+     * @param pixels Pixel zeilenweise (RGB)
+     * @param width  Breite des Bildes
+     * @param height Höhe des Bildes
+     * @param number Nummer des Bildes (z.B. die Generation)
+     * @return Boolean, ob das Bild angenommen wurde (false, wenn es verworfen wurde oder der Recorder geschlossen ist)
+     */
+    public boolean submit(int[] pixels, int width, int height, long number) {
+        if (closed) {
+            return false;
+        }
+        Frame frame = free.poll();
+        if (frame == null) {
+            if (allocated < capacity) {
+                frame = new Frame();
+                allocated++;
+            } else if (policy == OverflowPolicy.DROP) {
+                dropped++;
+                return false;
+            } else {
+                try {
+                    frame = free.take();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        frame.set(pixels, width, height, number);
+        // Es gibt nie mehr Bilder als Platz in der Warteschlange, offer() schlägt also nicht fehl
+        queue.offer(frame);
+        return true;
+    }
+
+    /**
+     * Schleife eines Threads: schreibt Bilder, bis das Ende der Aufnahme erreicht ist.
+     */
+    private void run() {
+        try {
+            while (true) {
+                Frame frame = queue.take();
+                if (frame == END) {
+                    break;
+                }
+                try {
+                    encoder.encode(frame);
+                    written.incrementAndGet();
+                } catch (IOException | RuntimeException ex) {
+                    // Nur der erste Fehler wird ausgegeben, sonst käme für jedes Bild dieselbe Meldung
+                    if (failed.getAndIncrement() == 0) {
+                        System.err.println("Bild kann nicht geschrieben werden: " + ex);
+                    }
+                }
+                free.offer(frame);
+            }
+        } catch (InterruptedException ex) {
+            // Der Thread wird abgebrochen, die restlichen Bilder gehen verloren
+        } finally {
+            if (running.decrementAndGet() == 0) {
+                try {
+                    encoder.close();
+                } catch (IOException ex) {
+                    System.err.println("Aufnahme kann nicht abgeschlossen werden: " + ex.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Beendet die Aufnahme. Es werden keine Bilder mehr angenommen, die wartenden Bilder werden noch im
+     * Hintergrund geschrieben und danach wird der Encoder geschlossen. Die Methode wartet nicht darauf
+     * (siehe awaitTermination()). Mehrfache Aufrufe haben keine Wirkung.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (int i = 0; i < threads.length; i++) {
+            queue.offer(END);
+        }
+    }
+
+    /**
+     * Wartet, bis alle Bilder geschrieben sind und der Encoder geschlossen ist (nach close()).
+     *
+     * @throws InterruptedException Wenn der wartende Thread unterbrochen wird
+     */
+    public void awaitTermination() throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    /**
+     * @return Boolean, ob close() aufgerufen wurde
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return Anzahl geschriebener Bilder
+     */
+    public long getWritten() {
+        return written.get();
+    }
+
+    /**
+     * @return Anzahl verworfener Bilder (alle Bildpuffer waren belegt)
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * @return Anzahl Bilder, die wegen eines Fehlers nicht geschrieben wurden
+     */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * @return Anzahl Bilder, die noch auf das Schreiben warten
+     */
+    public int getQueued() {
+        return queue.size();
+    }
+}
@@ -0,0 +1,141 @@
+package simulation;
+
+import engine.Board;
+
+/**
+ * Erkennt, wenn sich die Generationen wiederholen (Stillleben oder Oszillatoren mit Periode p).
+ *
+ * Gespeichert werden die Hashes (siehe Board.getHash()) der letzten WINDOW aufeinanderfolgenden Generationen
+ * in einem Ringpuffer. Hat eine neue Generation den gleichen Hash wie eine gespeicherte, wiederholt sich der
+ * Zustand ab dort mit der Periode p = Abstand der beiden Generationen. Es werden also Perioden bis WINDOW erkannt.
+ * Der Hash hat 64 Bit, eine zufällige Übereinstimmung ist praktisch ausgeschlossen.
+ *
+ * Wird eine Generation übersprungen oder bearbeitet (die Nummer folgt nicht auf die letzte), beginnt die Suche neu.
+ */
+public class CycleDetector {
+    // Anzahl gespeicherter Generationen und damit längste erkennbare Periode, kann mit -Dgol.cycle.window=N festgelegt werden
+    public static final int WINDOW = Integer.getInteger("gol.cycle.window", 256);
+
+    private final long[] hashes;
+    private final long[] generations;
+    // Index der nächsten freien Stelle und Anzahl gespeicherter Generationen
+    private int next;
+    private int size;
+
+    // Periode und erste Generation der erkannten Wiederholung (Periode 0, solange keine erkannt wurde)
+    private int period;
+    private long start;
+
+    /**
+     * Konstruktor mit der Grösse aus den System Properties.
+     */
+    public CycleDetector() {
+        this(WINDOW);
+    }
+
+    /**
+     * @param window Längste erkennbare Periode (mindestens 1)
+     */
+    public CycleDetector(int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Fenster muss mindestens 1 sein: " + window);
+        }
+        hashes = new long[window];
+        generations = new long[window];
+    }
+
+    /**
+     * Speichert den Hash einer Generation und sucht ihn unter den vorherigen.
+     *
+     * @param board Spielfeld der Generation
+     * @return Boolean, ob mit dieser Generation eine Wiederholung neu erkannt wurde
+     */
+    public boolean update(Board board) {
+        long generation = board.getGeneration();
+        long hash = board.getHash();
+        if (size > 0 && generation != generations[index(size - 1)] + 1) {
+            reset();
+        }
+
+        boolean found = false;
+        if (period == 0) {
+            // Von der neuesten Generation rückwärts, damit die kürzeste Periode gefunden wird
+            for (int i = size - 1; i >= 0; i--) {
+                int index = index(i);
+                if (hashes[index] == hash) {
+                    period = (int) (generation - generations[index]);
+                    start = generations[index];
+                    found = true;
+                    break;
+                }
+            }
+        }
+
+        hashes[next] = hash;
+        generations[next] = generation;
+        next = (next + 1) % hashes.length;
+        size = Math.min(size + 1, hashes.length);
+        return found;
+    }
+
+    /**
+     * Verschiebt die gespeicherten Generationen nach einem Sprung über ganze Perioden, damit die Suche
+     * nach dem Sprung weiterläuft.
+     *
+     * @param offset Anzahl übersprungener Generationen (ein Vielfaches der Periode)
+     */
+    public void skip(long offset) {
+        for (int i = 0; i < size; i++) {
+            generations[index(i)] += offset;
+        }
+    }
+
+    /**
+     * Vergisst alle Generationen und eine erkannte Wiederholung.
+     */
+    public void reset() {
+        next = 0;
+        size = 0;
+        period = 0;
+        start = 0;
+    }
+
+    /**
+     * @return Boolean, ob sich die Generationen wiederholen
+     */
+    public boolean isCycle() {
+        return period > 0;
+    }
+
+    /**
+     * @return Periode der Wiederholung (1 für ein Stillleben), 0 wenn keine erkannt wurde
+     */
+    public int getPeriod() {
+        return period;
+    }
+
+    /**
+     * @return Erste Generation der Wiederholung, ab ihr ist Generation g gleich Generation start + (g - start) % period
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @param generation Nummer einer Generation ab getStart()
+     * @return Nummer der Generation innerhalb der ersten Periode mit den gleichen lebenden Zellen
+     */
+    public long reduce(long generation) {
+        if (period == 0 || generation < start) {
+            return generation;
+        }
+        return start + (generation - start) % period;
+    }
+
+    /**
+     * @param i Index (0 ist die älteste gespeicherte Generation)
+     */
+    private int index(int i) {
+        return (next - size + i + hashes.length) % hashes.length;
+    }
+}
@@ -0,0 +1,883 @@
+package simulation;
+
+import engine.Board;
+import engine.Boundary;
+import engine.Engine;
+import engine.EngineType;
+import engine.HashLife;
+import engine.Rule;
+import history.History;
+import pattern.Patterns;
+import snapshot.SnapshotFile;
+import snapshot.SnapshotInfo;
+import profiler.Phase;
+import profiler.Profiler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Berechnet die Generationen in einem eigenen Thread, unabhängig vom Zeichnen.
+ *
+ * Nur der Simulations Thread verändert die Spielfelder, die Engine und den Verlauf. Alle Änderungen von
+ * aussen (Starten, Bearbeiten, Springen, ...) werden als Befehle in eine Warteschlange gestellt und vom
+ * Simulations Thread zwischen zwei Generationen ausgeführt.
+ *
+ * Nach jeder Generation wird der Zustand in ein separates Spielfeld (Snapshot) kopiert, welches zum Zeichnen
+ * gelesen wird. Wird der Snapshot gerade gezeichnet, wird er übersprungen, die Simulation wartet nie auf das
+ * Zeichnen. Die veränderten Zellen werden dabei gesammelt, bis der Snapshot wieder übernommen werden kann.
+ *
+ * Läuft die Simulation, wird die gewünschte Anzahl Generationen pro Sekunde eingehalten (oder so schnell
+ * wie möglich gerechnet, wenn sie 0 ist).
+ *
+ * Wiederholen sich die Generationen (siehe CycleDetector), wird das gemeldet und die Simulation angehalten
+ * (wenn pauseOnCycle gesetzt ist). Solange die Wiederholung anhält, werden keine weiteren Generationen im Verlauf
+ * gespeichert (sie sind gleich wie die gespeicherten der ersten Periode) und Sprünge über viele Generationen
+ * werden auf den Rest der Periode verkürzt.
+ */
+public class Simulation implements AutoCloseable {
+    // Zeitraum, über den die erreichten Generationen pro Sekunde gemessen werden
+    private static final long MEASURE_INTERVAL = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final BlockingQueue<Runnable> commands = new LinkedBlockingQueue<>();
+    private final Thread thread;
+
+    // Werden nur vom Simulations Thread verwendet
+    private Board currentGen;
+    private Board nextGen;
+    private final History history;
+    // Anzahl lebender, geborener und gestorbener Zellen pro Generation (kann aus anderen Threads gelesen werden)
+    private final Statistics statistics = new Statistics();
+    // Erkennt Stillleben und Oszillatoren
+    private final CycleDetector cycles = new CycleDetector();
+    private Engine engine;
+    // Anzahl Farbstufen, um welche die aktuelle Generation gegenüber der vorherigen verblasst ist
+    // (-1, wenn sie nicht von der Engine berechnet, sondern bearbeitet, geladen oder gelesen wurde)
+    private int lastFadeSteps = -1;
+    // Zähler für die berechneten Generationen, die Farben verblassen bei jeder zweiten
+    private long counter;
+    // Seed der zufälligen ersten Generation (0, wenn sie geladen oder gezeichnet wurde)
+    private long seed;
+    // Datei, in welche die aktuelle Generation regelmässig gespeichert wird (oder null)
+    private Path checkpointFile;
+    private long checkpointInterval;
+    private long nextCheckpoint;
+    private long deadline;
+    private long measureStart;
+    private int measuredGens;
+
+    // Kopie der aktuellen Generation zum Zeichnen, wird nur mit dem Lock gelesen oder geschrieben
+    private final Board snapshot;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private boolean publishPending;
+
+    // Zustand für die Anzeige, wird vom Simulations Thread geschrieben
+    private volatile boolean running;
+    private volatile double targetGensPerSecond;
+    private volatile double achievedGensPerSecond;
+    private volatile EngineType engineType;
+    private volatile Rule rule = Rule.LIFE;
+    private volatile Boundary boundary = Boundary.DEAD;
+    private volatile String engineStatus;
+    private volatile String jumpInfo;
+    private volatile String cycleInfo;
+    private volatile boolean pauseOnCycle;
+    // Wird gesetzt, wenn die Simulation von selbst angehalten hat (wegen einer Wiederholung oder eines Fehlers)
+    private final AtomicBoolean autoPaused = new AtomicBoolean();
+    private volatile boolean closed;
+
+    /**
+     * Konstruktor der Simulation. Der Thread wird mit start() gestartet.
+     *
+     * @param width      Anzahl Spalten
+     * @param height     Anzahl Zeilen
+     * @param history    Verlauf für die vergangenen Generationen
+     * @param engineType Verfahren, mit welchem die nächste Generation berechnet wird
+     */
+    public Simulation(int width, int height, History history, EngineType engineType) {
+        this.currentGen = new Board(width, height);
+        this.nextGen = new Board(width, height);
+        this.snapshot = new Board(width, height);
+        this.history = history;
+        this.engineType = engineType;
+        this.engine = engineType.create(rule, boundary);
+
+        thread = new Thread(this::run, "GoL-Simulation");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Startet den Simulations Thread. Gibt es einen Checkpoint (siehe setCheckpoint()), wird er geladen,
+     * sonst wird ein gespeicherter Verlauf bei der neuesten Generation fortgesetzt. Gibt es beides nicht,
+     * wird eine zufällige erste Generation erstellt.
+     *
+     * @param probability Wahrscheinlichkeit in Prozent, dass eine Zelle der ersten Generation lebt
+     */
+    public void start(int probability) {
+        execute(() -> {
+            if (checkpointFile != null && Files.exists(checkpointFile) && loadSnapshotNow(checkpointFile)) {
+                System.out.println("Checkpoint geladen: Generation " + currentGen.getGeneration());
+            } else if (history.read(Long.MAX_VALUE, currentGen)) {
+                matchNextGen();
+                lastFadeSteps = -1;
+            } else {
+                randomizeNow(probability);
+            }
+            statistics.record(currentGen);
+            detectCycle();
+        });
+        thread.start();
+    }
+
+    /**
+     * Schleife des Simulations Threads: führt die Befehle aus und berechnet die Generationen im gewünschten Takt.
+     */
+    private void run() {
+        try {
+            while (!closed) {
+                Runnable command;
+                if (running) {
+                    long wait = targetGensPerSecond > 0 ? deadline - System.nanoTime() : 0;
+                    command = wait > 0 ? commands.poll(wait, TimeUnit.NANOSECONDS) : commands.poll();
+                    if (command == null) {
+                        try {
+                            stepNow();
+                            publish(false);
+                            schedule();
+                            checkpointIfDue();
+                        } catch (RuntimeException ex) {
+                            // Wie bei einem Befehl: die Simulation hält an, der Thread läuft aber weiter
+                            pauseAfterError(ex);
+                            publish(true);
+                        }
+                        continue;
+                    }
+                } else {
+                    // Eine übersprungene Generation muss noch gezeichnet werden, bevor gewartet wird
+                    if (publishPending) {
+                        publish(true);
+                    }
+                    command = commands.take();
+                }
+
+                try {
+                    command.run();
+                } catch (RuntimeException ex) {
+                    // Ein fehlerhafter Befehl (z.B. ungültige Zahl) hält die Simulation an, beendet sie aber nicht
+                    pauseAfterError(ex);
+                }
+                publish(true);
+            }
+        } catch (InterruptedException ex) {
+            // Die Simulation wird beendet
+        }
+    }
+
+    /**
+     * Hält die Simulation nach einem Fehler an und meldet das dem Fenster (siehe takeAutoPause()).
+     *
+     * @param ex Fehler
+     */
+    private void pauseAfterError(RuntimeException ex) {
+        ex.printStackTrace();
+        if (running) {
+            running = false;
+            autoPaused.set(true);
+        }
+    }
+
+    /**
+     * Berechnet den Zeitpunkt der nächsten Generation und misst die erreichten Generationen pro Sekunde.
+     */
+    private void schedule() {
+        long now = System.nanoTime();
+        double target = targetGensPerSecond;
+        if (target > 0) {
+            long interval = (long) (1e9 / target);
+            deadline += interval;
+            // Ist die Simulation weit zurück, wird nicht aufgeholt, sondern ab jetzt wieder im Takt gerechnet
+            if (deadline < now - interval) {
+                deadline = now;
+            }
+        }
+
+        measuredGens++;
+        if (now - measureStart >= MEASURE_INTERVAL) {
+            achievedGensPerSecond = measuredGens * 1e9 / (now - measureStart);
+            measureStart = now;
+            measuredGens = 0;
+        }
+    }
+
+    /**
+     * Kopiert die aktuelle Generation in den Snapshot zum Zeichnen.
+     *
+     * @param force Boolean, ob auf das Zeichnen gewartet wird (sonst wird der Snapshot übersprungen, wenn er gerade gelesen wird)
+     */
+    private void publish(boolean force) {
+        if (force) {
+            snapshotLock.lock();
+        } else if (!snapshotLock.tryLock()) {
+            publishPending = true;
+            return;
+        }
+        try {
+            long start = Profiler.start();
+            snapshot.copyChangesFrom(currentGen);
+            Profiler.stop(Phase.COPY, start);
+            publishPending = false;
+        } finally {
+            snapshotLock.unlock();
+        }
+        engineStatus = engine.getStatus();
+    }
+
+    /**
+     * Führt eine Aktion mit dem Snapshot der aktuellen Generation aus (z.B. Zeichnen).
+     * Der Snapshot wird während der Aktion nicht verändert und darf danach nicht mehr verwendet werden.
+     *
+     * @param action Aktion, welche den Snapshot liest
+     */
+    public void withSnapshot(Consumer<Board> action) {
+        snapshotLock.lock();
+        try {
+            action.accept(snapshot);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Stellt einen Befehl in die Warteschlange des Simulations Threads.
+     *
+     * @param command Befehl
+     */
+    private void execute(Runnable command) {
+        commands.add(command);
+    }
+
+    /**
+     * Startet oder hält die Simulation an.
+     *
+     * @param running Boolean, ob die Generationen laufend berechnet werden
+     */
+    public void setRunning(boolean running) {
+        execute(() -> {
+            this.running = running;
+            deadline = System.nanoTime();
+            measureStart = deadline;
+            measuredGens = 0;
+            achievedGensPerSecond = 0;
+        });
+    }
+
+    /**
+     * @param gensPerSecond Anzahl Generationen pro Sekunde, 0 für so schnell wie möglich
+     */
+    public void setTargetGensPerSecond(double gensPerSecond) {
+        if (gensPerSecond < 0) {
+            throw new IllegalArgumentException("Generationen pro Sekunde dürfen nicht negativ sein: " + gensPerSecond);
+        }
+        targetGensPerSecond = gensPerSecond;
+    }
+
+    /**
+     * Berechnet mehrere Generationen auf einmal. HashLife springt dabei direkt über alle Generationen.
+     *
+     * @param generations Anzahl Generationen
+     */
+    public void step(long generations) {
+        execute(() -> {
+            if (cycles.isCycle() && engineType.isBounded() && generations > cycles.getPeriod()) {
+                fastForwardNow(generations);
+            } else if (engine instanceof HashLife && generations > 1) {
+                jumpNow((HashLife) engine, generations);
+            } else {
+                for (long i = 0; i < generations; i++) {
+                    stepNow();
+                }
+            }
+        });
+    }
+
+    /**
+     * Springt um mehrere Generationen zurück. Die zurückgesprungenen Generationen werden aus dem Verlauf gelöscht.
+     *
+     * @param generations Anzahl Generationen
+     */
+    public void stepBack(long generations) {
+        execute(() -> {
+            // Nach einem HashLife Sprung oder im ausgedünnten Verlauf fehlen Generationen,
+            // dann wird die letzte gespeicherte Generation davor genommen
+            long target = currentGen.getGeneration() - generations;
+            if (isRepeated(target)) {
+                // Die Generation wurde nicht gespeichert, sie ist aber gleich wie eine der ersten Periode
+                history.restore(cycles.reduce(target), currentGen);
+                currentGen.setGeneration(target);
+            } else {
+                history.restore(target, currentGen);
+            }
+            matchNextGen();
+            lastFadeSteps = -1;
+            resetCycle();
+            statistics.record(currentGen);
+        });
+    }
+
+    /**
+     * Springt zu einer Generation (vorwärts oder rückwärts), ohne den Verlauf zu verändern.
+     *
+     * @param generation Nummer der Generation
+     */
+    public void goTo(long generation) {
+        execute(() -> {
+            // Die aktuelle Generation zuerst speichern, damit wieder zu ihr gesprungen werden kann
+            // (innerhalb einer Wiederholung nicht nötig, sie ist gleich wie eine gespeicherte)
+            if (currentGen.getGeneration() > history.getLastGeneration() && !isRepeated(currentGen.getGeneration())) {
+                history.push(currentGen, lastFadeSteps);
+            }
+            if (isRepeated(generation)) {
+                history.read(cycles.reduce(generation), currentGen);
+                currentGen.setGeneration(generation);
+            } else {
+                history.read(generation, currentGen);
+            }
+            matchNextGen();
+            lastFadeSteps = -1;
+            resetCycle();
+        });
+    }
+
+    /**
+     * Verändert die Grösse des Spielfeldes. Die Zellen, die in beiden Grössen Platz haben, bleiben erhalten
+     * (siehe Board.resize()), die Spielfelder werden dabei wenn möglich nicht neu angelegt. Der Verlauf wird
+     * nicht gelöscht: ein Verlauf im Speicher beginnt beim nächsten Speichern neu, eine Verlaufsdatei speichert
+     * erst wieder, wenn das Spielfeld die Grösse ihrer Generationen hat (siehe FrameHistory).
+     *
+     * @param width  Anzahl Spalten
+     * @param height Anzahl Zeilen
+     */
+    public void resize(int width, int height) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Spielfeld muss mindestens 1 x 1 Zellen haben: "
+                    + width + " x " + height);
+        }
+        execute(() -> {
+            if (width == currentGen.getWidth() && height == currentGen.getHeight()) {
+                return;
+            }
+            currentGen.resize(width, height);
+            nextGen.resize(width, height);
+            lastFadeSteps = -1;
+            resetCycle();
+            statistics.record(currentGen);
+        });
+    }
+
+    /**
+     * Tötet alle Zellen und löscht den Verlauf.
+     */
+    public void clear() {
+        execute(() -> {
+            currentGen.clear();
+            currentGen.setGeneration(0);
+            history.clear();
+            resetCycle();
+            statistics.clear();
+            statistics.record(currentGen);
+        });
+    }
+
+    /**
+     * Erstellt eine neue, zufällige erste Generation und löscht den Verlauf.
+     *
+     * @param probability Wahrscheinlichkeit in Prozent, dass eine Zelle lebt
+     */
+    public void randomize(int probability) {
+        execute(() -> {
+            randomizeNow(probability);
+            statistics.record(currentGen);
+        });
+    }
+
+    /**
+     * Lädt ein Pattern (RLE oder .cells) in die Mitte des Spielfeldes und löscht den Verlauf.
+     * Enthält die Datei eine Regel (RLE), wird sie übernommen.
+     * Kann die Datei nicht gelesen werden, bleibt die aktuelle Generation erhalten.
+     *
+     * @param path Datei
+     */
+    public void loadPattern(Path path) {
+        execute(() -> {
+            String patternRule;
+            try {
+                // Zuerst in das zweite Spielfeld laden, damit ein fehlerhaftes Pattern nichts verändert
+                patternRule = Patterns.load(path, nextGen);
+            } catch (IOException ex) {
+                System.err.println("Pattern kann nicht geladen werden: " + ex.getMessage());
+                return;
+            }
+            currentGen.copyFrom(nextGen);
+            if (patternRule != null) {
+                applyRule(patternRule);
+            }
+            seed = 0;
+            history.clear();
+            resetCycle();
+            statistics.clear();
+            statistics.record(currentGen);
+        });
+    }
+
+    /**
+     * Speichert den ganzen Zustand der aktuellen Generation in einem binären Snapshot.
+     *
+     * @param path     Datei (wird ersetzt)
+     * @param compress Boolean, ob die Daten komprimiert werden
+     */
+    public void saveSnapshot(Path path, boolean compress) {
+        execute(() -> saveSnapshotNow(path, compress));
+    }
+
+    /**
+     * Lädt einen binären Snapshot mit seiner Regel und löscht den Verlauf. Das Spielfeld bekommt die Grösse des
+     * Snapshots. Kann die Datei nicht gelesen werden, bleibt die aktuelle Generation erhalten.
+     *
+     * @param path Datei
+     */
+    public void loadSnapshot(Path path) {
+        execute(() -> {
+            if (loadSnapshotNow(path)) {
+                statistics.record(currentGen);
+            }
+        });
+    }
+
+    /**
+     * Speichert die aktuelle Generation regelmässig, während die Simulation läuft, und beim Beenden.
+     * Beim Start wird sie wieder geladen (siehe start()), so kann ein langer Lauf nach einem Absturz fortgesetzt werden.
+     *
+     * @param path    Datei für den Checkpoint oder null, um keine Checkpoints mehr zu speichern
+     * @param seconds Abstand zwischen zwei Checkpoints in Sekunden
+     */
+    public void setCheckpoint(Path path, long seconds) {
+        execute(() -> {
+            checkpointFile = path;
+            checkpointInterval = TimeUnit.SECONDS.toNanos(seconds);
+            nextCheckpoint = System.nanoTime() + checkpointInterval;
+        });
+    }
+
+    /**
+     * Speichert einen Checkpoint, wenn seit dem letzten genug Zeit vergangen ist.
+     */
+    private void checkpointIfDue() {
+        if (checkpointFile != null && System.nanoTime() >= nextCheckpoint) {
+            saveSnapshotNow(checkpointFile, true);
+            nextCheckpoint = System.nanoTime() + checkpointInterval;
+        }
+    }
+
+    private void saveSnapshotNow(Path path, boolean compress) {
+        try {
+            SnapshotFile.save(path, currentGen, new SnapshotInfo(rule.toString(), seed, counter), compress);
+        } catch (IOException ex) {
+            System.err.println("Snapshot kann nicht gespeichert werden: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * @return Boolean, ob der Snapshot geladen wurde
+     */
+    private boolean loadSnapshotNow(Path path) {
+        SnapshotInfo info;
+        try {
+            // Zuerst in das zweite Spielfeld laden, damit ein fehlerhafter Snapshot nichts verändert
+            info = SnapshotFile.load(path, nextGen);
+        } catch (IOException ex) {
+            System.err.println("Snapshot kann nicht geladen werden: " + ex.getMessage());
+            return false;
+        }
+        // Hat der Snapshot eine andere Grösse, werden beide Spielfelder angepasst (siehe Board.copyFrom())
+        currentGen.copyFrom(nextGen);
+        applyRule(info.getRule());
+        seed = info.getSeed();
+        counter = info.getCounter();
+        history.clear();
+        resetCycle();
+        statistics.clear();
+        return true;
+    }
+
+    /**
+     * Speichert die aktuelle Generation als Pattern (RLE oder .cells, je nach Endung).
+     *
+     * @param path Datei (wird überschrieben)
+     */
+    public void savePattern(Path path) {
+        execute(() -> {
+            try {
+                Patterns.save(currentGen, path, rule.toString());
+            } catch (IOException ex) {
+                System.err.println("Pattern kann nicht gespeichert werden: " + ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Belebt oder tötet eine Zelle.
+     *
+     * @param x     Spalte der Zelle
+     * @param y     Zeile der Zelle
+     * @param alive Boolean, ob die Zelle belebt wird
+     */
+    public void setCell(int x, int y, boolean alive) {
+        execute(() -> {
+            if (alive) {
+                currentGen.revive(x, y);
+            } else {
+                currentGen.kill(x, y);
+            }
+            // Die Anzahl lebender Zellen der aktuellen Generation hat sich verändert, ihre Farben können
+            // im Verlauf nicht mehr aus der vorherigen Generation berechnet werden
+            statistics.record(currentGen);
+            lastFadeSteps = -1;
+            resetCycle();
+        });
+    }
+
+    /**
+     * Setzt das Verfahren, mit dem die nächste Generation berechnet wird.
+     *
+     * @param engineType Typ der Engine
+     */
+    public void setEngine(EngineType engineType) {
+        execute(() -> {
+            // Der Typ wird erst zusammen mit der Engine gewechselt, bis dahin gilt er für die alte Engine
+            boolean wasBounded = this.engineType.isBounded();
+            this.engineType = engineType;
+            // Die alte Engine gibt ihre Threads wieder frei
+            engine.close();
+            engine = engineType.create(rule, boundary);
+            jumpInfo = null;
+            if (!wasBounded || !engineType.isBounded()) {
+                // Im unbegrenzten Universum werden keine Wiederholungen gesucht (siehe detectCycle()),
+                // die Generationen davor oder danach gehören nicht zur gleichen Suche
+                resetCycle();
+            }
+        });
+    }
+
+    /**
+     * Setzt die Regel, nach der die nächsten Generationen berechnet werden.
+     * Die aktuelle Generation und der Verlauf bleiben erhalten.
+     *
+     * @param rule Regel
+     */
+    public void setRule(Rule rule) {
+        execute(() -> setRuleNow(rule));
+    }
+
+    private void setRuleNow(Rule rule) {
+        if (rule.equals(this.rule)) {
+            return;
+        }
+        this.rule = rule;
+        engine.close();
+        engine = engineType.create(rule, boundary);
+        jumpInfo = null;
+        // Eine erkannte Wiederholung gilt nur für die alte Regel
+        resetCycle();
+    }
+
+    /**
+     * Setzt das Verhalten am Rand des Spielfeldes (gilt nicht für HashLife und Sparse).
+     * Die aktuelle Generation und der Verlauf bleiben erhalten.
+     *
+     * @param boundary Rand
+     */
+    public void setBoundary(Boundary boundary) {
+        execute(() -> {
+            if (boundary == this.boundary) {
+                return;
+            }
+            this.boundary = boundary;
+            engine.close();
+            engine = engineType.create(rule, boundary);
+            // Eine erkannte Wiederholung gilt nur für den alten Rand
+            resetCycle();
+        });
+    }
+
+    /**
+     * Übernimmt die Regel aus einer Datei. Ist sie ungültig, wird mit der aktuellen Regel weitergerechnet.
+     *
+     * @param text Regel in der B/S Notation
+     */
+    private void applyRule(String text) {
+        try {
+            setRuleNow(Rule.parse(text));
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage() + ", es wird mit " + rule + " gerechnet");
+        }
+    }
+
+    /**
+     * Beendet den Simulations Thread, gibt die Engine frei und speichert den letzten Checkpoint.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        engine.close();
+        // Der Thread ist beendet, die aktuelle Generation kann direkt gespeichert werden
+        if (checkpointFile != null) {
+            saveSnapshotNow(checkpointFile, true);
+        }
+    }
+
+    /**
+     * Berechnet die nächste Generation.
+     */
+    private void stepNow() {
+        // Die aktuelle Generation wird gespeichert, damit bei Bedarf auf diese Generation zurück gegangen werden kann.
+        // Innerhalb einer Wiederholung sind alle Generationen schon gespeichert (die erste Periode)
+        long start = Profiler.start();
+        if (!cycles.isCycle()) {
+            history.push(currentGen, lastFadeSteps);
+        }
+        Profiler.stop(Phase.HISTORY, start);
+
+        // Die Engine liest nur aus der aktuellen Generation und schreibt in das zweite, bereits angelegte Spielfeld
+        // Die Farben verblassen bei jeder zweiten Generation
+        boolean fade = counter++ % 2 == 0;
+        start = Profiler.start();
+        engine.step(currentGen, nextGen, fade);
+        Profiler.stop(Phase.STEP, start);
+        nextGen.setGeneration(currentGen.getGeneration() + 1);
+        lastFadeSteps = fade ? 1 : 0;
+
+        // Die vorbereitete Generation wird als aktuelle Generation gesetzt, das alte Spielfeld wird wiederverwendet
+        swap();
+        statistics.record(currentGen);
+        detectCycle();
+    }
+
+    /**
+     * Springt innerhalb einer Wiederholung um mehrere Generationen vorwärts. Berechnet wird nur der Rest
+     * nach ganzen Perioden, die ganzen Perioden ändern an den lebenden Zellen nichts (die Farben verblassen
+     * dabei nur um die berechneten Generationen).
+     *
+     * @param generations Anzahl Generationen
+     */
+    private void fastForwardNow(long generations) {
+        int period = cycles.getPeriod();
+        long rest = generations % period;
+        for (long i = 0; i < rest; i++) {
+            stepNow();
+        }
+        long skipped = generations - rest;
+        currentGen.setGeneration(currentGen.getGeneration() + skipped);
+        cycles.skip(skipped);
+        statistics.record(currentGen);
+    }
+
+    /**
+     * Sucht eine Wiederholung mit der aktuellen Generation. Wird eine gefunden, wird sie gemeldet und
+     * die Simulation angehalten, falls pauseOnCycle gesetzt ist.
+     */
+    private void detectCycle() {
+        // Im unbegrenzten Universum zeigt das Spielfeld nur einen Ausschnitt, eine Wiederholung darin
+        // (z.B. nachdem ein Glider das Spielfeld verlassen hat) gilt nicht für das ganze Universum
+        if (!engineType.isBounded()) {
+            return;
+        }
+        if (cycles.update(currentGen)) {
+            cycleInfo = "Cycle: period " + cycles.getPeriod() + "\nsince gen " + cycles.getStart();
+            if (pauseOnCycle && running) {
+                running = false;
+                autoPaused.set(true);
+            }
+        }
+    }
+
+    /**
+     * Vergisst eine erkannte Wiederholung, z.B. weil die aktuelle Generation bearbeitet wurde.
+     */
+    private void resetCycle() {
+        cycles.reset();
+        cycleInfo = null;
+    }
+
+    /**
+     * @param generation Nummer einer Generation
+     * @return Boolean, ob die Generation innerhalb der erkannten Wiederholung liegt und nicht gespeichert wurde
+     */
+    private boolean isRepeated(long generation) {
+        return cycles.isCycle() && generation > history.getLastGeneration() && generation >= cycles.getStart();
+    }
+
+    /**
+     * Springt mit HashLife um mehrere Generationen vorwärts. Die übersprungenen Generationen
+     * werden nicht gespeichert, nur die Generation vor dem Sprung.
+     *
+     * @param hashLife    HashLife Engine
+     * @param generations Anzahl Generationen, die übersprungen werden
+     */
+    private void jumpNow(HashLife hashLife, long generations) {
+        resetCycle();
+        long start = Profiler.start();
+        history.push(currentGen, lastFadeSteps);
+        Profiler.stop(Phase.HISTORY, start);
+
+        boolean fade = counter++ % 2 == 0;
+        start = Profiler.start();
+        hashLife.advance(currentGen, nextGen, generations, fade);
+        Profiler.stop(Phase.STEP, start);
+        nextGen.setGeneration(currentGen.getGeneration() + generations);
+        lastFadeSteps = fade ? (int) Math.min(generations, Integer.MAX_VALUE) : 0;
+        swap();
+        statistics.record(currentGen);
+
+        // Grösse des Knoten Caches und Trefferquote der gespeicherten Resultate
+        jumpInfo = "Nodes: " + hashLife.getNodeCount()
+                + "\nHits: " + Math.round(hashLife.getHitRate() * 1000) / 10.0f + "%";
+    }
+
+    private void randomizeNow(int probability) {
+        // Jede Zelle im Spielfeld wird mit der Wahrscheinlichkeit probability belebt
+        seed = new Random().nextLong();
+        currentGen.randomize(new Random(seed), probability);
+        currentGen.setGeneration(0);
+
+        // Zwischengespeicherte Generation und Zeitreihe löschen
+        history.clear();
+        resetCycle();
+        statistics.clear();
+    }
+
+    /**
+     * Gibt dem zweiten Spielfeld die Grösse der aktuellen Generation, nachdem diese aus dem Verlauf gelesen wurde
+     * (gespeicherte Generationen können eine andere Grösse haben).
+     */
+    private void matchNextGen() {
+        nextGen.resize(currentGen.getWidth(), currentGen.getHeight());
+    }
+
+    private void swap() {
+        Board oldGen = currentGen;
+        currentGen = nextGen;
+        nextGen = oldGen;
+    }
+
+    /**
+     * @return Anzahl lebender, geborener und gestorbener Zellen pro Generation
+     */
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return Boolean, ob die Generationen laufend berechnet werden
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return Gewünschte Anzahl Generationen pro Sekunde (0 für so schnell wie möglich)
+     */
+    public double getTargetGensPerSecond() {
+        return targetGensPerSecond;
+    }
+
+    /**
+     * @return Erreichte Anzahl Generationen pro Sekunde (0, wenn die Simulation angehalten ist)
+     */
+    public double getAchievedGensPerSecond() {
+        return running ? achievedGensPerSecond : 0;
+    }
+
+    /**
+     * @return Typ der Engine
+     */
+    public EngineType getEngineType() {
+        return engineType;
+    }
+
+    /**
+     * @return Regel, nach der die Generationen berechnet werden
+     */
+    public Rule getRule() {
+        return rule;
+    }
+
+    /**
+     * @return Verhalten am Rand des Spielfeldes
+     */
+    public Boundary getBoundary() {
+        return boundary;
+    }
+
+    /**
+     * @return Zustand der Engine für die Anzeige oder null
+     */
+    public String getEngineStatus() {
+        return engineStatus;
+    }
+
+    /**
+     * @return Knoten und Trefferquote nach dem letzten HashLife Sprung oder null
+     */
+    public String getJumpInfo() {
+        return jumpInfo;
+    }
+
+    /**
+     * @return Periode und erste Generation der erkannten Wiederholung für die Anzeige oder null
+     */
+    public String getCycleInfo() {
+        return cycleInfo;
+    }
+
+    /**
+     * @param pauseOnCycle Boolean, ob die Simulation anhält, wenn sich die Generationen wiederholen
+     */
+    public void setPauseOnCycle(boolean pauseOnCycle) {
+        this.pauseOnCycle = pauseOnCycle;
+    }
+
+    /**
+     * @return Boolean, ob die Simulation seit dem letzten Aufruf von selbst angehalten hat (Wiederholung oder Fehler)
+     */
+    public boolean takeAutoPause() {
+        return autoPaused.getAndSet(false);
+    }
+
+    /**
+     * @return Anzahl Spalten
+     */
+    public int getWidth() {
+        return snapshot.getWidth();
+    }
+
+    /**
+     * @return Anzahl Zeilen
+     */
+    public int getHeight() {
+        return snapshot.getHeight();
+    }
+}
@@ -0,0 +1,182 @@
+package simulation;
+
+import engine.Board;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Zeitreihe mit der Anzahl lebender, geborener und gestorbener Zellen pro Generation.
+ *
+ * Die Werte werden in einem Ringpuffer aus primitiven Arrays gespeichert (keine Objekte pro Generation).
+ * Ist der Puffer voll, wird die älteste Generation überschrieben. Die Zahlen stammen direkt vom Spielfeld
+ * (siehe Board.getPopulation()), es muss also nichts gezählt werden.
+ *
+ * Die Zeitreihe wird vom Simulations Thread geschrieben und kann gleichzeitig aus einem anderen Thread
+ * gelesen oder exportiert werden.
+ */
+public class Statistics {
+    // Anzahl Generationen im Puffer, kann mit -Dgol.stats.capacity=N festgelegt werden
+    public static final int DEFAULT_CAPACITY = Integer.getInteger("gol.stats.capacity", 1 << 16);
+
+    private final long[] generations;
+    private final int[] population;
+    private final int[] births;
+    private final int[] deaths;
+
+    // Index der ältesten Generation und Anzahl gespeicherter Generationen
+    private int start;
+    private int size;
+
+    /**
+     * Konstruktor mit der Kapazität aus den System Properties.
+     */
+    public Statistics() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity Maximale Anzahl Generationen (mindestens 1)
+     */
+    public Statistics(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Kapazität muss mindestens 1 sein: " + capacity);
+        }
+        generations = new long[capacity];
+        population = new int[capacity];
+        births = new int[capacity];
+        deaths = new int[capacity];
+    }
+
+    /**
+     * Speichert die Werte der Generation im Spielfeld. Neuere oder gleiche Generationen gehören zu einem
+     * anderen Verlauf (es wurde zurück gesprungen oder die Generation bearbeitet) und werden ersetzt.
+     *
+     * @param board Spielfeld
+     */
+    public synchronized void record(Board board) {
+        while (size > 0 && generations[index(size - 1)] >= board.getGeneration()) {
+            size--;
+        }
+        int index;
+        if (size < generations.length) {
+            index = index(size);
+            size++;
+        } else {
+            // Der Puffer ist voll, die älteste Generation wird überschrieben
+            index = start;
+            start = index(1);
+        }
+        generations[index] = board.getGeneration();
+        population[index] = board.getPopulation();
+        births[index] = board.getBirths();
+        deaths[index] = board.getDeaths();
+    }
+
+    /**
+     * Löscht alle Generationen.
+     */
+    public synchronized void clear() {
+        start = 0;
+        size = 0;
+    }
+
+    /**
+     * @return Anzahl gespeicherter Generationen
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @param i Index (0 ist die älteste gespeicherte Generation)
+     * @return Nummer der Generation
+     */
+    public synchronized long getGeneration(int i) {
+        return generations[checkedIndex(i)];
+    }
+
+    /**
+     * @param i Index (0 ist die älteste gespeicherte Generation)
+     * @return Anzahl lebender Zellen
+     */
+    public synchronized int getPopulation(int i) {
+        return population[checkedIndex(i)];
+    }
+
+    /**
+     * @param i Index (0 ist die älteste gespeicherte Generation)
+     * @return Anzahl geborener Zellen im Schritt zu dieser Generation
+     */
+    public synchronized int getBirths(int i) {
+        return births[checkedIndex(i)];
+    }
+
+    /**
+     * @param i Index (0 ist die älteste gespeicherte Generation)
+     * @return Anzahl gestorbener Zellen im Schritt zu dieser Generation
+     */
+    public synchronized int getDeaths(int i) {
+        return deaths[checkedIndex(i)];
+    }
+
+    /**
+     * Schreibt alle gespeicherten Generationen als CSV (generation,population,births,deaths).
+     *
+     * @param writer Ziel
+     * @throws IOException Wenn nicht geschrieben werden kann
+     */
+    public void export(Writer writer) throws IOException {
+        // Die Werte werden zuerst kopiert, damit der Simulations Thread nicht auf das Schreiben warten muss
+        long[] generations;
+        int[] population;
+        int[] births;
+        int[] deaths;
+        synchronized (this) {
+            generations = new long[size];
+            population = new int[size];
+            births = new int[size];
+            deaths = new int[size];
+            for (int i = 0; i < size; i++) {
+                int index = index(i);
+                generations[i] = this.generations[index];
+                population[i] = this.population[index];
+                births[i] = this.births[index];
+                deaths[i] = this.deaths[index];
+            }
+        }
+
+        writer.write("generation,population,births,deaths\n");
+        for (int i = 0; i < generations.length; i++) {
+            writer.write(generations[i] + "," + population[i] + "," + births[i] + "," + deaths[i] + "\n");
+        }
+        writer.flush();
+    }
+
+    /**
+     * Schreibt alle gespeicherten Generationen als CSV in eine Datei.
+     *
+     * @param path Pfad der Datei (wird überschrieben)
+     * @throws IOException Wenn die Datei nicht geschrieben werden kann
+     */
+    public void export(Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            export(writer);
+        }
+    }
+
+    private int index(int i) {
+        return (start + i) % generations.length;
+    }
+
+    private int checkedIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + ", Anzahl " + size);
+        }
+        return index(i);
+    }
+}
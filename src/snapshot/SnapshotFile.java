@@ -0,0 +1,232 @@
+package snapshot;
+
+import engine.Board;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binäres Format, um den ganzen Zustand einer Generation zu speichern und wieder zu laden.
+ *
+ * Aufbau (little endian):
+ * <pre>
+ * 0   Kennung "GOLS", Version
+ * 8   Breite, Höhe
+ * 16  Nummer der Generation
+ * 24  Seed der ersten Generation
+ * 32  Zähler der berechneten Generationen
+ * 40  Flags (1 = komprimiert), Länge der Daten, CRC32 der unkomprimierten Daten, Länge der Regel
+ * 64  Regel (ASCII), danach die Daten: Bitfeld (ein long pro 64 Zellen), Alter der Zellen
+ *     (zuerst die tiefen, danach die hohen Bytes, je ein byte pro Zelle)
+ * </pre>
+ * Die Daten können mit Deflate komprimiert werden (das Bitfeld lässt sich kaum, das Alter sehr gut komprimieren).
+ * Snapshots der Version 1 enthalten statt dem Alter Rot und Blau (ein byte pro Zelle), sie werden beim Laden umgerechnet.
+ * Geschrieben wird zuerst in eine temporäre Datei, welche danach umbenannt wird. Bei einem Absturz während
+ * dem Speichern bleibt also der letzte vollständige Snapshot erhalten.
+ */
+public final class SnapshotFile {
+    // Kennung am Anfang der Datei ("GOLS")
+    private static final int MAGIC = 0x474F4C53;
+    private static final int VERSION = 2;
+    // Version mit Rot und Blau statt dem Alter der Zellen
+    private static final int VERSION_COLORS = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int FLAG_COMPRESSED = 1;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Speichert die Generation im Spielfeld.
+     *
+     * @param path     Datei (wird ersetzt)
+     * @param board    Spielfeld
+     * @param info     Zustand der Simulation
+     * @param compress Boolean, ob die Daten komprimiert werden
+     * @throws IOException Wenn die Datei nicht geschrieben werden kann
+     */
+    public static void save(Path path, Board board, SnapshotInfo info, boolean compress) throws IOException {
+        int wordBytes = board.getWordCount() * Long.BYTES;
+        int cells = board.getWidth() * board.getHeight();
+        byte[] data = new byte[wordBytes + 2 * cells];
+        ByteBuffer payload = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        board.getWords(payload.asLongBuffer());
+        short[] ages = new short[cells];
+        board.getAges(ages);
+        for (int i = 0; i < cells; i++) {
+            data[wordBytes + i] = (byte) ages[i];
+            data[wordBytes + cells + i] = (byte) (ages[i] >>> 8);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        int length = data.length;
+        if (compress) {
+            data = deflate(data);
+            length = data.length;
+        }
+
+        byte[] rule = info.getRule().getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION);
+        header.putInt(board.getWidth()).putInt(board.getHeight());
+        header.putLong(board.getGeneration()).putLong(info.getSeed()).putLong(info.getCounter());
+        header.putInt(compress ? FLAG_COMPRESSED : 0).putInt(length).putInt((int) crc.getValue()).putInt(rule.length);
+        header.clear();
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] buffers = {header, ByteBuffer.wrap(rule), ByteBuffer.wrap(data, 0, length)};
+            while (buffers[2].hasRemaining()) {
+                channel.write(buffers);
+            }
+            channel.force(false);
+        }
+        try {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Lädt eine gespeicherte Generation. Das Spielfeld bekommt dabei die Grösse des Snapshots (siehe Board.resize()),
+     * aber erst, wenn die Datei ganz geprüft ist: ist sie ungültig, bleibt das Spielfeld unverändert.
+     *
+     * @param path  Datei
+     * @param board Spielfeld
+     * @return Zustand der Simulation
+     * @throws IOException Wenn die Datei nicht gelesen werden kann, kein Snapshot ist oder beschädigt ist
+     */
+    public static SnapshotInfo load(Path path, Board board) throws IOException {
+        ByteBuffer file;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Kein Snapshot: " + path);
+            }
+            file = ByteBuffer.allocate((int) size);
+            while (file.hasRemaining() && channel.read(file) >= 0) {
+                // Lesen bis die ganze Datei im Buffer ist
+            }
+            file.flip();
+        }
+        file.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (file.getInt() != MAGIC) {
+            throw new IOException("Kein Snapshot: " + path);
+        }
+        int version = file.getInt();
+        if (version != VERSION && version != VERSION_COLORS) {
+            throw new IOException("Unbekannte Version " + version + " des Snapshots: " + path);
+        }
+        int width = file.getInt();
+        int height = file.getInt();
+        if (width < 1 || height < 1) {
+            throw new IOException("Snapshot hat eine ungültige Grösse (" + width + " x " + height + "): " + path);
+        }
+        long generation = file.getLong();
+        long seed = file.getLong();
+        long counter = file.getLong();
+        int flags = file.getInt();
+        int length = file.getInt();
+        int checksum = file.getInt();
+        int ruleLength = file.getInt();
+        if (ruleLength < 0 || length < 0 || (long) HEADER_SIZE + ruleLength + length > file.limit()) {
+            throw new IOException("Snapshot ist unvollständig: " + path);
+        }
+
+        byte[] rule = new byte[ruleLength];
+        file.position(HEADER_SIZE);
+        file.get(rule);
+
+        long dataSize = (long) ((width + 63) >>> 6) * height * Long.BYTES + 2L * width * height;
+        if (dataSize > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot ist zu gross (" + width + " x " + height + "): " + path);
+        }
+        int wordBytes = ((width + 63) >>> 6) * height * Long.BYTES;
+        int cells = width * height;
+        byte[] data;
+        if ((flags & FLAG_COMPRESSED) != 0) {
+            data = inflate(file.array(), file.position(), length, wordBytes + 2 * cells);
+        } else {
+            data = Arrays.copyOfRange(file.array(), file.position(), file.position() + length);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        if (data.length != wordBytes + 2 * cells || (int) crc.getValue() != checksum) {
+            throw new IOException("Snapshot ist beschädigt: " + path);
+        }
+
+        board.resize(width, height);
+        board.setWords(ByteBuffer.wrap(data, 0, wordBytes).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer());
+        short[] ages = new short[cells];
+        for (int i = 0; i < cells; i++) {
+            int first = data[wordBytes + i] & 0xFF;
+            int second = data[wordBytes + cells + i] & 0xFF;
+            if (version == VERSION_COLORS) {
+                // Rot verblasst zuerst, danach Blau: das Alter ist die Summe der verblassten Stufen
+                ages[i] = (short) ((Board.DEAD_RED - first) + (Board.DEAD_BLUE - second));
+            } else {
+                ages[i] = (short) (first | second << 8);
+            }
+        }
+        board.setAges(ages);
+        board.setGeneration(generation);
+        return new SnapshotInfo(new String(rule, StandardCharsets.US_ASCII), seed, counter);
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            byte[] output = new byte[data.length / 4 + 64];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == output.length) {
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+                length += deflater.deflate(output, length, output.length - length);
+            }
+            return Arrays.copyOf(output, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input, int offset, int length, int expected) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input, offset, length);
+            byte[] output = new byte[expected];
+            int total = 0;
+            while (total < expected && !inflater.finished()) {
+                int read = inflater.inflate(output, total, expected - total);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                total += read;
+            }
+            return total == expected ? output : Arrays.copyOf(output, total);
+        } catch (DataFormatException ex) {
+            throw new IOException("Snapshot ist beschädigt: " + ex.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+}
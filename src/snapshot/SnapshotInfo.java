@@ -0,0 +1,33 @@
+package snapshot;
+
+/**
+ * Zustand der Simulation, der zusammen mit dem Spielfeld in einem Snapshot gespeichert wird.
+ */
+public class SnapshotInfo {
+    private final String rule;
+    private final long seed;
+    private final long counter;
+
+    /**
+     * @param rule    Regel, mit der die Generationen berechnet werden (z.B. "B3/S23")
+     * @param seed    Seed des Zufallsgenerators der ersten Generation (0, wenn sie nicht zufällig war)
+     * @param counter Zähler der berechneten Generationen (bestimmt, bei welcher Generation die Farben verblassen)
+     */
+    public SnapshotInfo(String rule, long seed, long counter) {
+        this.rule = rule;
+        this.seed = seed;
+        this.counter = counter;
+    }
+
+    public String getRule() {
+        return rule;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getCounter() {
+        return counter;
+    }
+}